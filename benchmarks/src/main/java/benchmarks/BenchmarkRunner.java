@@ -0,0 +1,25 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the maze with allocation profiling, so each result
+ * comes with the bytes allocated per operation and the collections caused.
+ * The arguments are the usual JMH options, such as a pattern of the
+ * benchmarks to run or -p length=256 to run one size, and every benchmark
+ * runs when no pattern is given.
+ *
+ * @author Shaun Howard
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import maze.Maze;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of a maze, which makes its pillars
+ * and sets the neighbors of each, in bands of rows on the common
+ * pool and on the calling thread alone.
+ *
+ * @author Shaun Howard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstructionBenchmark {
+
+    /* the number of pillars in each row and column of the maze. */
+    @Param({"64", "256", "1024"})
+    int length;
+
+    @Benchmark
+    public Maze newMaze() {
+        return new Maze(length, length);
+    }
+
+    @Benchmark
+    public Maze newMazeOneThread() {
+        return new Maze(length, length, (ForkJoinPool) null);
+    }
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import maze.LinkChange;
+import maze.Maze;
+import maze.PackedGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures linking every plank of a generated maze into an empty maze of
+ * the same size, one plank at a time and as one batch.
+ *
+ * @author Shaun Howard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkBenchmark {
+
+    /* the number of pillars in each row and column of the maze. */
+    @Param({"64", "256", "1024"})
+    int length;
+
+    /* the chance of each plank. */
+    @Param({"0.3", "0.6", "0.9"})
+    double density;
+
+    /* the positions each plank leads from and to. */
+    Maze.Position[] from, to;
+
+    /* the packed coordinates each plank leads from and to. */
+    long[] fromCoordinates, toCoordinates;
+
+    /* the empty maze the planks are linked into. */
+    Maze maze;
+
+    @Setup(Level.Trial)
+    public void setUpPlanks() throws Exception {
+        PackedGrid grid = Mazes.grid(length, density);
+        List<Maze.Position> starts = new ArrayList<>();
+        List<Maze.Position> ends = new ArrayList<>();
+        for (int i = 0; i < grid.size(); i++) {
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if (grid.isLinked(i, direction)) {
+                    int n = grid.neighbor(i, direction);
+                    starts.add(Maze.position(i % length, i / length));
+                    ends.add(Maze.position(n % length, n / length));
+                }
+            }
+        }
+        from = starts.toArray(new Maze.Position[starts.size()]);
+        to = ends.toArray(new Maze.Position[ends.size()]);
+        fromCoordinates = new long[from.length];
+        toCoordinates = new long[to.length];
+        int plank = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if (grid.isLinked(i, direction)) {
+                    int n = grid.neighbor(i, direction);
+                    fromCoordinates[plank] = Maze.coordinate(i % length, i / length);
+                    toCoordinates[plank++] = Maze.coordinate(n % length, n / length);
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpMaze() {
+        maze = new Maze(length, length);
+    }
+
+    @Benchmark
+    public Maze linkPillars() throws Exception {
+        for (int i = 0; i < from.length; i++) {
+            maze.linkPillars(from[i], to[i]);
+        }
+        return maze;
+    }
+
+    @Benchmark
+    public Maze linkPillarsByCoordinate() throws Exception {
+        for (int i = 0; i < fromCoordinates.length; i++) {
+            maze.linkPillars(fromCoordinates[i], toCoordinates[i]);
+        }
+        return maze;
+    }
+
+    @Benchmark
+    public List<LinkChange> linkBatch() throws Exception {
+        Maze.Batch batch = maze.batch();
+        for (int i = 0; i < from.length; i++) {
+            batch.link(from[i], to[i]);
+        }
+        return batch.apply();
+    }
+}
@@ -0,0 +1,45 @@
+package benchmarks;
+
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.PackedGrid;
+
+/**
+ * Builds the mazes the benchmarks run on, the same mazes on every run.
+ *
+ * @author Shaun Howard
+ */
+final class Mazes {
+
+    /* the seed of every maze benchmarked. */
+    static final long SEED = 42;
+
+    private Mazes() {
+    }
+
+    /**
+     * Generates a square grid linking each pillar to each neighbor with the
+     * given chance, beginning at the first pillar and ending at the last.
+     *
+     * @param length  - the number of pillars in each row and column
+     * @param density - the chance of each plank from 0 to 1
+     * @return the grid
+     * @throws Exception - thrown when the length or density is bad
+     */
+    static PackedGrid grid(int length, double density) throws Exception {
+        return new MazeGenerator(SEED).random(length, length, density);
+    }
+
+    /**
+     * Generates a square maze linking each pillar to each neighbor with the
+     * given chance, beginning at the first pillar and ending at the last.
+     *
+     * @param length  - the number of pillars in each row and column
+     * @param density - the chance of each plank from 0 to 1
+     * @return the maze
+     * @throws Exception - thrown when the length or density is bad
+     */
+    static Maze maze(int length, double density) throws Exception {
+        return grid(length, density).toMaze();
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import maze.Maze;
+import maze.MazeSolver;
+import maze.Pillar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures solving a generated maze with P*, walking the previous pillars
+ * back from the end of a path and the manhattan distance to the end.
+ *
+ * @author Shaun Howard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+
+    /* the number of pillars in each row and column of the maze. */
+    @Param({"64", "256", "1024"})
+    int length;
+
+    /* the chance of each plank. */
+    @Param({"0.3", "0.6", "0.9"})
+    double density;
+
+    /* the number of extra planks that may be placed. */
+    @Param({"0", "1", "2"})
+    int planks;
+
+    /* the maze solved. */
+    Maze maze;
+
+    /* every pillar of the maze in grid order. */
+    Pillar[] pillars;
+
+    /* the end of a path along the first row and last column of the maze. */
+    Pillar pathEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        maze = Mazes.maze(length, density);
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(length - 1, length - 1));
+        pillars = new Pillar[maze.size()];
+        for (int i = 0; i < pillars.length; i++) {
+            pillars[i] = maze.getPillar(i);
+        }
+
+        /* chain the previous pillars along a path as long as a manhattan path across the maze */
+        Pillar previous = null;
+        for (int x = 0; x < length; x++) {
+            Pillar pillar = maze.getPillar(x, 0);
+            pillar.setPrevious(previous);
+            previous = pillar;
+        }
+        for (int y = 1; y < length; y++) {
+            Pillar pillar = maze.getPillar(length - 1, y);
+            pillar.setPrevious(previous);
+            previous = pillar;
+        }
+        pathEnd = previous;
+    }
+
+    @Benchmark
+    public List<Pillar> pStar() throws Exception {
+        return MazeSolver.pStar(maze, maze.size(), planks);
+    }
+
+    @Benchmark
+    public List<Pillar> shortestPath() {
+        return MazeSolver.shortestPath(pathEnd);
+    }
+
+    @Benchmark
+    public float distanceToEnd() {
+        Pillar end = maze.getEnd();
+        float sum = 0;
+        for (Pillar pillar : pillars) {
+            sum += MazeSolver.distanceToEnd(pillar, end);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long distanceToEndByIndex() {
+        int end = maze.endIndex();
+        long sum = 0;
+        for (int i = 0; i < pillars.length; i++) {
+            sum += MazeSolver.distanceToEnd(maze, i, end);
+        }
+        return sum;
+    }
+}
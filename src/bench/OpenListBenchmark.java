@@ -0,0 +1,80 @@
+package bench;
+
+import maze.Maze;
+import maze.OpenList;
+import maze.PlankSearch;
+import maze.MazeSolver;
+import maze.SearchContext;
+
+import java.util.Random;
+
+/**
+ * Compares the time P* and the plank-aware search take with each
+ * type of open list on a large maze of randomly linked pillars.
+ * <p/>
+ * Usage: OpenListBenchmark [side] [plank density percent] [rounds]
+ *
+ * @author Shaun Howard
+ */
+public class OpenListBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int density = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Maze maze = randomMaze(side, density, 42);
+        System.out.println("maze " + side + "x" + side + ", plank density " + density + "%, "
+                + rounds + " rounds");
+
+        for (OpenList.Type type : OpenList.Type.values()) {
+            SearchContext context = new SearchContext(maze, type);
+            long nanos = time(context, null, rounds);
+            System.out.printf("P*           %-15s %10.3f ms/solve%n", type, nanos / 1e6 / rounds);
+        }
+        for (OpenList.Type type : OpenList.Type.values()) {
+            PlankSearch search = new PlankSearch(maze, 1, type);
+            long nanos = time(null, search, rounds);
+            System.out.printf("plank search %-15s %10.3f ms/solve%n", type, nanos / 1e6 / rounds);
+        }
+    }
+
+    /**
+     * Times the given rounds of solves after as many rounds of warm up.
+     */
+    static long time(SearchContext context, PlankSearch search, int rounds) throws Exception {
+        long start = 0;
+        for (int i = 0; i < rounds * 2; i++) {
+            if (i == rounds) {
+                start = System.nanoTime();
+            }
+            if (context != null) {
+                MazeSolver.pStar(context);
+            } else {
+                search.solve();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Makes a square maze where each plank between neighbors is laid
+     * with the given percent chance, beginning at one corner and
+     * ending at the opposite corner.
+     */
+    static Maze randomMaze(int side, int density, long seed) throws Exception {
+        Random random = new Random(seed);
+        Maze maze = new Maze(side, side);
+        for (int i = 0; i < maze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int n = maze.neighbor(i, d);
+                if (n >= 0 && random.nextInt(100) < density) {
+                    maze.linkPillars(Maze.position(i % side, i / side), Maze.position(n % side, n / side));
+                }
+            }
+        }
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(side - 1, side - 1));
+        return maze;
+    }
+}
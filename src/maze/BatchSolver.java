@@ -0,0 +1,300 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves many queries against one maze at once. Each query is a
+ * beginning pillar, an end pillar and a budget of planks, and the
+ * queries are split into chunks that are searched as tasks of the
+ * given executor.
+ * <p/>
+ * The maze is only read while a batch is solved, so it must not be
+ * changed until the batch is done. The plank searches are kept between
+ * tasks and reused, so no more are made than the tasks run at once.
+ *
+ * @author Shaun Howard
+ */
+public class BatchSolver {
+
+    /* the number of queries searched by each task by default. */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    /* the maze to search. */
+    final Maze maze;
+
+    /* the executor the tasks are run on. */
+    final ExecutorService executor;
+
+    /* the number of queries searched by each task. */
+    final int chunkSize;
+
+    /* the plank searches not in use by a task, by budget of planks. */
+    final ConcurrentLinkedQueue<PlankSearch[]> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a batch solver of the given maze running
+     * tasks of the default chunk size on the given executor.
+     *
+     * @param maze     - the maze to search
+     * @param executor - the executor to run the tasks on
+     * @throws Exception - thrown when the maze or executor is null
+     */
+    public BatchSolver(Maze maze, ExecutorService executor) throws Exception {
+        this(maze, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a batch solver of the given maze running
+     * tasks of the given chunk size on the given executor.
+     *
+     * @param maze      - the maze to search
+     * @param executor  - the executor to run the tasks on
+     * @param chunkSize - the number of queries searched by each task
+     * @throws Exception - thrown when the maze or executor is null or
+     *                   the chunk size is not positive
+     */
+    public BatchSolver(Maze maze, ExecutorService executor, int chunkSize) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze);
+        MazeUtilities.throwExceptionWhenNull(executor);
+        if (chunkSize < 1) {
+            throw new Exception("The chunk size was not positive.");
+        }
+        this.maze = maze;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Makes an executor that runs each task on its own virtual thread.
+     * Virtual threads are only available on Java 21 and later, so on
+     * older runtimes a fixed pool with a thread per processor is made.
+     * The caller owns the executor and must shut it down.
+     *
+     * @return an executor for batches of queries
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Solves each of the given queries, returning the results
+     * in the same order as the queries.
+     *
+     * @param queries - the queries to solve
+     * @return the result of each query in order
+     * @throws Exception - thrown when a query is null, has a position
+     *                   outside the maze or a negative budget of planks,
+     *                   or when a search fails
+     */
+    public List<Result> solve(List<Query> queries) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(queries);
+
+        /* check every query before any is searched */
+        final int[] begins = new int[queries.size()];
+        final int[] ends = new int[queries.size()];
+        final int[] planks = new int[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            Query query = queries.get(i);
+            MazeUtilities.throwExceptionWhenNull(query);
+            begins[i] = indexOf(query.begin);
+            ends[i] = indexOf(query.end);
+            planks[i] = query.planks;
+            if (planks[i] < 0) {
+                throw new Exception("The number of planks was negative.");
+            }
+        }
+
+        /* each task writes its results to their place in the array */
+        final Result[] results = new Result[queries.size()];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < results.length; from += chunkSize) {
+            final int first = from;
+            final int last = Math.min(from + chunkSize, results.length);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    solveChunk(begins, ends, planks, results, first, last);
+                    return null;
+                }
+            });
+        }
+
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Solves the queries in the given range with plank searches
+     * borrowed from the idle searches, returning them when done.
+     *
+     * @param begins  - the grid index of the beginning of each query
+     * @param ends    - the grid index of the end of each query
+     * @param planks  - the budget of planks of each query
+     * @param results - the results of all queries
+     * @param first   - the first query to solve
+     * @param last    - the query after the last query to solve
+     * @throws Exception - thrown when a plank search cannot be made
+     */
+    void solveChunk(int[] begins, int[] ends, int[] planks, Result[] results,
+                    int first, int last) throws Exception {
+        PlankSearch[] searches = idle.poll();
+        if (searches == null) {
+            searches = new PlankSearch[0];
+        }
+        try {
+            for (int i = first; i < last; i++) {
+                if (planks[i] >= searches.length) {
+                    searches = Arrays.copyOf(searches, planks[i] + 1);
+                }
+                if (searches[planks[i]] == null) {
+                    searches[planks[i]] = new PlankSearch(maze, planks[i]);
+                }
+                PlankSearch search = searches[planks[i]];
+                long start = System.nanoTime();
+                List<Pillar> path = search.solve(begins[i], ends[i]);
+                long nanos = System.nanoTime() - start;
+                results[i] = new Result(path, search.planksUsed(), search.expandedCount(), nanos);
+            }
+        } finally {
+            idle.offer(searches);
+        }
+    }
+
+    /**
+     * Gets the grid index of the pillar at the given position.
+     *
+     * @param position - the position of the pillar
+     * @return the grid index of the pillar
+     * @throws Exception - thrown when the position is null or outside the maze
+     */
+    int indexOf(Maze.Position position) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(position);
+        int index = maze.index(position.x, position.y);
+        if (index < 0) {
+            throw new Exception("The position was outside the maze.");
+        }
+        return index;
+    }
+
+    /**
+     * A query of a batch, which is a beginning pillar,
+     * an end pillar and a budget of planks.
+     */
+    public static class Query {
+
+        /* the position of the pillar to begin at. */
+        final Maze.Position begin;
+
+        /* the position of the pillar to end at. */
+        final Maze.Position end;
+
+        /* the number of planks that may be placed. */
+        final int planks;
+
+        /**
+         * Constructs a query.
+         *
+         * @param begin  - the position of the pillar to begin at
+         * @param end    - the position of the pillar to end at
+         * @param planks - the number of planks that may be placed
+         */
+        public Query(Maze.Position begin, Maze.Position end, int planks) {
+            this.begin = begin;
+            this.end = end;
+            this.planks = planks;
+        }
+    }
+
+    /**
+     * The result of a query of a batch, which is the shortest
+     * path found along with statistics of its search.
+     */
+    public static class Result {
+
+        /* the shortest path from the beginning to the end or null. */
+        final List<Pillar> path;
+
+        /* the number of planks placed along the path or -1. */
+        final int planksUsed;
+
+        /* the number of states expanded by the search. */
+        final int expanded;
+
+        /* the time the search took in nanoseconds. */
+        final long nanos;
+
+        /**
+         * Constructs a result.
+         *
+         * @param path       - the shortest path or null when there is none
+         * @param planksUsed - the number of planks placed or -1
+         * @param expanded   - the number of states expanded
+         * @param nanos      - the time the search took in nanoseconds
+         */
+        Result(List<Pillar> path, int planksUsed, int expanded, long nanos) {
+            this.path = path;
+            this.planksUsed = planksUsed;
+            this.expanded = expanded;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the shortest path from the beginning to the end.
+         *
+         * @return the shortest path or null when there is none
+         */
+        public List<Pillar> getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the number of planks placed along the path.
+         *
+         * @return the number of planks placed or -1 when no path was found
+         */
+        public int getPlanksUsed() {
+            return planksUsed;
+        }
+
+        /**
+         * Gets the number of states expanded by the search.
+         *
+         * @return the number of states expanded
+         */
+        public int getExpanded() {
+            return expanded;
+        }
+
+        /**
+         * Gets the time the search took.
+         *
+         * @return the time the search took in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
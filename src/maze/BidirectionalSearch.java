@@ -0,0 +1,296 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Searches a maze from both ends at once. The forward search steps
+ * along planks from the beginning pillar, and the backward search steps
+ * against planks from the end pillar, using the maze as a reverse view
+ * through isLinkedFrom(). Each side searches over pillars and the planks
+ * it has placed, so a forward arrival that placed a planks meets a
+ * backward arrival that placed b planks only when a + b is within the
+ * budget, which splits the budget between the two sides as needed.
+ * <p/>
+ * Every step costs the same, so each side is searched breadth first, one
+ * layer at a time, expanding the side with the smaller frontier. Once the
+ * shortest meeting found is no longer than the sum of the depths of both
+ * frontiers, no shorter path can exist and the search stops.
+ * <p/>
+ * A bidirectional search may be reused for many searches of the same
+ * maze but must not be shared between threads.
+ *
+ * @author Shaun Howard
+ */
+public class BidirectionalSearch {
+
+    /* the maze to search. */
+    final Maze maze;
+
+    /* the number of planks that may be placed along a path. */
+    final int planks;
+
+    /* the number of plank counts each pillar may be reached with. */
+    final int stride;
+
+    /* the forward search from the beginning pillar. */
+    final Side forward;
+
+    /* the backward search from the end pillar. */
+    final Side backward;
+
+    /* the length of the shortest path found so far. */
+    int best;
+
+    /* the forward and backward states the shortest path meets at or -1. */
+    int meetForward = -1, meetBackward = -1;
+
+    /**
+     * Constructs a bidirectional search of the given maze
+     * with the given budget of planks.
+     *
+     * @param maze   - the maze to search
+     * @param planks - the number of planks that may be placed
+     * @throws Exception - thrown when the maze is null or the
+     *                   number of planks is negative
+     */
+    public BidirectionalSearch(Maze maze, int planks) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze);
+        if (planks < 0) {
+            throw new Exception("The number of planks was negative.");
+        }
+        this.maze = maze;
+        this.planks = planks;
+        this.stride = planks + 1;
+        this.forward = new Side(maze.grid.length * stride, false);
+        this.backward = new Side(maze.grid.length * stride, true);
+    }
+
+    /**
+     * Finds the most optimal path from the beginning pillar to the
+     * end pillar of the maze placing at most the budget of planks.
+     *
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the maze does not have a beginning pillar
+     */
+    public List<Pillar> solve() throws Exception {
+
+        /* make sure maze has a beginning node */
+        MazeUtilities.throwExceptionWhenNull(maze.getBegin());
+
+        forward.reset();
+        backward.reset();
+        best = Integer.MAX_VALUE;
+        meetForward = meetBackward = -1;
+
+        /* a maze without an end has no path to it */
+        int end = MazeSolver.endIndex(maze);
+        if (end < 0) {
+            return null;
+        }
+        forward.add(maze.indexOf(maze.getBegin()) * stride, -1, 0);
+        backward.add(end * stride, -1, 0);
+        meet(forward, backward, maze.indexOf(maze.getBegin()) * stride);
+
+        /* stop once no path shorter than the best can still be found */
+        while (!forward.isEmpty() && !backward.isEmpty() && best > forward.depth + backward.depth) {
+            if (forward.frontier() <= backward.frontier()) {
+                expandLayer(forward, backward);
+            } else {
+                expandLayer(backward, forward);
+            }
+        }
+        return meetForward < 0 ? null : path();
+    }
+
+    /**
+     * Gets the number of planks placed along the last path found.
+     *
+     * @return the number of planks placed or -1 when no path was found
+     */
+    public int planksUsed() {
+        return meetForward < 0 ? -1 : meetForward % stride + meetBackward % stride;
+    }
+
+    /**
+     * Gets the number of states expanded by both sides of the last search.
+     *
+     * @return the number of states expanded
+     */
+    public int expandedCount() {
+        return forward.head + backward.head;
+    }
+
+    /**
+     * Expands every state in the frontier of one side, adding the states
+     * they step to as the next layer and checking each against the states
+     * reached by the other side.
+     *
+     * @param side  - the side to expand
+     * @param other - the other side
+     */
+    void expandLayer(Side side, Side other) {
+        int layerEnd = side.tail;
+        int b = side.depth + 1;
+        while (side.head < layerEnd) {
+            int v = side.queue[side.head++];
+            int pillar = v / stride;
+            int used = v % stride;
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = maze.neighbor(pillar, direction);
+                if (u < 0) {
+                    continue;
+                }
+
+                /* a connected neighbor keeps the planks, an unconnected one needs a plank */
+                boolean linked = side.reverse ? maze.isLinkedFrom(pillar, direction)
+                        : maze.isLinked(pillar, direction);
+                int n = linked ? used : used + 1;
+                if (n > planks || side.isDominated(u, n)) {
+                    continue;
+                }
+                int s = u * stride + n;
+                side.add(s, v, b);
+                meet(side, other, s);
+            }
+        }
+        side.depth = b;
+    }
+
+    /**
+     * Checks whether a state just reached by one side meets a state of
+     * the same pillar reached by the other side within the plank budget,
+     * keeping the shortest meeting.
+     *
+     * @param side  - the side that reached the state
+     * @param other - the other side
+     * @param state - the state just reached
+     */
+    void meet(Side side, Side other, int state) {
+        int base = state - state % stride;
+        for (int n = 0; n + state % stride <= planks; n++) {
+            int d = other.distance[base + n];
+            if (d >= 0 && side.distance[state] + d < best) {
+                best = side.distance[state] + d;
+                meetForward = side == forward ? state : base + n;
+                meetBackward = side == forward ? base + n : state;
+            }
+        }
+    }
+
+    /**
+     * Joins the forward path to the meeting with the backward
+     * path from the meeting to the end.
+     *
+     * @return the list of pillars from the beginning to the end of the maze
+     */
+    List<Pillar> path() {
+        List<Pillar> path = new ArrayList<>();
+        for (int curr = meetForward; curr >= 0; curr = forward.previous[curr]) {
+            path.add(maze.getPillar(curr / stride));
+        }
+        Collections.reverse(path);
+        for (int curr = backward.previous[meetBackward]; curr >= 0; curr = backward.previous[curr]) {
+            path.add(maze.getPillar(curr / stride));
+        }
+        return path;
+    }
+
+    /**
+     * One side of a bidirectional search, which is a breadth first
+     * search over pillars and the planks placed from its starting pillar.
+     */
+    class Side {
+
+        /* whether this side steps against planks. */
+        final boolean reverse;
+
+        /* the distance of each state from the starting pillar or -1. */
+        final int[] distance;
+
+        /* the state each state was reached from or -1. */
+        final int[] previous;
+
+        /* the states in the order they were reached. */
+        final int[] queue;
+
+        /* the next state to expand and the end of the reached states. */
+        int head, tail;
+
+        /* the distance of the frontier from the starting pillar. */
+        int depth;
+
+        /**
+         * Constructs a side of a search over the given number of states.
+         *
+         * @param states  - the number of states
+         * @param reverse - whether this side steps against planks
+         */
+        Side(int states, boolean reverse) {
+            this.reverse = reverse;
+            this.distance = new int[states];
+            this.previous = new int[states];
+            this.queue = new int[states];
+        }
+
+        /**
+         * Clears the state of any previous search.
+         */
+        void reset() {
+            Arrays.fill(distance, -1);
+            head = tail = depth = 0;
+        }
+
+        /**
+         * Adds a reached state to this side.
+         *
+         * @param state    - the state reached
+         * @param from     - the state it was reached from or -1
+         * @param distance - the distance of the state from the start
+         */
+        void add(int state, int from, int distance) {
+            this.distance[state] = distance;
+            this.previous[state] = from;
+            queue[tail++] = state;
+        }
+
+        /**
+         * Determines whether the pillar was already reached by this side
+         * with the given planks placed or fewer, which is never further
+         * from the start since the search is breadth first.
+         *
+         * @param pillar - the grid index of the pillar
+         * @param used   - the planks placed
+         * @return whether the arrival is dominated
+         */
+        boolean isDominated(int pillar, int used) {
+            int base = pillar * stride;
+            for (int n = 0; n <= used; n++) {
+                if (distance[base + n] >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Determines whether this side has no frontier left.
+         *
+         * @return whether this side has no frontier left
+         */
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        /**
+         * Gets the number of states in the frontier of this side.
+         *
+         * @return the number of states in the frontier
+         */
+        int frontier() {
+            return tail - head;
+        }
+    }
+}
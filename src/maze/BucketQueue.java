@@ -0,0 +1,88 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Dial's bucket queue, an open list for integer costs. Each cost has its
+ * own bucket of ids, and the least cost with a non-empty bucket is
+ * tracked so that pushing and popping need no comparisons. Because the
+ * manhattan heuristic is consistent, the least cost never decreases
+ * during a search and popping is amortized constant time.
+ * <p/>
+ * Ids in the same bucket are popped last in, first out, which favors
+ * the pillars furthest from the beginning among those of equal cost.
+ *
+ * @author Shaun Howard
+ */
+public class BucketQueue implements OpenList {
+
+    /* the ids in each bucket, indexed by cost. */
+    int[][] buckets = new int[16][];
+
+    /* the number of ids in each bucket, indexed by cost. */
+    int[] counts = new int[16];
+
+    /* the least cost that may have a non-empty bucket. */
+    int min = Integer.MAX_VALUE;
+
+    /* the greatest cost that has been pushed since the last clear. */
+    int max = -1;
+
+    /* the number of ids in all buckets. */
+    int size = 0;
+
+    @Override
+    public void push(int id, int priority) {
+        if (priority < 0) {
+            throw new IllegalArgumentException("The cost of an id was negative.");
+        }
+        if (priority >= counts.length) {
+            int length = Math.max(priority + 1, counts.length * 2);
+            buckets = Arrays.copyOf(buckets, length);
+            counts = Arrays.copyOf(counts, length);
+        }
+        int[] bucket = buckets[priority];
+        if (bucket == null) {
+            bucket = buckets[priority] = new int[4];
+        } else if (counts[priority] == bucket.length) {
+            bucket = buckets[priority] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[counts[priority]++] = id;
+        size++;
+        min = Math.min(min, priority);
+        max = Math.max(max, priority);
+    }
+
+    @Override
+    public int pop() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        while (counts[min] == 0) {
+            min++;
+        }
+        size--;
+        return buckets[min][--counts[min]];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if (max >= 0) {
+            Arrays.fill(counts, 0, max + 1, 0);
+        }
+        min = Integer.MAX_VALUE;
+        max = -1;
+        size = 0;
+    }
+}
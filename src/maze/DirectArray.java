@@ -0,0 +1,197 @@
+package maze;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An array of ints or bytes kept in direct memory outside the heap, split
+ * into chunks of at most CHUNK_BYTES so it may hold more than the 2 GB of a
+ * single buffer. The chunks of a fixed array are made at once, while the
+ * chunks of a growing array are made as it is pushed onto, so a stack of
+ * ids takes memory only for the ids it has held. An array may also be
+ * mapped from a file, so the operating system pages it to and from disk
+ * when it is larger than the memory of the machine.
+ *
+ * @author Shaun Howard
+ */
+class DirectArray {
+
+    /* the number of bits of the offset of a byte within its chunk. */
+    static final int CHUNK_BITS = 30;
+
+    /* the most bytes in each chunk. */
+    static final int CHUNK_BYTES = 1 << CHUNK_BITS;
+
+    /* the number of bytes of each element. */
+    final int width;
+
+    /* the number of bits of the offset of a byte within a chunk of this array. */
+    final int chunkBits;
+
+    /* the chunks of the array, in order. */
+    final List<ByteBuffer> chunks = new ArrayList<>();
+
+    /* the number of elements pushed onto this array as a stack. */
+    int size = 0;
+
+    /**
+     * Constructs an array of the given number of elements of the given width.
+     *
+     * @param elements  - the number of elements, or 0 for a growing array
+     * @param width     - the number of bytes of each element, 1 or 4
+     * @param chunkBits - the number of bits of the offset within a chunk
+     */
+    DirectArray(long elements, int width, int chunkBits) {
+        this.width = width;
+        this.chunkBits = chunkBits;
+        long bytes = elements * width;
+        for (long at = 0; at < bytes; at += 1L << chunkBits) {
+            chunks.add(allocate((int) Math.min(1L << chunkBits, bytes - at)));
+        }
+    }
+
+    /**
+     * Maps an array of the given number of elements of the given width from
+     * a file, beginning at the given offset. The file must be long enough,
+     * and the array is as the file is, so a new file gives an array of 0.
+     *
+     * @param channel  - the channel of the file, open for reading and writing
+     * @param offset   - the offset in the file of the first element
+     * @param elements - the number of elements
+     * @param width    - the number of bytes of each element, 1 or 4
+     * @return the array
+     * @throws Exception - thrown when the file cannot be mapped
+     */
+    static DirectArray mapped(FileChannel channel, long offset, long elements, int width) throws Exception {
+        DirectArray array = new DirectArray(0, width, CHUNK_BITS);
+        long bytes = elements * width;
+        for (long at = 0; at < bytes; at += CHUNK_BYTES) {
+            array.chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, offset + at,
+                    Math.min(CHUNK_BYTES, bytes - at)).order(ByteOrder.nativeOrder()));
+        }
+        return array;
+    }
+
+    /**
+     * Makes an array of the given number of ints, all 0.
+     *
+     * @param elements - the number of ints
+     * @return the array
+     */
+    static DirectArray ints(long elements) {
+        return new DirectArray(elements, 4, CHUNK_BITS);
+    }
+
+    /**
+     * Makes an array of the given number of bytes, all 0.
+     *
+     * @param elements - the number of bytes
+     * @return the array
+     */
+    static DirectArray bytes(long elements) {
+        return new DirectArray(elements, 1, CHUNK_BITS);
+    }
+
+    /**
+     * Makes an empty stack of ints which grows by chunks of 2^chunkBits bytes.
+     *
+     * @param chunkBits - the number of bits of the offset within a chunk
+     * @return the stack
+     */
+    static DirectArray stack(int chunkBits) {
+        return new DirectArray(0, 4, chunkBits);
+    }
+
+    /**
+     * Gets the int at the given index.
+     *
+     * @param index - the index of the int
+     * @return the int
+     */
+    int getInt(long index) {
+        long at = index << 2;
+        return chunks.get((int) (at >>> chunkBits)).getInt((int) (at & ((1L << chunkBits) - 1)));
+    }
+
+    /**
+     * Sets the int at the given index.
+     *
+     * @param index - the index of the int
+     * @param value - the int
+     */
+    void putInt(long index, int value) {
+        long at = index << 2;
+        chunks.get((int) (at >>> chunkBits)).putInt((int) (at & ((1L << chunkBits) - 1)), value);
+    }
+
+    /**
+     * Gets the byte at the given index.
+     *
+     * @param index - the index of the byte
+     * @return the byte
+     */
+    byte getByte(long index) {
+        return chunks.get((int) (index >>> chunkBits)).get((int) (index & ((1L << chunkBits) - 1)));
+    }
+
+    /**
+     * Sets the byte at the given index.
+     *
+     * @param index - the index of the byte
+     * @param value - the byte
+     */
+    void putByte(long index, byte value) {
+        chunks.get((int) (index >>> chunkBits)).put((int) (index & ((1L << chunkBits) - 1)), value);
+    }
+
+    /**
+     * Pushes an int onto this array as a stack, making a new chunk when
+     * the last one is full.
+     *
+     * @param value - the int
+     */
+    void push(int value) {
+        if ((long) size << 2 >>> chunkBits == chunks.size()) {
+            chunks.add(allocate(1 << chunkBits));
+        }
+        putInt(size++, value);
+    }
+
+    /**
+     * Removes and returns the int last pushed onto this array as a stack.
+     *
+     * @return the int
+     */
+    int pop() {
+        return getInt(--size);
+    }
+
+    /**
+     * Sets every byte of this array to 0 and empties it as a stack.
+     */
+    void clear() {
+        ByteBuffer zeros = ByteBuffer.allocate(1 << 16);
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer all = chunk.duplicate();
+            all.clear();
+            while (all.hasRemaining()) {
+                zeros.clear().limit(Math.min(zeros.capacity(), all.remaining()));
+                all.put(zeros);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Allocates a chunk of direct memory in the order of the machine.
+     *
+     * @param bytes - the number of bytes of the chunk
+     * @return the chunk, all 0
+     */
+    static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,144 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The distance from every pillar of a maze to one end pillar along
+ * the planks of the maze, kept in an array indexed by the grid index of
+ * each pillar. The field is built once by a breadth first sweep from the
+ * end that steps against planks, after which the shortest path from any
+ * pillar is found by stepping along planks to a neighbor one closer to
+ * the end, in time proportional to the length of the path.
+ * <p/>
+ * No extra planks are placed along the paths of a distance field. The
+ * field records the link version of the maze it was built from and is
+ * stale once the planks of the maze change. The field is only read after
+ * it is built, so any number of threads may find paths through it at once.
+ *
+ * @author Shaun Howard
+ */
+public class DistanceField {
+
+    /* the maze the field was built from. */
+    final Maze maze;
+
+    /* the grid index of the end pillar. */
+    final int end;
+
+    /* the link version of the maze when the field was built. */
+    final int linkVersion;
+
+    /* the distance of each pillar to the end, or -1 when the end is unreachable. */
+    final int[] distance;
+
+    /**
+     * Builds the distance field of the given maze to the given end pillar.
+     *
+     * @param maze - the maze to build the field from
+     * @param end  - the grid index of the end pillar
+     * @throws Exception - thrown when the maze is null or the end
+     *                   is not a pillar of the maze
+     */
+    public DistanceField(Maze maze, int end) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze);
+        if (end < 0 || end >= maze.grid.length) {
+            throw new Exception("The end was not a pillar of the maze.");
+        }
+        this.maze = maze;
+        this.end = end;
+        this.linkVersion = maze.getLinkVersion();
+        this.distance = new int[maze.grid.length];
+        sweep();
+    }
+
+    /**
+     * Sweeps breadth first from the end pillar against planks,
+     * recording the distance of every pillar to the end.
+     */
+    void sweep() {
+        Arrays.fill(distance, -1);
+        int[] queue = new int[distance.length];
+        int head = 0, tail = 0;
+        distance[end] = 0;
+        queue[tail++] = end;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = maze.neighbor(v, direction);
+                if (u >= 0 && distance[u] < 0 && maze.isLinkedFrom(v, direction)) {
+                    distance[u] = distance[v] + 1;
+                    queue[tail++] = u;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the grid index of the end pillar of this field.
+     *
+     * @return the grid index of the end pillar
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Gets the distance from a pillar to the end pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @return the number of steps to the end or -1 when it is unreachable
+     */
+    public int distance(int index) {
+        return distance[index];
+    }
+
+    /**
+     * Determines whether this field still matches the planks of its maze.
+     *
+     * @return whether the planks of the maze are unchanged since the build
+     */
+    public boolean isCurrent() {
+        return linkVersion == maze.getLinkVersion();
+    }
+
+    /**
+     * Finds the shortest path from the given pillar to the end pillar by
+     * stepping along planks to a neighbor one step closer to the end.
+     *
+     * @param begin - the grid index of the pillar to begin at
+     * @return the list of pillars from the given pillar to the end or
+     * null when the end is unreachable
+     */
+    public List<Pillar> path(int begin) {
+        if (distance[begin] < 0) {
+            return null;
+        }
+        List<Pillar> path = new ArrayList<>(distance[begin] + 1);
+        int curr = begin;
+        path.add(maze.getPillar(curr));
+        while (curr != end) {
+            curr = step(curr);
+            path.add(maze.getPillar(curr));
+        }
+        return path;
+    }
+
+    /**
+     * Gets the neighbor linked from the given pillar that is one step closer
+     * to the end, which always exists for a pillar that can reach the end.
+     *
+     * @param index - the grid index of the pillar
+     * @return the grid index of the next pillar toward the end
+     */
+    int step(int index) {
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            int u = maze.neighbor(index, direction);
+            if (u >= 0 && distance[u] == distance[index] - 1 && maze.isLinked(index, direction)) {
+                return u;
+            }
+        }
+        throw new IllegalStateException("The distance field does not match its maze.");
+    }
+}
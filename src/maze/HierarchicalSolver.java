@@ -0,0 +1,679 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solves long queries through large mazes with hierarchical path-finding
+ * A* (HPA*). The maze is split into square clusters of pillars. Where a
+ * plank crosses the border between two clusters, the pillars on either
+ * side are entrances, and the distances between the entrances of each
+ * cluster are found once by searching just the cluster, for each number
+ * of planks placed inside it. A query searches the abstract graph of the
+ * entrances, joined by the cached distances and the steps across borders,
+ * and then refines each part of the abstract path by searching the cluster
+ * it crosses again, so far fewer pillars are expanded than by P* over the
+ * whole maze.
+ * <p/>
+ * The states of the abstract graph are an entrance and the planks left,
+ * as in PlankSearch, and planks may be placed anywhere inside a cluster.
+ * A plank may only cross a border where one already does or at the middle
+ * of the border, so with planks the path found may be longer than the
+ * shortest, or not found, while without planks it is the shortest.
+ * <p/>
+ * When heard as a listener of the maze, or told through linkChanged(),
+ * only the clusters holding either end of a changed plank are rebuilt,
+ * before the next query. Changes the solver was not told of are found
+ * through the link version of the maze and rebuild every cluster.
+ * A hierarchical solver must not be shared between threads.
+ *
+ * @author Shaun Howard
+ */
+public class HierarchicalSolver implements MazeListener {
+
+    /* the distance between pillars with no path, small enough to add to. */
+    static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    /* the maze to search. */
+    final Maze maze;
+
+    /* the number of pillars along each side of a cluster. */
+    final int clusterSize;
+
+    /* the number of planks that may be placed along a path. */
+    final int planks;
+
+    /* the number of plank counts each pillar may be reached with. */
+    final int stride;
+
+    /* the number of clusters in a row and in a column. */
+    final int clustersAcross, clustersUp;
+
+    /* the clusters, or null for those to rebuild before the next query. */
+    final Cluster[] clusters;
+
+    /* the link version of the maze the clusters match or -1. */
+    int linkVersion = -1;
+
+    /* the number of clusters built since the solver was made. */
+    int rebuildCount = 0;
+
+    /* the number of abstract and cluster states expanded by the last query. */
+    int expandedCount = 0;
+
+    /* the number of planks placed along the last path found or -1. */
+    int planksUsed = -1;
+
+    /* the distance of each state of the last cluster search, by stamp. */
+    final int[] localDistance;
+
+    /* the previous state of each state of the last cluster search or -1. */
+    final int[] localPrevious;
+
+    /* the stamp of the cluster search that last reached each state. */
+    final int[] localStamp;
+
+    /* the queue of states of a cluster search. */
+    final int[] queue;
+
+    /* the stamp of the last cluster search. */
+    int stamp = 0;
+
+    /* the first column and row and the length and width of the cluster last searched. */
+    int x0, y0, w, h;
+
+    /**
+     * Constructs a hierarchical solver of the given maze with the given
+     * size of clusters and budget of planks, building every cluster.
+     *
+     * @param maze        - the maze to search
+     * @param clusterSize - the number of pillars along each side of a cluster
+     * @param planks      - the number of planks that may be placed
+     * @throws Exception - thrown when the maze is null, the cluster size
+     *                   is less than 2 or the number of planks is negative
+     */
+    public HierarchicalSolver(Maze maze, int clusterSize, int planks) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze);
+        if (clusterSize < 2) {
+            throw new Exception("The cluster size was less than 2.");
+        }
+        if (planks < 0) {
+            throw new Exception("The number of planks was negative.");
+        }
+        this.maze = maze;
+        this.clusterSize = clusterSize;
+        this.planks = planks;
+        this.stride = planks + 1;
+        this.clustersAcross = (maze.length() + clusterSize - 1) / clusterSize;
+        this.clustersUp = (maze.width() + clusterSize - 1) / clusterSize;
+        this.clusters = new Cluster[clustersAcross * clustersUp];
+        int states = Math.min(clusterSize * clusterSize, Math.max(1, maze.size())) * stride;
+        this.localDistance = new int[states];
+        this.localPrevious = new int[states];
+        this.localStamp = new int[states];
+        this.queue = new int[states];
+        build();
+    }
+
+    /**
+     * Finds a path from the beginning pillar to the end pillar of the
+     * maze placing at most the budget of planks.
+     *
+     * @return the path through the maze or null
+     * @throws Exception - thrown when the maze does not have a beginning pillar
+     */
+    public List<Pillar> solve() throws Exception {
+        int[] path = findPath();
+        if (path == null) {
+            return null;
+        }
+        List<Pillar> pillars = new ArrayList<>(path.length);
+        for (int index : path) {
+            pillars.add(maze.getPillar(index));
+        }
+        return pillars;
+    }
+
+    /**
+     * Finds a path from the beginning pillar to the end pillar of the
+     * maze placing at most the budget of planks.
+     *
+     * @return the grid indices of the pillars along the path or null
+     * @throws Exception - thrown when the maze does not have a beginning pillar
+     */
+    public int[] findPath() throws Exception {
+
+        /* make sure maze has a beginning node */
+        if (maze.beginIndex() < 0) {
+            throw new Exception("The maze has no beginning pillar.");
+        }
+
+        return findPath(maze.beginIndex(), maze.endIndex());
+    }
+
+    /**
+     * Finds a path between the pillars at the given grid indices placing
+     * at most the budget of planks, first rebuilding the clusters changed.
+     *
+     * @param begin - the grid index of the pillar to begin at
+     * @param end   - the grid index of the pillar to end at or -1
+     * @return the grid indices of the pillars along the path or null
+     * @throws Exception - thrown when either pillar is outside the maze
+     */
+    public int[] findPath(int begin, int end) throws Exception {
+        MazeUtilities.throwExceptionWhenOutside(maze.size(), begin, end);
+        build();
+        expandedCount = 0;
+        planksUsed = -1;
+        if (end < 0) {
+            return null;
+        }
+
+        /* number the entrances of every cluster, then the beginning and end */
+        int[] offset = new int[clusters.length + 1];
+        for (int c = 0; c < clusters.length; c++) {
+            offset[c + 1] = offset[c] + clusters[c].entrances.length;
+        }
+        int nodes = offset[clusters.length];
+        int beginNode = nodes, endNode = nodes + 1;
+        int[] nodeCluster = new int[nodes];
+        for (int c = 0; c < clusters.length; c++) {
+            Arrays.fill(nodeCluster, offset[c], offset[c + 1], c);
+        }
+        int bc = clusterOf(begin), ec = clusterOf(end);
+        Cluster endCluster = clusters[ec];
+
+        /* the distances from the beginning and to the end inside their clusters */
+        int[] fromBegin = new int[(clusters[bc].entrances.length + 1) * stride];
+        search(bc, begin, false);
+        for (int j = 0; j < clusters[bc].entrances.length; j++) {
+            distances(clusters[bc].entrances[j], fromBegin, j * stride);
+        }
+        Arrays.fill(fromBegin, clusters[bc].entrances.length * stride, fromBegin.length, INFINITY);
+        if (bc == ec) {
+            distances(end, fromBegin, clusters[bc].entrances.length * stride);
+        }
+        int[] toEnd = new int[endCluster.entrances.length * stride];
+        search(ec, end, true);
+        for (int i = 0; i < endCluster.entrances.length; i++) {
+            distances(endCluster.entrances[i], toEnd, i * stride);
+        }
+
+        /* A* over the entrances and planks left */
+        int states = (nodes + 2) * stride;
+        int[] g = new int[states];
+        int[] previous = new int[states];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(previous, -1);
+        BitSet closed = new BitSet(states);
+        OpenList open = new BucketQueue();
+        int start = beginNode * stride + planks;
+        g[start] = 0;
+        open.push(start, MazeSolver.distanceToEnd(maze, begin, end));
+        int goal = -1;
+        while (!open.isEmpty()) {
+            int s = open.pop();
+            if (closed.get(s)) {
+                continue;
+            }
+            closed.set(s);
+            expandedCount++;
+            int node = s / stride;
+            int left = s % stride;
+            if (node == endNode) {
+                goal = s;
+                break;
+            }
+            if (node == beginNode) {
+                Cluster cluster = clusters[bc];
+                for (int j = 0; j < cluster.entrances.length; j++) {
+                    relax(s, fromBegin, j * stride, offset[bc] + j, cluster.entrances[j], g, previous, open, end);
+                }
+                relax(s, fromBegin, cluster.entrances.length * stride, endNode, end, g, previous, open, end);
+                continue;
+            }
+            int c = nodeCluster[node];
+            int i = node - offset[c];
+            Cluster cluster = clusters[c];
+            int pillar = cluster.entrances[i];
+            for (int j = 0; j < cluster.entrances.length; j++) {
+                if (j != i) {
+                    relax(s, cluster.distances, (i * cluster.entrances.length + j) * stride,
+                            offset[c] + j, cluster.entrances[j], g, previous, open, end);
+                }
+            }
+            if (c == ec) {
+                relax(s, toEnd, i * stride, endNode, end, g, previous, open, end);
+            }
+
+            /* step across the border to the entrance on the other side */
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if ((cluster.crossings[i] >> direction & 1) == 0) {
+                    continue;
+                }
+                int q = maze.neighbor(pillar, direction);
+                int n = maze.isLinked(pillar, direction) ? left : left - 1;
+                int cq = clusterOf(q);
+                int t = (offset[cq] + clusters[cq].slot(q)) * stride + n;
+                if (n >= 0 && g[s] + 1 < g[t]) {
+                    g[t] = g[s] + 1;
+                    previous[t] = s;
+                    open.push(t, g[t] + MazeSolver.distanceToEnd(maze, q, end));
+                }
+            }
+        }
+        if (goal < 0) {
+            return null;
+        }
+        planksUsed = planks - goal % stride;
+
+        /* refine each part of the abstract path by searching its cluster again */
+        List<Integer> abstractPath = new ArrayList<>();
+        for (int s = goal; s >= 0; s = previous[s]) {
+            abstractPath.add(s);
+        }
+        Collections.reverse(abstractPath);
+        List<Integer> path = new ArrayList<>();
+        path.add(begin);
+        for (int k = 1; k < abstractPath.size(); k++) {
+            int from = abstractPath.get(k - 1), to = abstractPath.get(k);
+            int a = from / stride, b = to / stride;
+            int fromPillar = a == beginNode ? begin : clusters[nodeCluster[a]].entrances[a - offset[nodeCluster[a]]];
+            int toPillar = b == endNode ? end : clusters[nodeCluster[b]].entrances[b - offset[nodeCluster[b]]];
+            int cluster = a == beginNode ? bc : nodeCluster[a];
+            if (clusterOf(toPillar) != cluster) {
+                path.add(toPillar);
+                continue;
+            }
+            search(cluster, fromPillar, false);
+            int[] part = localPath(toPillar, from % stride - to % stride);
+            if (part == null) {
+
+                /* the cluster no longer matches the maze, so rebuild every cluster */
+                linkVersion = -1;
+                return findPath(begin, end);
+            }
+            for (int p = 1; p < part.length; p++) {
+                path.add(part[p]);
+            }
+        }
+        int[] result = new int[path.size()];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = path.get(k);
+        }
+        return result;
+    }
+
+    /**
+     * Relaxes the edges from an abstract state to another node for each
+     * number of planks placed that shortens the distance between them.
+     *
+     * @param s         - the abstract state relaxed from
+     * @param distances - the least distances between the pillars by planks placed
+     * @param at        - the offset of the distances between the pillars
+     * @param node      - the node relaxed to
+     * @param pillar    - the grid index of the pillar of the node
+     * @param g         - the distance from the beginning of each abstract state
+     * @param previous  - the previous abstract state of each abstract state
+     * @param open      - the open list of abstract states
+     * @param end       - the grid index of the end pillar
+     */
+    void relax(int s, int[] distances, int at, int node, int pillar,
+               int[] g, int[] previous, OpenList open, int end) {
+        int left = s % stride;
+        for (int k = 0; k <= left; k++) {
+            int d = distances[at + k];
+            if (d >= INFINITY || (k > 0 && d == distances[at + k - 1])) {
+                continue;
+            }
+            int t = node * stride + left - k;
+            if (g[s] + d < g[t]) {
+                g[t] = g[s] + d;
+                previous[t] = s;
+                open.push(t, g[t] + MazeSolver.distanceToEnd(maze, pillar, end));
+            }
+        }
+    }
+
+    /**
+     * Marks the clusters holding the pillars at either end of each
+     * changed plank to be rebuilt before the next query, as long as
+     * the clusters matched the maze before the changes.
+     *
+     * @param maze    - the maze that changed
+     * @param changes - the planks added or removed
+     */
+    @Override
+    public void linksChanged(Maze maze, List<LinkChange> changes) {
+        if (maze != this.maze) {
+            return;
+        }
+        if (linkVersion < 0 || linkVersion + changes.size() != maze.getLinkVersion()) {
+            linkVersion = -1;
+            return;
+        }
+        for (LinkChange change : changes) {
+            invalidate(change.getStart());
+            invalidate(change.getEnd());
+        }
+        linkVersion = maze.getLinkVersion();
+    }
+
+    /**
+     * Marks the clusters holding a pillar and its neighbor in the given
+     * direction to be rebuilt for a plank added or removed between them.
+     * The change must already have been made to the maze, and must be the
+     * only change since the clusters matched it, otherwise every cluster
+     * is rebuilt before the next query.
+     *
+     * @param index     - the grid index of the pillar the plank starts at
+     * @param direction - the direction of the pillar the plank ends at
+     */
+    public void linkChanged(int index, int direction) {
+        if (linkVersion < 0) {
+            return;
+        }
+        if (linkVersion + 1 != maze.getLinkVersion()) {
+            linkVersion = -1;
+            return;
+        }
+        invalidate(index);
+        int neighbor = maze.neighbor(index, direction);
+        if (neighbor >= 0) {
+            invalidate(neighbor);
+        }
+        linkVersion = maze.getLinkVersion();
+    }
+
+    /**
+     * Gets the number of planks placed along the last path found.
+     *
+     * @return the number of planks placed or -1 when no path was found
+     */
+    public int planksUsed() {
+        return planksUsed;
+    }
+
+    /**
+     * Gets the number of abstract states and states inside clusters
+     * expanded by the last query, not counting rebuilding clusters.
+     *
+     * @return the number of states expanded
+     */
+    public int expandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Gets the number of clusters built since the solver was made.
+     *
+     * @return the number of clusters built
+     */
+    public int rebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Gets the number of entrances of every cluster.
+     *
+     * @return the number of nodes of the abstract graph
+     */
+    public int entranceCount() {
+        build();
+        int count = 0;
+        for (Cluster cluster : clusters) {
+            count += cluster.entrances.length;
+        }
+        return count;
+    }
+
+    /**
+     * Marks the cluster holding a pillar to be rebuilt.
+     *
+     * @param pillar - the grid index of the pillar
+     */
+    void invalidate(int pillar) {
+        clusters[clusterOf(pillar)] = null;
+    }
+
+    /**
+     * Builds the clusters marked to be rebuilt, or every cluster when
+     * the maze changed without the solver being told.
+     */
+    void build() {
+        if (linkVersion != maze.getLinkVersion()) {
+            Arrays.fill(clusters, null);
+        }
+        for (int c = 0; c < clusters.length; c++) {
+            if (clusters[c] == null) {
+                clusters[c] = buildCluster(c);
+                rebuildCount++;
+            }
+        }
+        linkVersion = maze.getLinkVersion();
+    }
+
+    /**
+     * Builds a cluster, finding its entrances on each border it shares
+     * with another cluster and the distances between them.
+     *
+     * @param c - the index of the cluster
+     * @return the cluster
+     */
+    Cluster buildCluster(int c) {
+        bounds(c);
+        int length = maze.length();
+        Map<Integer, Integer> crossings = new LinkedHashMap<>();
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+
+            /* the pillars of the cluster along the border in the direction */
+            boolean across = direction == Maze.ABOVE || direction == Maze.BELOW;
+            int count = across ? w : h;
+            int middle = count / 2;
+            for (int k = 0; k < count; k++) {
+                int x = across ? x0 + k : direction == Maze.LEFT ? x0 + w - 1 : x0;
+                int y = across ? (direction == Maze.ABOVE ? y0 + h - 1 : y0) : y0 + k;
+                int p = y * length + x;
+                int q = maze.neighbor(p, direction);
+                if (q < 0) {
+                    break;
+                }
+                boolean open = maze.isLinked(p, direction) || maze.isLinked(q, Maze.opposite(direction));
+                if (open || (planks > 0 && k == middle)) {
+                    Integer mask = crossings.get(p);
+                    crossings.put(p, (mask == null ? 0 : mask) | 1 << direction);
+                }
+            }
+        }
+        int n = crossings.size();
+        Cluster cluster = new Cluster(n, stride);
+        int slot = 0;
+        for (Map.Entry<Integer, Integer> entry : crossings.entrySet()) {
+            cluster.entrances[slot] = entry.getKey();
+            cluster.crossings[slot++] = entry.getValue();
+        }
+        for (int i = 0; i < n; i++) {
+            search(c, cluster.entrances[i], false);
+            for (int j = 0; j < n; j++) {
+                distances(cluster.entrances[j], cluster.distances, (i * n + j) * stride);
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * Sets the first column and row and the length and width of a cluster.
+     *
+     * @param c - the index of the cluster
+     */
+    void bounds(int c) {
+        x0 = c % clustersAcross * clusterSize;
+        y0 = c / clustersAcross * clusterSize;
+        w = Math.min(clusterSize, maze.length() - x0);
+        h = Math.min(clusterSize, maze.width() - y0);
+    }
+
+    /**
+     * Gets the cluster holding a pillar.
+     *
+     * @param pillar - the grid index of the pillar
+     * @return the index of the cluster
+     */
+    int clusterOf(int pillar) {
+        int length = maze.length();
+        return pillar / length / clusterSize * clustersAcross + pillar % length / clusterSize;
+    }
+
+    /**
+     * Searches breadth first over the pillars of a cluster and the planks
+     * placed, from the given pillar, or toward it when reversed.
+     *
+     * @param c        - the index of the cluster
+     * @param source   - the grid index of the pillar to search from
+     * @param reversed - whether to search the planks backward
+     */
+    void search(int c, int source, boolean reversed) {
+        bounds(c);
+        stamp++;
+        int length = maze.length();
+        int head = 0, tail = 0;
+        int first = cell(source) * stride;
+        localStamp[first] = stamp;
+        localDistance[first] = 0;
+        localPrevious[first] = -1;
+        queue[tail++] = first;
+        while (head < tail) {
+            int s = queue[head++];
+            expandedCount++;
+            int cell = s / stride;
+            int used = s % stride;
+            int pillar = (y0 + cell / w) * length + x0 + cell % w;
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = maze.neighbor(pillar, direction);
+                if (u < 0 || clusterOf(u) != c) {
+                    continue;
+                }
+                boolean linked = reversed ? maze.isLinkedFrom(pillar, direction) : maze.isLinked(pillar, direction);
+                int n = linked ? used : used + 1;
+                if (n > planks) {
+                    continue;
+                }
+                int t = cell(u) * stride + n;
+                if (localStamp[t] != stamp) {
+                    localStamp[t] = stamp;
+                    localDistance[t] = localDistance[s] + 1;
+                    localPrevious[t] = s;
+                    queue[tail++] = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the least distance to a pillar found by the last cluster
+     * search with at most each number of planks placed.
+     *
+     * @param pillar    - the grid index of the pillar in the cluster
+     * @param distances - the distances to write to
+     * @param at        - the offset of the distance with no planks placed
+     */
+    void distances(int pillar, int[] distances, int at) {
+        int base = cell(pillar) * stride;
+        int least = INFINITY;
+        for (int k = 0; k < stride; k++) {
+            if (localStamp[base + k] == stamp) {
+                least = Math.min(least, localDistance[base + k]);
+            }
+            distances[at + k] = least;
+        }
+    }
+
+    /**
+     * Gets the shortest path found by the last cluster search to a pillar
+     * placing at most the given planks.
+     *
+     * @param pillar - the grid index of the pillar in the cluster
+     * @param most   - the most planks placed
+     * @return the grid indices of the pillars along the path or null
+     * when the search did not reach the pillar
+     */
+    int[] localPath(int pillar, int most) {
+        int base = cell(pillar) * stride;
+        int best = -1;
+        for (int k = 0; k <= most; k++) {
+            if (localStamp[base + k] == stamp
+                    && (best < 0 || localDistance[base + k] < localDistance[best])) {
+                best = base + k;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        int length = maze.length();
+        int[] path = new int[localDistance[best] + 1];
+        for (int s = best, k = path.length - 1; s >= 0; s = localPrevious[s], k--) {
+            int cell = s / stride;
+            path[k] = (y0 + cell / w) * length + x0 + cell % w;
+        }
+        return path;
+    }
+
+    /**
+     * Gets the cell of a pillar in the cluster last searched.
+     *
+     * @param pillar - the grid index of the pillar
+     * @return the index of the pillar within the cluster
+     */
+    int cell(int pillar) {
+        int length = maze.length();
+        return (pillar / length - y0) * w + pillar % length - x0;
+    }
+
+    /**
+     * A cluster of pillars, with its entrances and the distances between them.
+     */
+    static class Cluster {
+
+        /* the grid indices of the entrances. */
+        final int[] entrances;
+
+        /* the directions each entrance crosses the border of the cluster in. */
+        final int[] crossings;
+
+        /* the least distance from entrance i to entrance j with at most k planks,
+           at (i * entrances + j) * stride + k. */
+        final int[] distances;
+
+        /**
+         * Constructs a cluster of the given number of entrances.
+         *
+         * @param n      - the number of entrances
+         * @param stride - the number of plank counts
+         */
+        Cluster(int n, int stride) {
+            this.entrances = new int[n];
+            this.crossings = new int[n];
+            this.distances = new int[n * n * stride];
+        }
+
+        /**
+         * Gets the slot of an entrance of this cluster.
+         *
+         * @param pillar - the grid index of the entrance
+         * @return the slot of the entrance or -1
+         */
+        int slot(int pillar) {
+            for (int i = 0; i < entrances.length; i++) {
+                if (entrances[i] == pillar) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package maze;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, such as latencies in nanoseconds,
+ * which records from any number of threads at once without locks. As in
+ * an HDR histogram, the values of each power of two are split into
+ * SUB_BUCKETS buckets of equal width, so every value is counted within
+ * 1 / SUB_BUCKETS of itself however large it is, in a fixed array of counts.
+ * <p/>
+ * A snapshot takes the counts and resets them one bucket at a time, so each
+ * value recorded while a snapshot is taken is counted in that snapshot or
+ * the next, never both and never neither.
+ *
+ * @author Shaun Howard
+ */
+public class Histogram {
+
+    /* the number of bits of each value kept exactly. */
+    static final int SUB_BITS = 7;
+
+    /* the number of buckets each power of two is split into. */
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /* the number of buckets, enough for every positive long. */
+    static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BITS);
+
+    /* the count of the values in each bucket. */
+    final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /* the sum of the values recorded. */
+    final AtomicLong sum = new AtomicLong();
+
+    /* the largest value recorded. */
+    final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value, counting negative values as 0.
+     *
+     * @param value - the value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucket(value));
+        sum.addAndGet(value);
+        long largest = max.get();
+        while (value > largest && !max.compareAndSet(largest, value)) {
+            largest = max.get();
+        }
+    }
+
+    /**
+     * Takes the counts recorded since the last snapshot and resets them.
+     *
+     * @return the snapshot of the counts
+     */
+    public Snapshot snapshotAndReset() {
+        long[] taken = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts.get(i) != 0) {
+                taken[i] = counts.getAndSet(i, 0);
+                count += taken[i];
+            }
+        }
+        return new Snapshot(taken, count, sum.getAndSet(0), max.getAndSet(0));
+    }
+
+    /**
+     * Gets the bucket a value is counted in.
+     *
+     * @param value - the non-negative value
+     * @return the index of the bucket
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the largest value counted in a bucket.
+     *
+     * @param bucket - the index of the bucket
+     * @return the largest value of the bucket
+     */
+    static long highest(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * The counts of a histogram taken at once.
+     */
+    public static class Snapshot {
+
+        /* the count of the values in each bucket. */
+        final long[] counts;
+
+        /* the number, sum and largest of the values. */
+        final long count, sum, max;
+
+        /**
+         * Constructs a snapshot of the given counts.
+         *
+         * @param counts - the count of the values in each bucket
+         * @param count  - the number of values
+         * @param sum    - the sum of the values
+         * @param max    - the largest value
+         */
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of values recorded.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the largest value recorded.
+         *
+         * @return the largest value or 0 when none were recorded
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets the mean of the values recorded.
+         *
+         * @return the mean or 0 when none were recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Gets the value at the given quantile, which is the largest value
+         * of the bucket holding it, but no more than the largest value
+         * recorded.
+         *
+         * @param quantile - the quantile from 0 to 1, such as 0.99
+         * @return the value at the quantile or 0 when none were recorded
+         */
+        public long getValueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highest(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
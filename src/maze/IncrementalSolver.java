@@ -0,0 +1,436 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solves a maze again after its planks change by repairing the search
+ * tree of the last solve instead of searching from nothing, which is
+ * Lifelong Planning A* (LPA*) over the pillars and the planks left at
+ * each pillar, as searched by PlankSearch.
+ * <p/>
+ * Each state keeps its distance from the beginning g and a one-step
+ * lookahead of that distance rhs, which is the least g of the states
+ * stepping to it plus one. A state whose g and rhs differ is in the open
+ * list keyed by [min(g, rhs) + e, min(g, rhs)]. When a plank between two
+ * pillars is added or removed, only the rhs of the states of the pillar
+ * it leads to changes, and the next solve expands just the states whose
+ * distance changed as a result. Every end pillar state steps to a sink
+ * state for free, so the sink is the goal of the search.
+ * <p/>
+ * Changes to the planks must be made through linkPillars() and
+ * unlinkPillars(), heard as a listener of the maze or reported through
+ * linkChanged() to be repaired. A change to the beginning or end
+ * of the maze, or to planks the solver was not told of, is found through
+ * the link version of the maze and starts the next solve from nothing.
+ * An incremental solver must not be shared between threads.
+ *
+ * @author Shaun Howard
+ */
+public class IncrementalSolver implements MazeListener {
+
+    /* the distance of a state not reached, small enough to add to. */
+    static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    /* the maze to search. */
+    final Maze maze;
+
+    /* the number of planks that may be placed along a path. */
+    final int planks;
+
+    /* the number of plank counts each pillar may be reached with. */
+    final int stride;
+
+    /* the state every end pillar state steps to. */
+    final int sink;
+
+    /* g, the distance from the beginning of each state */
+    final int[] g;
+
+    /* rhs, the one-step lookahead distance from the beginning of each state */
+    final int[] rhs;
+
+    /* N, the open list of states whose g and rhs differ */
+    final IndexedHeap open;
+
+    /* the grid indices of the pillars the search tree begins and ends at. */
+    int begin = -1, end = -1;
+
+    /* the link version of the maze the search tree matches or -1. */
+    int linkVersion = -1;
+
+    /* the number of states expanded by the last solve. */
+    int expandedCount = 0;
+
+    /* the end pillar state the last path was found through or -1. */
+    int goal = -1;
+
+    /**
+     * Constructs an incremental solver of the given maze
+     * with the given budget of planks.
+     *
+     * @param maze   - the maze to search
+     * @param planks - the number of planks that may be placed
+     * @throws Exception - thrown when the maze is null or the
+     *                   number of planks is negative
+     */
+    public IncrementalSolver(Maze maze, int planks) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze);
+        if (planks < 0) {
+            throw new Exception("The number of planks was negative.");
+        }
+        this.maze = maze;
+        this.planks = planks;
+        this.stride = planks + 1;
+        this.sink = maze.grid.length * stride;
+        this.g = new int[sink + 1];
+        this.rhs = new int[sink + 1];
+        this.open = new IndexedHeap(sink + 1);
+    }
+
+    /**
+     * Finds the most optimal path from the beginning pillar to the end
+     * pillar of the maze placing at most the budget of planks, repairing
+     * the search tree of the last solve when the maze is otherwise the same.
+     *
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the maze does not have a beginning pillar
+     */
+    public List<Pillar> solve() throws Exception {
+
+        /* make sure maze has a beginning node */
+        MazeUtilities.throwExceptionWhenNull(maze.getBegin());
+
+        int b = maze.indexOf(maze.getBegin());
+        int e = MazeSolver.endIndex(maze);
+        expandedCount = 0;
+        goal = -1;
+
+        /* a maze without an end has no path to it */
+        if (e < 0) {
+            linkVersion = -1;
+            return null;
+        }
+        if (b != begin || e != end || linkVersion != maze.getLinkVersion()) {
+            initialize(b, e);
+        }
+        computeShortestPath();
+        return g[sink] >= INFINITY ? null : path();
+    }
+
+    /**
+     * Links the start pillar to the end pillar in the maze and repairs
+     * the search tree for the new plank on the next solve.
+     *
+     * @param startPos - the position of the pillar to start the plank
+     * @param endPos   - the position of the pillar to end the plank
+     * @throws Exception - thrown when either pillar is not in the maze
+     */
+    public void linkPillars(Maze.Position startPos, Maze.Position endPos) throws Exception {
+        setLinked(startPos, endPos, true);
+    }
+
+    /**
+     * Removes the plank from the start pillar to the end pillar in the
+     * maze and repairs the search tree for it on the next solve.
+     *
+     * @param startPos - the position of the pillar the plank starts at
+     * @param endPos   - the position of the pillar the plank ends at
+     * @throws Exception - thrown when either pillar is not in the maze
+     */
+    public void unlinkPillars(Maze.Position startPos, Maze.Position endPos) throws Exception {
+        setLinked(startPos, endPos, false);
+    }
+
+    /**
+     * Links the pillar at the start coordinate to the pillar at the end
+     * coordinate in the maze and repairs the search tree for the new
+     * plank on the next solve.
+     *
+     * @param start - the packed coordinate of the pillar to start the plank
+     * @param end   - the packed coordinate of the pillar to end the plank
+     * @throws Exception - thrown when either pillar is not in the maze
+     */
+    public void linkPillars(long start, long end) throws Exception {
+        setLinked(maze.index(start), maze.index(end), true);
+    }
+
+    /**
+     * Removes the plank from the pillar at the start coordinate to the
+     * pillar at the end coordinate in the maze and repairs the search
+     * tree for it on the next solve.
+     *
+     * @param start - the packed coordinate of the pillar the plank starts at
+     * @param end   - the packed coordinate of the pillar the plank ends at
+     * @throws Exception - thrown when either pillar is not in the maze
+     */
+    public void unlinkPillars(long start, long end) throws Exception {
+        setLinked(maze.index(start), maze.index(end), false);
+    }
+
+    /**
+     * Adds or removes a plank in the maze and repairs the search tree
+     * for it, unless the solver already heard of it as a listener.
+     */
+    void setLinked(Maze.Position startPos, Maze.Position endPos, boolean linked) throws Exception {
+        setLinked(index(startPos), index(endPos), linked);
+    }
+
+    /**
+     * Gets the grid index of a position of the maze, or -1.
+     */
+    int index(Maze.Position position) {
+        return MazeUtilities.isNull(position) ? -1 : maze.index(position.x, position.y);
+    }
+
+    /**
+     * Adds or removes the plank between the pillars at the given grid
+     * indexes and repairs the search tree for it, unless the solver
+     * already heard of it as a listener.
+     */
+    void setLinked(int from, int to, boolean linked) throws Exception {
+        int before = maze.getLinkVersion();
+        boolean current = linkVersion == before;
+        if (linked) {
+            maze.linkPillars(from, to);
+        } else {
+            maze.unlinkPillars(from, to);
+        }
+        if (current && linkVersion == before && maze.getLinkVersion() == before + 1) {
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if (maze.neighbor(from, direction) == to) {
+                    linkChanged(from, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Repairs the search tree for planks changed in the maze this solver
+     * listens to, as long as the tree matched the maze before the changes.
+     *
+     * @param maze    - the maze that changed
+     * @param changes - the planks added or removed
+     */
+    @Override
+    public void linksChanged(Maze maze, List<LinkChange> changes) {
+        if (maze != this.maze || linkVersion < 0
+                || linkVersion + changes.size() != maze.getLinkVersion()) {
+            return;
+        }
+        for (LinkChange change : changes) {
+            repair(change.getStart(), change.getDirection());
+        }
+        linkVersion = maze.getLinkVersion();
+    }
+
+    /**
+     * Repairs the search tree for a plank added or removed between the
+     * given pillar and its neighbor in the given direction. The change
+     * must already have been made to the maze, and must be the only change
+     * since the tree last matched it, otherwise the next solve starts over.
+     *
+     * @param index     - the grid index of the pillar the plank starts at
+     * @param direction - the direction of the pillar the plank ends at
+     */
+    public void linkChanged(int index, int direction) {
+        if (linkVersion < 0) {
+            return;
+        }
+        if (linkVersion + 1 != maze.getLinkVersion()) {
+            linkVersion = -1;
+            return;
+        }
+        repair(index, direction);
+        linkVersion = maze.getLinkVersion();
+    }
+
+    /**
+     * Updates the states of the pillar a changed plank leads to.
+     *
+     * @param index     - the grid index of the pillar the plank starts at
+     * @param direction - the direction of the pillar the plank ends at
+     */
+    void repair(int index, int direction) {
+        int u = maze.neighbor(index, direction);
+        if (u < 0) {
+            return;
+        }
+
+        /* only the states of the pillar the plank leads to step from it */
+        for (int m = 0; m < stride; m++) {
+            updateVertex(u * stride + m);
+        }
+    }
+
+    /**
+     * Gets the number of planks placed along the last path found.
+     *
+     * @return the number of planks placed or -1 when no path was found
+     */
+    public int planksUsed() {
+        return goal < 0 ? -1 : planks - goal % stride;
+    }
+
+    /**
+     * Gets the number of states expanded by the last solve.
+     *
+     * @return the number of states expanded
+     */
+    public int expandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Clears the search tree and starts a new one from the given beginning.
+     *
+     * @param b - the grid index of the beginning pillar
+     * @param e - the grid index of the end pillar
+     */
+    void initialize(int b, int e) {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        begin = b;
+        end = e;
+        linkVersion = maze.getLinkVersion();
+        int start = begin * stride + planks;
+        rhs[start] = 0;
+        open.update(start, key(start));
+    }
+
+    /**
+     * Expands states whose g and rhs differ until the sink is consistent
+     * and no open state keyed at or below the sink can change its distance.
+     */
+    void computeShortestPath() {
+        while (!open.isEmpty() && (open.key(open.peek()) <= key(sink) || rhs[sink] != g[sink])) {
+            int s = open.pop();
+            expandedCount++;
+            if (g[s] > rhs[s]) {
+                g[s] = rhs[s];
+            } else {
+                g[s] = INFINITY;
+                updateVertex(s);
+            }
+            updateSuccessors(s);
+        }
+    }
+
+    /**
+     * Updates every state the given state steps to.
+     *
+     * @param s - the state that changed
+     */
+    void updateSuccessors(int s) {
+        if (s == sink) {
+            return;
+        }
+        int pillar = s / stride;
+        int left = s % stride;
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            int u = maze.neighbor(pillar, direction);
+            if (u < 0) {
+                continue;
+            }
+
+            /* a connected neighbor keeps the planks, an unconnected one needs a plank */
+            int n = maze.isLinked(pillar, direction) ? left : left - 1;
+            if (n >= 0) {
+                updateVertex(u * stride + n);
+            }
+        }
+        if (pillar == end) {
+            updateVertex(sink);
+        }
+    }
+
+    /**
+     * Recomputes the rhs of a state from the state stepping to it with the
+     * least g plus the cost of the step, which is one between pillars and
+     * nothing from an end pillar state to the sink, and keeps the state in
+     * the open list only while g and rhs differ.
+     *
+     * @param s - the state to update
+     */
+    void updateVertex(int s) {
+        if (s != begin * stride + planks) {
+            int p = bestPredecessor(s);
+            rhs[s] = p < 0 ? INFINITY : Math.min(INFINITY, g[p] + (s == sink ? 0 : 1));
+        }
+        if (g[s] != rhs[s]) {
+            open.update(s, key(s));
+        } else {
+            open.remove(s);
+        }
+    }
+
+    /**
+     * Gets the state stepping to the given state with the least g.
+     *
+     * @param s - the state
+     * @return the best state stepping to the state or -1 when there is none
+     */
+    int bestPredecessor(int s) {
+        int best = -1;
+        if (s == sink) {
+            for (int n = 0; n < stride; n++) {
+                int p = end * stride + n;
+                if (best < 0 || g[p] < g[best]) {
+                    best = p;
+                }
+            }
+            return best;
+        }
+        int pillar = s / stride;
+        int left = s % stride;
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            int v = maze.neighbor(pillar, direction);
+            if (v < 0) {
+                continue;
+            }
+
+            /* a step along a plank kept the planks, a step without one used a plank */
+            int n = maze.isLinkedFrom(pillar, direction) ? left : left + 1;
+            if (n < stride && (best < 0 || g[v * stride + n] < g[best])) {
+                best = v * stride + n;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the key of a state in the open list, which orders states by
+     * min(g, rhs) + e and then by min(g, rhs), packed into one long.
+     *
+     * @param s - the state
+     * @return the key of the state
+     */
+    long key(int s) {
+        int m = Math.min(g[s], rhs[s]);
+        int e = s == sink ? 0 : MazeSolver.distanceToEnd(maze, s / stride, end);
+        return (long) (m + e) << 32 | m;
+    }
+
+    /**
+     * Returns the pillars along the shortest path by following the best
+     * state stepping to each state back from the sink to the beginning.
+     *
+     * @return the list of pillars from the beginning to the end of the maze
+     */
+    List<Pillar> path() {
+        int start = begin * stride + planks;
+        goal = bestPredecessor(sink);
+        List<Pillar> path = new ArrayList<>();
+        for (int curr = goal; ; curr = bestPredecessor(curr)) {
+            path.add(maze.getPillar(curr / stride));
+            if (curr == start) {
+                break;
+            }
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,228 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of ids keyed by cost, with the position of each id
+ * in the heap kept in an array indexed by id. Pushing an id already in
+ * the heap with a lower cost decreases its key in place, so the heap
+ * never holds more than one copy of an id and never holds more ids
+ * than its capacity.
+ * <p/>
+ * Keys are kept as longs, so a search may also order ids by a pair of
+ * costs packed into one key and raise, lower or remove the key of any
+ * id with update() and remove().
+ *
+ * @author Shaun Howard
+ */
+public class IndexedHeap implements OpenList {
+
+    /* the ids in heap order. */
+    final int[] heap;
+
+    /* the position of each id in the heap or -1, indexed by id. */
+    final int[] position;
+
+    /* the key of each id in the heap, indexed by id. */
+    final long[] keys;
+
+    /* the number of ids in the heap. */
+    int size = 0;
+
+    /**
+     * Constructs an empty indexed heap for ids less than the capacity.
+     *
+     * @param capacity - the number of ids the heap may hold
+     */
+    public IndexedHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Adds an id to the heap with the given cost, or lowers the cost
+     * of the id when it is already in the heap with a greater cost.
+     *
+     * @param id       - the id of the pillar or state
+     * @param priority - the non-negative cost of the id
+     */
+    @Override
+    public void push(int id, int priority) {
+        int i = position[id];
+        if (i < 0) {
+            i = size++;
+            heap[i] = id;
+            position[id] = i;
+        } else if (priority >= keys[id]) {
+            return;
+        }
+        keys[id] = priority;
+        siftUp(i);
+    }
+
+    /**
+     * Adds an id to the heap with the given key, or moves the id to
+     * the given key when it is already in the heap, whether the key
+     * is greater or lesser than before.
+     *
+     * @param id  - the id of the pillar or state
+     * @param key - the key of the id
+     */
+    public void update(int id, long key) {
+        int i = position[id];
+        if (i < 0) {
+            i = size++;
+            heap[i] = id;
+            position[id] = i;
+            keys[id] = key;
+            siftUp(i);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(i);
+        } else {
+            keys[id] = key;
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Removes an id from the heap when it is in the heap.
+     *
+     * @param id - the id of the pillar or state
+     */
+    public void remove(int id) {
+        int i = position[id];
+        if (i < 0) {
+            return;
+        }
+        position[id] = -1;
+        if (--size > i) {
+            int moved = heap[size];
+            heap[i] = moved;
+            position[moved] = i;
+            siftUp(i);
+            if (position[moved] == i) {
+                siftDown(i);
+            }
+        }
+    }
+
+    /**
+     * Gets the id with the least key without removing it.
+     *
+     * @return the id with the least key
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    @Override
+    public int pop() {
+        int id = peek();
+        position[id] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return id;
+    }
+
+    /**
+     * Determines whether the given id is in the heap.
+     *
+     * @param id - the id of the pillar or state
+     * @return whether the id is in the heap
+     */
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    /**
+     * Gets the cost of the given id in the heap.
+     *
+     * @param id - the id of the pillar or state in the heap
+     * @return the cost of the id
+     */
+    public int priority(int id) {
+        return (int) keys[id];
+    }
+
+    /**
+     * Gets the key of the given id in the heap.
+     *
+     * @param id - the id of the pillar or state in the heap
+     * @return the key of the id
+     */
+    public long key(int id) {
+        return keys[id];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the id at the given position up until its parent
+     * costs no more than it does.
+     */
+    void siftUp(int i) {
+        int id = heap[i];
+        long key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    /**
+     * Moves the id at the given position down until its
+     * children cost no less than it does.
+     */
+    void siftDown(int i) {
+        int id = heap[i];
+        long key = keys[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+}
@@ -0,0 +1,79 @@
+package maze;
+
+/**
+ * A plank added to or removed from a maze, which is the grid index of
+ * the pillar the plank starts at, the direction of the neighbor it ends
+ * at and whether the plank is now there.
+ *
+ * @author Shaun Howard
+ */
+public class LinkChange {
+
+    /* the grid index of the pillar the plank starts at. */
+    final int start;
+
+    /* the direction of the pillar the plank ends at. */
+    final int direction;
+
+    /* the grid index of the pillar the plank ends at. */
+    final int end;
+
+    /* whether the plank was added rather than removed. */
+    final boolean linked;
+
+    /**
+     * Constructs a change of a plank.
+     *
+     * @param start     - the grid index of the pillar the plank starts at
+     * @param direction - the direction of the pillar the plank ends at
+     * @param end       - the grid index of the pillar the plank ends at
+     * @param linked    - whether the plank was added rather than removed
+     */
+    public LinkChange(int start, int direction, int end, boolean linked) {
+        this.start = start;
+        this.direction = direction;
+        this.end = end;
+        this.linked = linked;
+    }
+
+    /**
+     * Gets the grid index of the pillar the plank starts at.
+     *
+     * @return the grid index of the start pillar
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the direction of the pillar the plank ends at.
+     *
+     * @return the direction of the end pillar
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the grid index of the pillar the plank ends at.
+     *
+     * @return the grid index of the end pillar
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Determines whether the plank was added rather than removed.
+     *
+     * @return whether the plank was added
+     */
+    public boolean isLinked() {
+        return linked;
+    }
+
+    @Override
+    public String toString() {
+        return (linked ? "link " : "unlink ") + start + " -> " + end;
+    }
+}
@@ -0,0 +1,202 @@
+package maze;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A maze read from a binary file mapped into memory, which may be
+ * searched as a grid of pillars without making a Pillar object for
+ * any pillar. The file is a header followed by a packed bitmap of planks:
+ * <pre>
+ *   int magic       "PMZ1"
+ *   int length      the number of pillars in a row
+ *   int width       the number of rows
+ *   int begin       the grid index of the beginning pillar or -1
+ *   int end         the grid index of the end pillar or -1
+ *   byte[] planks   (length * width + 1) / 2 bytes
+ * </pre>
+ * Each pillar has four bits, one for each direction, which are set when
+ * a plank leads from the pillar to its neighbor in that direction. The
+ * pillar at grid index i keeps its bits in the low four bits of byte i / 2
+ * when i is even and in the high four bits when i is odd. Integers are
+ * big-endian.
+ * <p/>
+ * A mapped maze is only read, so any number of threads may search it at once.
+ *
+ * @author Shaun Howard
+ */
+public class MappedMaze implements PillarGrid {
+
+    /* the first four bytes of every maze file, "PMZ1". */
+    public static final int MAGIC = 0x504D5A31;
+
+    /* the number of bytes before the bitmap of planks. */
+    static final int HEADER = 20;
+
+    /* the mapped file. */
+    final ByteBuffer buffer;
+
+    /* the length, width and size of the maze. */
+    final int length, width, size;
+
+    /* the grid indices of the beginning and end pillars or -1. */
+    final int begin, end;
+
+    /**
+     * Constructs a mapped maze over the given buffer after checking its header.
+     *
+     * @param buffer - the contents of a maze file
+     * @throws Exception - thrown when the buffer is not a maze file
+     */
+    MappedMaze(ByteBuffer buffer) throws Exception {
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new Exception("The file is not a maze file.");
+        }
+        this.buffer = buffer;
+        this.length = buffer.getInt(4);
+        this.width = buffer.getInt(8);
+        this.begin = buffer.getInt(12);
+        this.end = buffer.getInt(16);
+        long pillars = (long) length * width;
+        if (length < 0 || width < 0 || pillars > Integer.MAX_VALUE) {
+            throw new Exception("The maze file has a bad size.");
+        }
+        this.size = (int) pillars;
+        if (buffer.capacity() < HEADER + bitmapBytes(size)) {
+            throw new Exception("The maze file is shorter than its planks.");
+        }
+        if (begin < -1 || begin >= size || end < -1 || end >= size) {
+            throw new Exception("The maze file has a bad beginning or end.");
+        }
+    }
+
+    /**
+     * Maps the maze file at the given path into memory.
+     *
+     * @param file - the maze file
+     * @return the mapped maze
+     * @throws Exception - thrown when the file cannot be read or is not a maze file
+     */
+    public static MappedMaze open(File file) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+
+            /* the mapping stays valid after the channel is closed */
+            return new MappedMaze(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the given grid to a maze file at the given path.
+     *
+     * @param grid - the grid of pillars to write, such as a Maze
+     * @param file - the maze file to write
+     * @throws Exception - thrown when the grid or file is null or
+     *                   the file cannot be written
+     */
+    public static void write(PillarGrid grid, File file) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(grid, file);
+        int size = grid.size();
+        long bytes = HEADER + bitmapBytes(size);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(bytes);
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            out.putInt(MAGIC);
+            out.putInt(grid.length());
+            out.putInt(grid.width());
+            out.putInt(grid.beginIndex());
+            out.putInt(grid.endIndex());
+            for (int i = 0; i < size; i += 2) {
+                int packed = bits(grid, i);
+                if (i + 1 < size) {
+                    packed |= bits(grid, i + 1) << 4;
+                }
+                out.put((byte) packed);
+            }
+            out.force();
+        }
+    }
+
+    /**
+     * Gets the four bits of planks leading from a pillar of the given grid.
+     *
+     * @param grid  - the grid of pillars
+     * @param index - the grid index of the pillar
+     * @return the bits of the directions a plank leads in
+     */
+    static int bits(PillarGrid grid, int index) {
+        int bits = 0;
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            if (grid.isLinked(index, direction)) {
+                bits |= 1 << direction;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Gets the number of bytes of the bitmap of planks of the given size.
+     *
+     * @param size - the number of pillars
+     * @return the number of bytes of the bitmap
+     */
+    static long bitmapBytes(int size) {
+        return ((long) size + 1) / 2;
+    }
+
+    /**
+     * Gets the four bits of planks leading from a pillar of this maze.
+     *
+     * @param index - the grid index of the pillar
+     * @return the bits of the directions a plank leads in
+     */
+    int bits(int index) {
+        return buffer.get(HEADER + (index >> 1)) >> ((index & 1) << 2) & 0xF;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int neighbor(int index, int direction) {
+        return MazeUtilities.neighbor(length, size, index, direction);
+    }
+
+    @Override
+    public boolean isLinked(int index, int direction) {
+        return neighbor(index, direction) >= 0 && (bits(index) >> direction & 1) != 0;
+    }
+
+    @Override
+    public boolean isLinkedFrom(int index, int direction) {
+        int neighbor = neighbor(index, direction);
+        return neighbor >= 0 && (bits(neighbor) >> Maze.opposite(direction) & 1) != 0;
+    }
+
+    @Override
+    public int beginIndex() {
+        return begin;
+    }
+
+    @Override
+    public int endIndex() {
+        return end;
+    }
+}
@@ -1,14 +1,24 @@
 package maze;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A maze is a grid of pillar nodes that may be linked by planks.
  * The maze is constructed by incrementally adding nodes to specific
  * x,y coordinates which are not already occupied and linking them by
- * putting a node as a key into another nodes map of neighbors and setting
- * its value to true, otherwise the value should be false and these nodes
+ * setting the bit of the direction of a node in the mask of planks of
+ * another node, otherwise the bit should be clear and these nodes
  * are simply unconnected neighbors. The end node, the exit of the maze,
  * will be signified by a Boolean 'end' which should be set to true, otherwise,
  * the node is a step to the end and so this value is false.
@@ -16,7 +26,25 @@ import java.util.Map;
  *
  * @author Shaun Howard
  */
-public class Maze {
+public class Maze implements PillarGrid {
+
+    /* the direction of the pillar above another pillar, toward greater y. */
+    public static final int ABOVE = 0;
+
+    /* the direction of the pillar below another pillar, toward lesser y. */
+    public static final int BELOW = 1;
+
+    /* the direction of the pillar left of another pillar, toward greater x. */
+    public static final int LEFT = 2;
+
+    /* the direction of the pillar right of another pillar, toward lesser x. */
+    public static final int RIGHT = 3;
+
+    /* the number of directions a pillar may have neighbors in. */
+    public static final int DIRECTIONS = 4;
+
+    /* the fewest pillars of a band of rows built by one task. */
+    static final int BAND_PILLARS = 1 << 14;
 
     /* the length of the maze by rows. */
     int length = 0;
@@ -33,23 +61,60 @@ public class Maze {
     /* the ending pillar of the maze. */
     Pillar end = null;
 
-    /* a map of pillars keyed by their positions. */
-    Map<Position, Pillar> pillars = new HashMap<>();
+    /* the pillars of the maze in a flat grid indexed by y * length + x. */
+    Pillar[] grid = new Pillar[0];
+
+    /* a read-only map view of the grid keyed by pillar positions. */
+    Map<Position, Pillar> pillars = new PillarMap();
+
+    /* the number of times the planks of the maze have changed. */
+    volatile int linkVersion = 0;
+
+    /* the number of times the planks, beginning or end of the maze have changed. */
+    volatile int version = 0;
+
+    /* the distance field to the end last built for this maze or null. */
+    volatile DistanceField distanceField = null;
+
+    /* the listeners told of changes to the planks of the maze. */
+    final List<MazeListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs an empty maze of the length and width
      * then calculates the maze size based on these
-     * parameters.
+     * parameters. Large mazes are built in bands of
+     * rows on the common fork-join pool.
      *
      * @param length - the length of the maze to construct
      * @param width  - the width of the maze to construct
      */
     public Maze(int length, int width) {
+        this(length, width, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an empty maze of the length and width, building
+     * its pillars and setting their neighbors in bands of rows on
+     * the given pool, and stitching the bands together after.
+     *
+     * @param length - the length of the maze to construct
+     * @param width  - the width of the maze to construct
+     * @param pool   - the pool to build the bands on or null
+     *               to build the maze on the calling thread
+     */
+    public Maze(int length, int width, ForkJoinPool pool) {
+        Object event = MazeRecorder.RECORDER.beginConstruction();
         this.length = length;
         this.width = width;
         this.size = length * width;
-        constructPillars();
-        setNeighbors();
+        grid = new Pillar[size];
+        Band band = new Band(0, width);
+        if (pool == null || size < 2 * BAND_PILLARS) {
+            band.build();
+        } else {
+            pool.invoke(band);
+        }
+        MazeRecorder.RECORDER.constructed(event, length, width);
     }
 
     /**
@@ -91,11 +156,10 @@ public class Maze {
      * From bottom to top, y coordinate increases.
      */
     void constructPillars() {
-        Pillar pillar;
+        grid = new Pillar[length * width];
         for (int i = 0; i < width; i++) {
             for (int j = 0; j < length; j++) {
-                pillar = new Pillar(j, i);
-                pillars.put(new Position(j, i), pillar);
+                grid[i * length + j] = new Pillar(j, i);
             }
         }
     }
@@ -107,22 +171,100 @@ public class Maze {
      * be set by the user with the linkPillars() method.
      */
     void setNeighbors() {
-        Pillar pillar;
 
         /*
          * Find all the neighbors of a selected pillar
-         * at the given position in the maze and add
-         * them to the map of neighbors for that pillar.
-         * Null neighbors will not be added to the map.
+         * at the given position in the maze and put
+         * them in the slot of their direction.
+         * Missing neighbors leave their slots null.
          */
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < length; j++) {
-                pillar = pillars.get(new Position(j, i));
-                pillar.addNeighbor(getVerticalPillar(pillar, false), false);
-                pillar.addNeighbor(getVerticalPillar(pillar, true), false);
-                pillar.addNeighbor(getHorizontalPillar(pillar, true), false);
-                pillar.addNeighbor(getHorizontalPillar(pillar, false), false);
+        for (int i = 0; i < grid.length; i++) {
+            for (int direction = 0; direction < DIRECTIONS; direction++) {
+                int neighbor = neighbor(i, direction);
+                grid[i].setNeighbor(direction, neighbor < 0 ? null : grid[neighbor]);
+            }
+        }
+    }
+
+    /**
+     * Builds the pillars of the rows from first up to last and sets
+     * their neighbors in those rows, in one pass, each pillar linked
+     * to the pillars right of and below it as it is made.
+     *
+     * @param first - the first row
+     * @param last  - the row after the last row
+     */
+    void buildRows(int first, int last) {
+        for (int y = first; y < last; y++) {
+            for (int x = 0; x < length; x++) {
+                int i = y * length + x;
+                Pillar pillar = grid[i] = new Pillar(x, y);
+                if (x > 0) {
+                    pillar.setNeighbor(RIGHT, grid[i - 1]);
+                    grid[i - 1].setNeighbor(LEFT, pillar);
+                }
+                if (y > first) {
+                    pillar.setNeighbor(BELOW, grid[i - length]);
+                    grid[i - length].setNeighbor(ABOVE, pillar);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the neighbors between a row and the row below it,
+     * which were built as the borders of two bands.
+     *
+     * @param row - the first row of the upper band
+     */
+    void stitchRows(int row) {
+        for (int x = 0; x < length; x++) {
+            Pillar pillar = grid[row * length + x];
+            Pillar below = grid[(row - 1) * length + x];
+            pillar.setNeighbor(BELOW, below);
+            below.setNeighbor(ABOVE, pillar);
+        }
+    }
+
+    /**
+     * Builds a band of rows of the maze, splitting it in half until
+     * each half is small enough to build alone, and stitching the
+     * halves together once both are built.
+     */
+    class Band extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /* the first row and the row after the last row of the band. */
+        final int first, last;
+
+        /**
+         * Constructs a band of the rows from first up to last.
+         *
+         * @param first - the first row
+         * @param last  - the row after the last row
+         */
+        Band(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first < 2 || (long) (last - first) * length < 2 * BAND_PILLARS) {
+                build();
+                return;
             }
+            int middle = (first + last) >>> 1;
+            invokeAll(new Band(first, middle), new Band(middle, last));
+            stitchRows(middle);
+        }
+
+        /**
+         * Builds the band on the calling thread.
+         */
+        void build() {
+            buildRows(first, last);
         }
     }
 
@@ -138,14 +280,7 @@ public class Maze {
     public Pillar getVerticalPillar(Pillar pillar, boolean above) {
         int x = pillar.getX();
         int y = pillar.getY();
-        Pillar vertical = null;
-
-        if (y > 0 && !above) {
-            vertical = pillars.get(new Position(x, y - 1));
-        } else if (y < length && above) {
-            vertical = pillars.get(new Position(x, y + 1));
-        }
-        return vertical;
+        return getPillar(x, above ? y + 1 : y - 1);
     }
 
     /**
@@ -160,14 +295,7 @@ public class Maze {
     public Pillar getHorizontalPillar(Pillar pillar, boolean left) {
         int x = pillar.getX();
         int y = pillar.getY();
-        Pillar horizontal = null;
-
-        if (x > 0 && !left) {
-            horizontal = pillars.get(new Position(x - 1, y));
-        } else if (x < width && left) {
-            horizontal = pillars.get(new Position(x + 1, y));
-        }
-        return horizontal;
+        return getPillar(left ? x + 1 : x - 1, y);
     }
 
     /**
@@ -179,17 +307,188 @@ public class Maze {
      * @throws Exception - when the pillars at either position are null
      */
     public void linkPillars(Position startPos, Position endPos) throws Exception {
-        Pillar start = pillars.get(startPos);
-        Pillar end = pillars.get(endPos);
+        changeLink(getPillar(startPos), getPillar(endPos), true);
+    }
 
+    /**
+     * Removes the plank from the start pillar to the end pillar,
+     * leaving the pillars as unconnected neighbors.
+     *
+     * @param startPos - the position of the pillar the plank starts at
+     * @param endPos   - the position of the pillar the plank ends at
+     * @throws Exception - when the pillars at either position are null
+     */
+    public void unlinkPillars(Position startPos, Position endPos) throws Exception {
+        changeLink(getPillar(startPos), getPillar(endPos), false);
+    }
+
+    /**
+     * Links the pillar at the start grid index to the pillar at
+     * the end grid index with a unidirectional plank.
+     *
+     * @param startIndex - the grid index of the pillar to start the plank
+     * @param endIndex   - the grid index of the pillar to end the plank
+     * @throws Exception - when either grid index is outside of the maze
+     */
+    public void linkPillars(int startIndex, int endIndex) throws Exception {
+        changeLink(getPillar(startIndex), getPillar(endIndex), true);
+    }
+
+    /**
+     * Removes the plank from the pillar at the start grid index
+     * to the pillar at the end grid index.
+     *
+     * @param startIndex - the grid index of the pillar the plank starts at
+     * @param endIndex   - the grid index of the pillar the plank ends at
+     * @throws Exception - when either grid index is outside of the maze
+     */
+    public void unlinkPillars(int startIndex, int endIndex) throws Exception {
+        changeLink(getPillar(startIndex), getPillar(endIndex), false);
+    }
+
+    /**
+     * Links the pillar at the start coordinate to the pillar at
+     * the end coordinate with a unidirectional plank.
+     *
+     * @param start - the packed coordinate of the pillar to start the plank
+     * @param end   - the packed coordinate of the pillar to end the plank
+     * @throws Exception - when either coordinate is outside of the maze
+     */
+    public void linkPillars(long start, long end) throws Exception {
+        changeLink(getPillar(start), getPillar(end), true);
+    }
+
+    /**
+     * Removes the plank from the pillar at the start coordinate
+     * to the pillar at the end coordinate.
+     *
+     * @param start - the packed coordinate of the pillar the plank starts at
+     * @param end   - the packed coordinate of the pillar the plank ends at
+     * @throws Exception - when either coordinate is outside of the maze
+     */
+    public void unlinkPillars(long start, long end) throws Exception {
+        changeLink(getPillar(start), getPillar(end), false);
+    }
+
+    /**
+     * Adds or removes the plank from the start pillar to the end pillar
+     * and tells the listeners when the plank changed.
+     *
+     * @param start  - the pillar the plank starts at, or null
+     * @param end    - the pillar the plank ends at, or null
+     * @param linked - whether to add rather than remove the plank
+     * @throws Exception - when either pillar is null
+     */
+    void changeLink(Pillar start, Pillar end, boolean linked) throws Exception {
         MazeUtilities.throwExceptionWhenNull(start, end);
 
-        Map<Pillar, Boolean> neighbors = start.getNeighbors();
-        if (neighbors.containsKey(end)) {
-            neighbors.put(end, true);
+        if (setLinked(start, end, linked) && !listeners.isEmpty()) {
+            notifyListeners(Collections.singletonList(change(start, end, linked)));
+        }
+    }
+
+    /**
+     * Adds or removes the plank from the start pillar to the end pillar
+     * when they are neighbors, bumping the versions of this maze when the
+     * plank changed.
+     *
+     * @param start  - the pillar the plank starts at
+     * @param end    - the pillar the plank ends at
+     * @param linked - whether to add rather than remove the plank
+     * @return whether the plank changed
+     */
+    boolean setLinked(Pillar start, Pillar end, boolean linked) {
+        int direction = start.directionOf(end);
+        if (direction < 0 || !start.setLinked(direction, linked)) {
+            return false;
+        }
+        linkVersion++;
+        version++;
+        distanceField = null;
+        return true;
+    }
+
+    /**
+     * Makes the change of the plank from the start pillar to the end pillar.
+     *
+     * @param start  - the pillar the plank starts at
+     * @param end    - the pillar the plank ends at
+     * @param linked - whether the plank was added rather than removed
+     * @return the change of the plank
+     */
+    LinkChange change(Pillar start, Pillar end, boolean linked) {
+        int from = indexOf(start);
+        int to = indexOf(end);
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            if (neighbor(from, direction) == to) {
+                return new LinkChange(from, direction, to, linked);
+            }
+        }
+        throw new IllegalArgumentException("The pillars were not neighbors.");
+    }
+
+    /**
+     * Tells every listener of the given changes to the planks.
+     *
+     * @param changes - the planks added or removed
+     */
+    void notifyListeners(List<LinkChange> changes) {
+        for (MazeListener listener : listeners) {
+            listener.linksChanged(this, changes);
         }
     }
 
+    /**
+     * Adds a listener to be told of changes to the planks of this maze.
+     *
+     * @param listener - the listener to add
+     * @throws Exception - thrown when the listener is null
+     */
+    public void addListener(MazeListener listener) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener from this maze.
+     *
+     * @param listener - the listener to remove
+     */
+    public void removeListener(MazeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a batch of changes to the planks of this maze, which are
+     * made together and told to the listeners at once when applied.
+     *
+     * @return a new, empty batch of changes
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Gets the number of times the planks of this maze have changed,
+     * which lets anything built from the planks tell when it is stale.
+     *
+     * @return the number of times the planks have changed
+     */
+    public int getLinkVersion() {
+        return linkVersion;
+    }
+
+    /**
+     * Gets the number of times the planks, beginning or end of this maze
+     * have changed, which lets a path found through the maze be told apart
+     * from a path found before it changed.
+     *
+     * @return the number of times the maze has changed
+     */
+    public int getVersion() {
+        return version;
+    }
+
     /**
      * Gets the beginning pillar of this maze.
      *
@@ -205,11 +504,61 @@ public class Maze {
      * @param begin - the beginning position of this maze
      */
     public void setBegin(Position begin) {
-        if (pillars.containsKey(begin)) {
-            this.begin = pillars.get(begin);
+        setBegin(getPillar(begin));
+    }
+
+    /**
+     * Sets the beginning pillar of this maze to the
+     * pillar at the given grid index.
+     *
+     * @param index - the grid index of the beginning pillar
+     */
+    public void setBegin(int index) {
+        setBegin(getPillar(index));
+    }
+
+    /**
+     * Sets the beginning pillar of this maze to the
+     * pillar at the given packed coordinate.
+     *
+     * @param coordinate - the packed coordinate of the beginning pillar
+     */
+    public void setBegin(long coordinate) {
+        setBegin(getPillar(coordinate));
+    }
+
+    /**
+     * Sets the beginning pillar of this maze, unless it is null.
+     */
+    void setBegin(Pillar pillar) {
+        if (!MazeUtilities.isNull(pillar)) {
+            this.begin = pillar;
+            version++;
         }
     }
 
+    /**
+     * Gets the grid index of the beginning pillar of this maze.
+     *
+     * @return the grid index of the beginning pillar or -1 when there is none
+     */
+    @Override
+    public int beginIndex() {
+        Pillar pillar = begin;
+        return MazeUtilities.isNull(pillar) ? -1 : indexOf(pillar);
+    }
+
+    /**
+     * Gets the grid index of the ending pillar of this maze.
+     *
+     * @return the grid index of the ending pillar or -1 when there is none
+     */
+    @Override
+    public int endIndex() {
+        Pillar pillar = end;
+        return MazeUtilities.isNull(pillar) ? -1 : indexOf(pillar);
+    }
+
     /**
      * Gets the ending pillar of this maze.
      *
@@ -225,13 +574,43 @@ public class Maze {
      * @param end - the ending position of this maze
      */
     public void setEnd(Position end) {
-        if (pillars.containsKey(end)) {
-            this.end = pillars.get(end);
+        setEnd(getPillar(end));
+    }
+
+    /**
+     * Sets the ending pillar of this maze to the
+     * pillar at the given grid index.
+     *
+     * @param index - the grid index of the ending pillar
+     */
+    public void setEnd(int index) {
+        setEnd(getPillar(index));
+    }
+
+    /**
+     * Sets the ending pillar of this maze to the
+     * pillar at the given packed coordinate.
+     *
+     * @param coordinate - the packed coordinate of the ending pillar
+     */
+    public void setEnd(long coordinate) {
+        setEnd(getPillar(coordinate));
+    }
+
+    /**
+     * Sets the ending pillar of this maze, unless it is null.
+     */
+    void setEnd(Pillar pillar) {
+        if (!MazeUtilities.isNull(pillar)) {
+            this.end = pillar;
+            version++;
         }
     }
 
     /**
-     * Gets the pillars of this maze.
+     * Gets the pillars of this maze as a read-only map
+     * keyed by position. The map is a view over the
+     * grid, so lookups do not hash.
      *
      * @return the pillars of this maze
      */
@@ -239,11 +618,154 @@ public class Maze {
         return pillars;
     }
 
+    /**
+     * Gets the grid index of the given coordinates, which is
+     * y * length + x, otherwise returns -1 when the coordinates
+     * are outside of the maze.
+     *
+     * @param x - the x-coordinate in the maze
+     * @param y - the y-coordinate in the maze
+     * @return the grid index of the coordinates or -1
+     */
+    public int index(int x, int y) {
+        if (x < 0 || y < 0 || x >= length || y >= width) {
+            return -1;
+        }
+        int index = y * length + x;
+        return index < grid.length ? index : -1;
+    }
+
+    /**
+     * Gets the grid index of the given packed coordinate,
+     * otherwise returns -1 when the coordinate is outside
+     * of the maze.
+     *
+     * @param coordinate - the packed coordinate in the maze
+     * @return the grid index of the coordinate or -1
+     */
+    public int index(long coordinate) {
+        return index(xOf(coordinate), yOf(coordinate));
+    }
+
+    /**
+     * Gets the grid index of the given pillar of this maze.
+     *
+     * @param pillar - the pillar to find the index of
+     * @return the grid index of the pillar or -1
+     */
+    public int indexOf(Pillar pillar) {
+        return index(pillar.getX(), pillar.getY());
+    }
+
+    /**
+     * Gets the pillar at the given grid index, otherwise
+     * returns null when the index is outside of the maze.
+     *
+     * @param index - the grid index of the pillar
+     * @return the pillar at the grid index or null
+     */
+    public Pillar getPillar(int index) {
+        return index < 0 || index >= grid.length ? null : grid[index];
+    }
+
+    /**
+     * Gets the pillar at the given coordinates, otherwise
+     * returns null when the coordinates are outside of the maze.
+     *
+     * @param x - the x-coordinate in the maze
+     * @param y - the y-coordinate in the maze
+     * @return the pillar at the coordinates or null
+     */
+    public Pillar getPillar(int x, int y) {
+        int index = index(x, y);
+        return index < 0 ? null : grid[index];
+    }
+
+    /**
+     * Gets the pillar at the given packed coordinate, otherwise
+     * returns null when the coordinate is outside of the maze.
+     *
+     * @param coordinate - the packed coordinate in the maze
+     * @return the pillar at the coordinate or null
+     */
+    public Pillar getPillar(long coordinate) {
+        return getPillar(xOf(coordinate), yOf(coordinate));
+    }
+
+    /**
+     * Gets the grid index of the neighbor of the pillar at the
+     * given grid index in the given direction, otherwise returns
+     * -1 when the neighbor would be outside of the maze.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - one of ABOVE, BELOW, LEFT or RIGHT
+     * @return the grid index of the neighbor or -1
+     */
+    @Override
+    public int neighbor(int index, int direction) {
+        return MazeUtilities.neighbor(length, grid.length, index, direction);
+    }
+
+    /**
+     * Determines whether the pillar at the given grid index is
+     * linked by a plank to its neighbor in the given direction.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - one of ABOVE, BELOW, LEFT or RIGHT
+     * @return whether a plank leads to the neighbor
+     */
+    @Override
+    public boolean isLinked(int index, int direction) {
+        return grid[index].isLinked(direction);
+    }
+
+    /**
+     * Determines whether the neighbor in the given direction of the
+     * pillar at the given grid index is linked by a plank back to that
+     * pillar. This is the reverse of isLinked(), since planks only lead
+     * from one pillar to another.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - one of ABOVE, BELOW, LEFT or RIGHT
+     * @return whether a plank leads from the neighbor to the pillar
+     */
+    @Override
+    public boolean isLinkedFrom(int index, int direction) {
+        int neighbor = neighbor(index, direction);
+        return neighbor >= 0 && isLinked(neighbor, opposite(direction));
+    }
+
+    /**
+     * Gets the opposite of the given direction.
+     *
+     * @param direction - one of ABOVE, BELOW, LEFT or RIGHT
+     * @return the opposite direction
+     */
+    public static int opposite(int direction) {
+        return direction ^ 1;
+    }
+
+    /**
+     * Gets the pillar at the given position, otherwise
+     * returns null when the position is null or outside
+     * of the maze.
+     *
+     * @param position - the position of the pillar
+     * @return the pillar at the position or null
+     */
+    Pillar getPillar(Position position) {
+        if (MazeUtilities.isNull(position)) {
+            return null;
+        }
+        return getPillar(position.x, position.y);
+    }
+
     /**
      * Gets the size of this maze.
      *
      * @return the size of this maze
      */
+    @Override
     public int size() {
         return this.size;
     }
@@ -253,6 +775,7 @@ public class Maze {
      *
      * @return the length of the maze
      */
+    @Override
     public int length() {
         return this.length;
     }
@@ -262,6 +785,7 @@ public class Maze {
      *
      * @return the width of the maze
      */
+    @Override
     public int width() {
         return this.width;
     }
@@ -277,6 +801,170 @@ public class Maze {
         return new Position(x, y);
     }
 
+    /**
+     * Packs x and y coordinates into one long, with y in the high
+     * 32 bits and x in the low 32 bits, so a coordinate can be
+     * passed and kept without making a position.
+     *
+     * @param x - the x-coordinate
+     * @param y - the y-coordinate
+     * @return the packed coordinate
+     */
+    public static long coordinate(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the x-coordinate of a packed coordinate.
+     *
+     * @param coordinate - the packed coordinate
+     * @return the x-coordinate
+     */
+    public static int xOf(long coordinate) {
+        return (int) coordinate;
+    }
+
+    /**
+     * Gets the y-coordinate of a packed coordinate.
+     *
+     * @param coordinate - the packed coordinate
+     * @return the y-coordinate
+     */
+    public static int yOf(long coordinate) {
+        return (int) (coordinate >> 32);
+    }
+
+    /**
+     * A batch of planks to add to or remove from the maze. The pillars
+     * of each change are found when the change is added to the batch, so
+     * a bad position fails before any plank of the batch is changed.
+     */
+    public class Batch {
+
+        /* the pillars the planks start at. */
+        final List<Pillar> starts = new ArrayList<>();
+
+        /* the pillars the planks end at. */
+        final List<Pillar> ends = new ArrayList<>();
+
+        /* whether each plank is added rather than removed. */
+        final List<Boolean> links = new ArrayList<>();
+
+        /**
+         * Adds a plank from the start pillar to the end pillar to the batch.
+         *
+         * @param startPos - the position of the pillar to start the plank
+         * @param endPos   - the position of the pillar to end the plank
+         * @return this batch
+         * @throws Exception - when the pillars at either position are null
+         */
+        public Batch link(Position startPos, Position endPos) throws Exception {
+            return add(getPillar(startPos), getPillar(endPos), true);
+        }
+
+        /**
+         * Adds the removal of the plank from the start
+         * pillar to the end pillar to the batch.
+         *
+         * @param startPos - the position of the pillar the plank starts at
+         * @param endPos   - the position of the pillar the plank ends at
+         * @return this batch
+         * @throws Exception - when the pillars at either position are null
+         */
+        public Batch unlink(Position startPos, Position endPos) throws Exception {
+            return add(getPillar(startPos), getPillar(endPos), false);
+        }
+
+        /**
+         * Adds a plank from the pillar at the start grid index
+         * to the pillar at the end grid index to the batch.
+         *
+         * @param startIndex - the grid index of the pillar to start the plank
+         * @param endIndex   - the grid index of the pillar to end the plank
+         * @return this batch
+         * @throws Exception - when either grid index is outside of the maze
+         */
+        public Batch link(int startIndex, int endIndex) throws Exception {
+            return add(getPillar(startIndex), getPillar(endIndex), true);
+        }
+
+        /**
+         * Adds the removal of the plank from the pillar at the start
+         * grid index to the pillar at the end grid index to the batch.
+         *
+         * @param startIndex - the grid index of the pillar the plank starts at
+         * @param endIndex   - the grid index of the pillar the plank ends at
+         * @return this batch
+         * @throws Exception - when either grid index is outside of the maze
+         */
+        public Batch unlink(int startIndex, int endIndex) throws Exception {
+            return add(getPillar(startIndex), getPillar(endIndex), false);
+        }
+
+        /**
+         * Adds a plank from the pillar at the start coordinate
+         * to the pillar at the end coordinate to the batch.
+         *
+         * @param start - the packed coordinate of the pillar to start the plank
+         * @param end   - the packed coordinate of the pillar to end the plank
+         * @return this batch
+         * @throws Exception - when either coordinate is outside of the maze
+         */
+        public Batch link(long start, long end) throws Exception {
+            return add(getPillar(start), getPillar(end), true);
+        }
+
+        /**
+         * Adds the removal of the plank from the pillar at the start
+         * coordinate to the pillar at the end coordinate to the batch.
+         *
+         * @param start - the packed coordinate of the pillar the plank starts at
+         * @param end   - the packed coordinate of the pillar the plank ends at
+         * @return this batch
+         * @throws Exception - when either coordinate is outside of the maze
+         */
+        public Batch unlink(long start, long end) throws Exception {
+            return add(getPillar(start), getPillar(end), false);
+        }
+
+        /**
+         * Adds a change of a plank to the batch.
+         */
+        Batch add(Pillar start, Pillar end, boolean linked) throws Exception {
+            MazeUtilities.throwExceptionWhenNull(start, end);
+
+            starts.add(start);
+            ends.add(end);
+            links.add(linked);
+            return this;
+        }
+
+        /**
+         * Makes every change of the batch in order, then tells the
+         * listeners of the planks that changed and empties the batch.
+         *
+         * @return the planks that changed, in the order changed
+         */
+        public List<LinkChange> apply() {
+            Object event = MazeRecorder.RECORDER.beginLinkBatch();
+            int requested = starts.size();
+            List<LinkChange> changes = new ArrayList<>();
+            for (int i = 0; i < starts.size(); i++) {
+                if (setLinked(starts.get(i), ends.get(i), links.get(i))) {
+                    changes.add(change(starts.get(i), ends.get(i), links.get(i)));
+                }
+            }
+            starts.clear();
+            ends.clear();
+            links.clear();
+            if (!changes.isEmpty()) {
+                notifyListeners(Collections.unmodifiableList(changes));
+            }
+            MazeRecorder.RECORDER.linked(event, length, width, requested, changes.size(), linkVersion);
+            return changes;
+        }
+    }
+
     /**
      * Holds the position of pillars in the maze.
      */
@@ -332,6 +1020,67 @@ public class Maze {
         }
     }
 
+    /**
+     * A read-only map view of the pillar grid. Lookups by
+     * position are answered by indexing into the grid.
+     */
+    class PillarMap extends AbstractMap<Position, Pillar> {
+
+        @Override
+        public Pillar get(Object key) {
+            return key instanceof Position ? getPillar((Position) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return grid.length;
+        }
+
+        @Override
+        public Set<Entry<Position, Pillar>> entrySet() {
+            return new AbstractSet<Entry<Position, Pillar>>() {
+                @Override
+                public Iterator<Entry<Position, Pillar>> iterator() {
+                    return new Iterator<Entry<Position, Pillar>>() {
+
+                        /* the next grid index to visit. */
+                        int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < grid.length;
+                        }
+
+                        @Override
+                        public Entry<Position, Pillar> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Pillar pillar = grid[next++];
+                            return new SimpleImmutableEntry<>(
+                                    new Position(pillar.getX(), pillar.getY()), pillar);
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return grid.length;
+                }
+            };
+        }
+    }
+
     /**
      * Tests the Maze class protected methods.
      */
@@ -0,0 +1,229 @@
+package maze;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Flight Recorder events of the maze, which tie the time of a recording
+ * to the maze built or linked and the query solved or found in a cache.
+ * Each event is begun before the work and only filled in and committed when
+ * a recording wants it, so the events cost next to nothing when Flight
+ * Recorder is off. The events are enabled in a recording by their names,
+ * such as maze.Solve, or all at once by the PillarMaze category.
+ * <p/>
+ * Flight Recorder is only part of Java 11 and later, so the maze records
+ * these events through MazeRecorder, which loads the recorder below only
+ * when jdk.jfr is present, and this file is left out of older builds.
+ *
+ * @author Shaun Howard
+ */
+public final class MazeEvents {
+
+    /* the category of every event of the maze. */
+    static final String CATEGORY = "PillarMaze";
+
+    private MazeEvents() {
+    }
+
+    /**
+     * The construction of a maze, making its pillars and setting their neighbors.
+     */
+    @Name("maze.Construction")
+    @Label("Maze Construction")
+    @Category(CATEGORY)
+    @Description("A maze made its pillars and set their neighbors.")
+    public static final class Construction extends Event {
+
+        @Label("Length")
+        int length;
+
+        @Label("Width")
+        int width;
+    }
+
+    /**
+     * A batch of planks linked or unlinked at once.
+     */
+    @Name("maze.LinkBatch")
+    @Label("Link Batch")
+    @Category(CATEGORY)
+    @Description("A batch of planks was applied to a maze.")
+    public static final class LinkBatch extends Event {
+
+        @Label("Length")
+        int length;
+
+        @Label("Width")
+        int width;
+
+        @Label("Requested")
+        @Description("The planks the batch asked to link or unlink.")
+        int requested;
+
+        @Label("Changed")
+        @Description("The planks that changed.")
+        int changed;
+
+        @Label("Link Version")
+        int linkVersion;
+    }
+
+    /**
+     * A search through a maze from its start to its end.
+     */
+    @Name("maze.Solve")
+    @Label("Maze Solve")
+    @Category(CATEGORY)
+    @Description("A search for the shortest path between two pillars of a maze.")
+    public static final class Solve extends Event {
+
+        @Label("Search")
+        @Description("P* for the original search with one plank, PlankSearch or OffHeapSearch.")
+        String search;
+
+        @Label("Length")
+        int length;
+
+        @Label("Width")
+        int width;
+
+        @Label("Begin")
+        @Description("The grid index of the beginning pillar.")
+        int begin;
+
+        @Label("End")
+        @Description("The grid index of the end pillar or -1.")
+        int end;
+
+        @Label("Planks")
+        @Description("The number of extra planks that may be placed.")
+        int planks;
+
+        @Label("Expanded")
+        long expanded;
+
+        @Label("Path Length")
+        @Description("The number of pillars along the path or -1 when there is none.")
+        int pathLength;
+    }
+
+    /**
+     * A search answered by a path cache.
+     */
+    @Name("maze.CacheHit")
+    @Label("Path Cache Hit")
+    @Category(CATEGORY)
+    @Description("A path cache answered a search without searching.")
+    public static final class CacheHit extends Event {
+
+        @Label("Length")
+        int length;
+
+        @Label("Width")
+        int width;
+
+        @Label("Begin")
+        int begin;
+
+        @Label("End")
+        int end;
+
+        @Label("Planks")
+        @Description("The number of extra planks or -1 for the original P*.")
+        int planks;
+
+        @Label("Version")
+        @Description("The version of the maze the path was found in.")
+        int version;
+
+        @Label("Path Length")
+        @Description("The number of pillars along the path or -1 when there is none.")
+        int pathLength;
+    }
+
+    /**
+     * The recorder of the events of the maze, loaded in place of the
+     * recorder that does nothing when Flight Recorder is present.
+     */
+    static final class Recorder extends MazeRecorder {
+
+        @Override
+        Object beginConstruction() {
+            Construction event = new Construction();
+            event.begin();
+            return event;
+        }
+
+        @Override
+        void constructed(Object begun, int length, int width) {
+            Construction event = (Construction) begun;
+            if (event.shouldCommit()) {
+                event.length = length;
+                event.width = width;
+                event.commit();
+            }
+        }
+
+        @Override
+        Object beginLinkBatch() {
+            LinkBatch event = new LinkBatch();
+            event.begin();
+            return event;
+        }
+
+        @Override
+        void linked(Object begun, int length, int width, int requested, int changed, int linkVersion) {
+            LinkBatch event = (LinkBatch) begun;
+            if (event.shouldCommit()) {
+                event.length = length;
+                event.width = width;
+                event.requested = requested;
+                event.changed = changed;
+                event.linkVersion = linkVersion;
+                event.commit();
+            }
+        }
+
+        @Override
+        Object beginSolve() {
+            Solve event = new Solve();
+            event.begin();
+            return event;
+        }
+
+        @Override
+        void solved(Object begun, String search, PillarGrid grid, int begin, int end,
+                    int planks, SearchStats stats, int path) {
+            Solve event = (Solve) begun;
+            if (event.shouldCommit()) {
+                event.search = search;
+                event.length = grid.length();
+                event.width = grid.width();
+                event.begin = begin;
+                event.end = end;
+                event.planks = planks;
+                event.expanded = stats.expanded;
+                event.pathLength = path;
+                event.commit();
+            }
+        }
+
+        @Override
+        void cacheHit(Maze maze, int begin, int end, int planks, int version, int path) {
+            CacheHit event = new CacheHit();
+            if (event.shouldCommit()) {
+                event.length = maze.length();
+                event.width = maze.width();
+                event.begin = begin;
+                event.end = end;
+                event.planks = planks;
+                event.version = version;
+                event.pathLength = path;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates mazes from a seed, so the same seed always gives the same maze.
+ * The grid is split into bands of BAND_ROWS rows which are generated at
+ * once on an executor, each from its own seed drawn from the seed of the
+ * generator and the number of the band. The bands never depend on how
+ * many threads run them, so the maze depends only on the seed.
+ * <p/>
+ * Mazes are generated as packed grids, which hold 10k x 10k pillars in
+ * 50 MB, and made into a Maze with PackedGrid.toMaze() when small enough.
+ * The kinds of maze are:
+ * <ul>
+ * <li>perfect mazes, with exactly one path between any two pillars, carved
+ * by a recursive backtracker or by Wilson's algorithm, whose bands are
+ * joined by one passage between each pair of neighboring bands,</li>
+ * <li>random mazes, linking each pillar to each neighbor with a chance,</li>
+ * <li>corridor mazes, one long corridor winding back and forth through
+ * every row, where the manhattan distance to the end says nothing of the
+ * length of the path, and</li>
+ * <li>one plank mazes, perfect mazes with one passage of the path from the
+ * beginning to the end taken out, which need exactly one plank to solve.</li>
+ * </ul>
+ *
+ * @author Shaun Howard
+ */
+public class MazeGenerator {
+
+    /* the number of rows in each band, which is even so no two bands share a byte. */
+    public static final int BAND_ROWS = 256;
+
+    /**
+     * The algorithms a perfect maze may be carved with.
+     */
+    public enum Algorithm {
+
+        /* a depth first search carving to a random unvisited neighbor. */
+        BACKTRACKER,
+
+        /* loop-erased random walks, which give every perfect maze the same chance but walk far longer. */
+        WILSON
+    }
+
+    /* the seed of every maze of this generator. */
+    final long seed;
+
+    /* the executor the bands are generated on or null for a pool of their own. */
+    final ExecutorService executor;
+
+    /**
+     * Constructs a generator from the given seed which generates
+     * bands on a pool with a thread for each processor.
+     *
+     * @param seed - the seed of every maze
+     */
+    public MazeGenerator(long seed) {
+        this.seed = seed;
+        this.executor = null;
+    }
+
+    /**
+     * Constructs a generator from the given seed which
+     * generates bands on the given executor.
+     *
+     * @param seed     - the seed of every maze
+     * @param executor - the executor to generate bands on
+     * @throws Exception - thrown when the executor is null
+     */
+    public MazeGenerator(long seed, ExecutorService executor) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(executor);
+        this.seed = seed;
+        this.executor = executor;
+    }
+
+    /**
+     * Generates a perfect maze, beginning at the first pillar
+     * and ending at the last pillar.
+     *
+     * @param length    - the number of pillars in a row
+     * @param width     - the number of rows
+     * @param algorithm - the algorithm to carve each band with
+     * @return the maze
+     * @throws Exception - thrown when the size is bad or a band fails
+     */
+    public PackedGrid perfect(int length, int width, final Algorithm algorithm) throws Exception {
+        final PackedGrid grid = grid(length, width);
+        forEachBand(grid, new Band() {
+            @Override
+            public void generate(int first, int last, Random random) {
+                if (algorithm == Algorithm.WILSON) {
+                    wilson(grid, first, last, random);
+                } else {
+                    backtrack(grid, first, last, random);
+                }
+            }
+        });
+
+        /* join each pair of neighboring bands with one passage */
+        for (int row = BAND_ROWS; row < width; row += BAND_ROWS) {
+            Random random = random(-row);
+            grid.carve(grid.length * (row - 1) + random.nextInt(length), Maze.ABOVE);
+        }
+        return grid;
+    }
+
+    /**
+     * Generates a random maze linking each pillar to each of its neighbors
+     * with the given chance, beginning at the first pillar and ending at
+     * the last pillar.
+     *
+     * @param length  - the number of pillars in a row
+     * @param width   - the number of rows
+     * @param density - the chance of each plank from 0 to 1
+     * @return the maze
+     * @throws Exception - thrown when the size or density is bad or a band fails
+     */
+    public PackedGrid random(int length, int width, final double density) throws Exception {
+        if (density < 0 || density > 1) {
+            throw new Exception("The density was not between 0 and 1.");
+        }
+        final PackedGrid grid = grid(length, width);
+        forEachBand(grid, new Band() {
+            @Override
+            public void generate(int first, int last, Random random) {
+                for (int i = first * grid.length; i < (last + 1) * grid.length; i++) {
+                    for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                        if (random.nextDouble() < density) {
+                            grid.link(i, direction);
+                        }
+                    }
+                }
+            }
+        });
+        return grid;
+    }
+
+    /**
+     * Generates a corridor maze, one corridor winding through every row,
+     * turning at the right end of even rows and the left end of odd rows.
+     * The maze begins at the first pillar and ends at the far end of the
+     * corridor, so the path passes every pillar.
+     *
+     * @param length - the number of pillars in a row
+     * @param width  - the number of rows
+     * @return the maze
+     * @throws Exception - thrown when the size is bad or a band fails
+     */
+    public PackedGrid corridor(int length, int width) throws Exception {
+        final PackedGrid grid = grid(length, width);
+        forEachBand(grid, new Band() {
+            @Override
+            public void generate(int first, int last, Random random) {
+                int length = grid.length;
+                for (int y = first; y <= last; y++) {
+                    for (int x = 0; x < length; x++) {
+                        int i = y * length + x;
+                        grid.link(i, Maze.LEFT);
+                        grid.link(i, Maze.RIGHT);
+
+                        /* each pillar links its own end of the turns to the rows above and below */
+                        if (x == turn(y, length)) {
+                            grid.link(i, Maze.ABOVE);
+                        }
+                        if (y > 0 && x == turn(y - 1, length)) {
+                            grid.link(i, Maze.BELOW);
+                        }
+                    }
+                }
+            }
+        });
+        int lastRow = grid.width - 1;
+        grid.setEnd(lastRow * length + (lastRow % 2 == 0 ? length - 1 : 0));
+        return grid;
+    }
+
+    /**
+     * Generates a perfect maze with one passage of the path from the
+     * beginning to the end taken out both ways, so the end can only be
+     * reached by placing exactly one plank.
+     *
+     * @param length    - the number of pillars in a row
+     * @param width     - the number of rows
+     * @param algorithm - the algorithm to carve each band with
+     * @return the maze
+     * @throws Exception - thrown when the size is bad, the maze has a
+     *                   single pillar or a band fails
+     */
+    public PackedGrid onePlank(int length, int width, Algorithm algorithm) throws Exception {
+        if ((long) length * width < 2) {
+            throw new Exception("The maze needs two pillars to need a plank.");
+        }
+        PackedGrid grid = perfect(length, width, algorithm);
+        int[] path = new PlankSearch(grid, 0, OpenList.Type.BUCKET_QUEUE).findPath();
+        int cut = path.length / 2;
+        int from = path[cut - 1];
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            if (grid.neighbor(from, direction) == path[cut]) {
+                grid.unlink(from, direction);
+                grid.unlink(path[cut], Maze.opposite(direction));
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Gets the column a corridor turns from the given row to the next.
+     *
+     * @param y      - the row
+     * @param length - the number of pillars in a row
+     * @return the column of the turn
+     */
+    static int turn(int y, int length) {
+        return y % 2 == 0 ? length - 1 : 0;
+    }
+
+    /**
+     * Makes an empty grid beginning at the first pillar
+     * and ending at the last pillar.
+     */
+    PackedGrid grid(int length, int width) throws Exception {
+        if (length < 1 || width < 1) {
+            throw new Exception("The maze must have at least one pillar.");
+        }
+        PackedGrid grid = new PackedGrid(length, width);
+        grid.setBegin(0);
+        grid.setEnd(grid.size - 1);
+        return grid;
+    }
+
+    /**
+     * Gets the random numbers of the given stream of this generator.
+     *
+     * @param stream - the number of the stream, such as the number of a band
+     * @return the random numbers of the stream
+     */
+    Random random(long stream) {
+        long z = seed + stream * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new Random(z ^ (z >>> 31));
+    }
+
+    /**
+     * Generates every band of the grid on the executor.
+     *
+     * @param grid - the grid to generate
+     * @param band - what to generate in each band
+     * @throws Exception - thrown when a band fails
+     */
+    void forEachBand(PackedGrid grid, final Band band) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int row = 0; row < grid.width; row += BAND_ROWS) {
+            final int first = row;
+            final int last = Math.min(row + BAND_ROWS, grid.width) - 1;
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    band.generate(first, last, random(first));
+                    return null;
+                }
+            });
+        }
+        ExecutorService pool = executor == null
+                ? Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()) : executor;
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            if (executor == null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Carves a perfect maze in the given rows with a depth first search
+     * that steps to a random unvisited neighbor and backs up when there is
+     * none, kept on a stack of its own rather than the call stack.
+     *
+     * @param grid   - the grid to carve
+     * @param first  - the first row of the band
+     * @param last   - the last row of the band
+     * @param random - the random numbers of the band
+     */
+    static void backtrack(PackedGrid grid, int first, int last, Random random) {
+        int base = first * grid.length;
+        int cells = (last - first + 1) * grid.length;
+        BitSet visited = new BitSet(cells);
+        int[] stack = new int[cells];
+        int[] options = new int[Maze.DIRECTIONS];
+        int top = 0;
+        stack[top++] = random.nextInt(cells);
+        visited.set(stack[0]);
+        while (top > 0) {
+            int v = stack[top - 1];
+            int count = 0;
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = MazeUtilities.neighbor(grid.length, cells, v, direction);
+                if (u >= 0 && !visited.get(u)) {
+                    options[count++] = direction;
+                }
+            }
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int direction = options[random.nextInt(count)];
+            int u = MazeUtilities.neighbor(grid.length, cells, v, direction);
+            grid.carve(base + v, direction);
+            visited.set(u);
+            stack[top++] = u;
+        }
+    }
+
+    /**
+     * Carves a perfect maze in the given rows with Wilson's algorithm. From
+     * each pillar not yet in the maze a random walk is taken until it meets
+     * the maze, remembering only the last step out of each pillar, which
+     * erases the loops of the walk, and the walk is then carved.
+     *
+     * @param grid   - the grid to carve
+     * @param first  - the first row of the band
+     * @param last   - the last row of the band
+     * @param random - the random numbers of the band
+     */
+    static void wilson(PackedGrid grid, int first, int last, Random random) {
+        int base = first * grid.length;
+        int cells = (last - first + 1) * grid.length;
+        BitSet inMaze = new BitSet(cells);
+        byte[] step = new byte[cells];
+        Arrays.fill(step, (byte) -1);
+        inMaze.set(random.nextInt(cells));
+        for (int start = 0; start < cells; start++) {
+            if (inMaze.get(start)) {
+                continue;
+            }
+
+            /* walk until the maze is met, remembering the last step out of each pillar */
+            int v = start;
+            while (!inMaze.get(v)) {
+                int direction;
+                int u;
+                do {
+                    direction = random.nextInt(Maze.DIRECTIONS);
+                    u = MazeUtilities.neighbor(grid.length, cells, v, direction);
+                } while (u < 0);
+                step[v] = (byte) direction;
+                v = u;
+            }
+
+            /* carve the walk without its loops */
+            for (v = start; !inMaze.get(v); v = MazeUtilities.neighbor(grid.length, cells, v, step[v])) {
+                inMaze.set(v);
+                grid.carve(base + v, step[v]);
+            }
+        }
+    }
+
+    /**
+     * What is generated in each band of a grid.
+     */
+    interface Band {
+
+        /**
+         * Generates the given rows of a grid, setting
+         * only the planks of the pillars in those rows.
+         *
+         * @param first  - the first row of the band
+         * @param last   - the last row of the band
+         * @param random - the random numbers of the band
+         */
+        void generate(int first, int last, Random random);
+    }
+}
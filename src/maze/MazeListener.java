@@ -0,0 +1,23 @@
+package maze;
+
+import java.util.List;
+
+/**
+ * Listens for changes to the planks of a maze, so anything built from
+ * the planks can repair or throw away just what the changes touched.
+ * Listeners are told after the changes are made, once for each call to
+ * linkPillars() or unlinkPillars() and once for each batch of changes,
+ * by which time the link version of the maze was bumped once per change.
+ *
+ * @author Shaun Howard
+ */
+public interface MazeListener {
+
+    /**
+     * Called after planks of the maze were added or removed.
+     *
+     * @param maze    - the maze that changed
+     * @param changes - the planks added or removed, in the order made
+     */
+    void linksChanged(Maze maze, List<LinkChange> changes);
+}
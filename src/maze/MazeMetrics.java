@@ -0,0 +1,319 @@
+package maze;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the metrics of the searches run by a service: the latency and the
+ * pillars expanded of each query in histograms, and the number of queries
+ * and of those that found no path. The metrics are kept apart for each
+ * class of maze size, the mazes of at most 2^k pillars for each k, so a
+ * slow query in a large maze does not hide among quick ones in small mazes.
+ * <p/>
+ * MazeSolver records each P* search into the registry set with
+ * MazeSolver.setMetrics(), and pStar() runs and records a search without one.
+ * Searches are recorded from any number of threads at once without locks.
+ * Taking a snapshot resets the metrics, so each snapshot covers the queries
+ * since the last one, and a snapshot may be exported as plain text in the
+ * Prometheus exposition format:
+ * <pre>
+ *   pillarmaze_solve_latency_nanos{max_pillars="1024",quantile="0.99"} 48127
+ * </pre>
+ *
+ * @author Shaun Howard
+ */
+public class MazeMetrics {
+
+    /* the quantiles of each histogram exported. */
+    static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    /* the metrics of each class of maze size, made when first recorded. */
+    final AtomicReferenceArray<SizeMetrics> sizes = new AtomicReferenceArray<>(Integer.SIZE);
+
+    /**
+     * Runs the plank-aware P* search through the given maze and records it,
+     * once, even when this is also the registry of MazeSolver.
+     *
+     * @param maze   - the maze to find the shortest path through
+     * @param size   - the expected size of the maze
+     * @param planks - the number of extra planks that may be placed
+     * @return the shortest path, the first plank placed, if any, and the
+     * stats of the search, where the path is null when there is none
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ, the maze has no beginning or the number of
+     *                   planks is negative
+     */
+    public SearchResult pStar(Maze maze, int size, int planks) throws Exception {
+        SearchResult result = MazeSolver.pStarWithStats(maze, size, planks);
+        if (MazeSolver.getMetrics() == this) {
+            return result;
+        }
+        record(maze.size(), result.getStats().getTotalWallNanos(), result.getStats().getExpanded(),
+                result.getPath() != null);
+        return result;
+    }
+
+    /**
+     * Records a query of a maze of the given size.
+     *
+     * @param size     - the number of pillars in the maze
+     * @param nanos    - the time the query took in nanoseconds
+     * @param expanded - the number of pillars the query expanded
+     * @param found    - whether the query found a path
+     */
+    public void record(int size, long nanos, long expanded, boolean found) {
+        SizeMetrics metrics = metrics(sizeClass(size));
+        metrics.latency.record(nanos);
+        metrics.expansions.record(expanded);
+        metrics.queries.incrementAndGet();
+        if (!found) {
+            metrics.failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Takes the metrics of every class of maze size queried
+     * since the last snapshot and resets them.
+     * <p/>
+     * Each count is taken and reset on its own, so a query recorded while
+     * the snapshot is taken may be counted in this snapshot by some counts
+     * and in the next by the others. The number of queries and the counts
+     * of the histograms may then differ by the queries recorded meanwhile,
+     * but no query is lost: a class is kept when any of its counts is not 0.
+     *
+     * @return the snapshot of each class of maze size queried, smallest first
+     */
+    public List<Snapshot> snapshotAndReset() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (int k = 0; k < sizes.length(); k++) {
+            SizeMetrics metrics = sizes.get(k);
+            if (metrics != null) {
+                Histogram.Snapshot latency = metrics.latency.snapshotAndReset();
+                Histogram.Snapshot expansions = metrics.expansions.snapshotAndReset();
+                Snapshot snapshot = new Snapshot(k == Integer.SIZE - 1 ? Integer.MAX_VALUE : 1 << k,
+                        metrics.queries.getAndSet(0), metrics.failures.getAndSet(0), latency, expansions);
+                if (snapshot.queries > 0 || snapshot.failures > 0
+                        || latency.getCount() > 0 || expansions.getCount() > 0) {
+                    snapshots.add(snapshot);
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Takes a snapshot of the metrics, resetting them, and writes it as text.
+     *
+     * @param writer - the writer of the text
+     * @throws Exception - thrown when the writer is null or the text cannot be written
+     */
+    public void exportAndReset(Writer writer) throws Exception {
+        export(snapshotAndReset(), writer);
+    }
+
+    /**
+     * Writes the given snapshots as text in the Prometheus exposition format.
+     *
+     * @param snapshots - the snapshots of each class of maze size
+     * @param writer    - the writer of the text
+     * @throws Exception - thrown when the snapshots or writer are null
+     *                   or the text cannot be written
+     */
+    public static void export(List<Snapshot> snapshots, Writer writer) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(snapshots, writer);
+        writer.write("# TYPE pillarmaze_solve_queries counter\n");
+        for (Snapshot s : snapshots) {
+            line(writer, "pillarmaze_solve_queries", s, null, s.queries);
+        }
+        writer.write("# TYPE pillarmaze_solve_failures counter\n");
+        for (Snapshot s : snapshots) {
+            line(writer, "pillarmaze_solve_failures", s, null, s.failures);
+        }
+        writer.write("# TYPE pillarmaze_solve_failure_rate gauge\n");
+        for (Snapshot s : snapshots) {
+            line(writer, "pillarmaze_solve_failure_rate", s, null, s.getFailureRate());
+        }
+        summary(writer, "pillarmaze_solve_latency_nanos", snapshots, true);
+        summary(writer, "pillarmaze_solve_expanded", snapshots, false);
+        writer.flush();
+    }
+
+    /**
+     * Writes the quantiles, count and sum of one histogram of each snapshot.
+     *
+     * @param writer    - the writer of the text
+     * @param name      - the name of the metric
+     * @param snapshots - the snapshots of each class of maze size
+     * @param latency   - whether to write the latency or the pillars expanded
+     * @throws IOException - thrown when the text cannot be written
+     */
+    static void summary(Writer writer, String name, List<Snapshot> snapshots, boolean latency)
+            throws IOException {
+        writer.write("# TYPE " + name + " summary\n");
+        for (Snapshot s : snapshots) {
+            Histogram.Snapshot histogram = latency ? s.latency : s.expansions;
+            for (double quantile : QUANTILES) {
+                line(writer, name, s, quantile, histogram.getValueAt(quantile));
+            }
+            line(writer, name + "_count", s, null, histogram.getCount());
+            line(writer, name + "_sum", s, null, histogram.sum);
+        }
+    }
+
+    /**
+     * Writes one sample of a metric of a class of maze size.
+     *
+     * @param writer   - the writer of the text
+     * @param name     - the name of the metric
+     * @param s        - the snapshot of the class of maze size
+     * @param quantile - the quantile of the sample or null
+     * @param value    - the value of the sample
+     * @throws IOException - thrown when the text cannot be written
+     */
+    static void line(Writer writer, String name, Snapshot s, Double quantile, Number value)
+            throws IOException {
+        StringBuilder out = new StringBuilder(name).append("{max_pillars=\"").append(s.maxPillars).append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ");
+        if (value instanceof Double) {
+            out.append(String.format(Locale.ROOT, "%.6f", value.doubleValue()));
+        } else {
+            out.append(value.longValue());
+        }
+        writer.write(out.append('\n').toString());
+    }
+
+    /**
+     * Gets the class of a maze size, which is the least k with size <= 2^k.
+     *
+     * @param size - the number of pillars in the maze
+     * @return the class of the size from 0 to 31
+     */
+    static int sizeClass(int size) {
+        return size <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    /**
+     * Gets the metrics of a class of maze size, making them when first needed.
+     *
+     * @param k - the class of maze size
+     * @return the metrics of the class
+     */
+    SizeMetrics metrics(int k) {
+        SizeMetrics metrics = sizes.get(k);
+        if (metrics == null) {
+            sizes.compareAndSet(k, null, new SizeMetrics());
+            metrics = sizes.get(k);
+        }
+        return metrics;
+    }
+
+    /**
+     * The metrics of the queries of one class of maze size.
+     */
+    static class SizeMetrics {
+
+        /* the latency of each query in nanoseconds. */
+        final Histogram latency = new Histogram();
+
+        /* the pillars expanded by each query. */
+        final Histogram expansions = new Histogram();
+
+        /* the number of queries and of those that found no path. */
+        final AtomicLong queries = new AtomicLong(), failures = new AtomicLong();
+    }
+
+    /**
+     * The metrics of the queries of one class of maze size taken at once.
+     */
+    public static class Snapshot {
+
+        /* the most pillars of a maze of the class. */
+        final int maxPillars;
+
+        /* the number of queries and of those that found no path. */
+        final long queries, failures;
+
+        /* the histograms of the latency and the pillars expanded. */
+        final Histogram.Snapshot latency, expansions;
+
+        /**
+         * Constructs a snapshot of the metrics of a class of maze size.
+         *
+         * @param maxPillars - the most pillars of a maze of the class
+         * @param queries    - the number of queries
+         * @param failures   - the number of queries that found no path
+         * @param latency    - the histogram of the latency
+         * @param expansions - the histogram of the pillars expanded
+         */
+        Snapshot(int maxPillars, long queries, long failures,
+                 Histogram.Snapshot latency, Histogram.Snapshot expansions) {
+            this.maxPillars = maxPillars;
+            this.queries = queries;
+            this.failures = failures;
+            this.latency = latency;
+            this.expansions = expansions;
+        }
+
+        /**
+         * Gets the most pillars of a maze of this class of size.
+         *
+         * @return the most pillars of a maze of the class
+         */
+        public int getMaxPillars() {
+            return maxPillars;
+        }
+
+        /**
+         * Gets the number of queries.
+         *
+         * @return the number of queries
+         */
+        public long getQueries() {
+            return queries;
+        }
+
+        /**
+         * Gets the number of queries that found no path.
+         *
+         * @return the number of failed queries
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Gets the share of the queries that found no path.
+         *
+         * @return the failure rate from 0 to 1
+         */
+        public double getFailureRate() {
+            return queries == 0 ? 0 : Math.min(1, (double) failures / queries);
+        }
+
+        /**
+         * Gets the histogram of the latency of the queries in nanoseconds.
+         *
+         * @return the histogram of the latency
+         */
+        public Histogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * Gets the histogram of the pillars expanded by each query.
+         *
+         * @return the histogram of the pillars expanded
+         */
+        public Histogram.Snapshot getExpansions() {
+            return expansions;
+        }
+    }
+}
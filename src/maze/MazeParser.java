@@ -0,0 +1,416 @@
+package maze;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Reads mazes from a line-oriented text format, one statement per line:
+ * <pre>
+ *   # a comment
+ *   maze 5 3          the length and width, which must come first
+ *   begin 0 0         the position of the beginning pillar
+ *   end 4 2           the position of the end pillar
+ *   link 0 0 1 0      a plank from the first position to the second
+ * </pre>
+ * Blank lines and lines starting with # are skipped, and tokens may be
+ * separated by any spaces or tabs.
+ * <p/>
+ * The text is streamed through a fixed buffer and parsed without making
+ * a string of any line, and the planks are linked in batches of a fixed
+ * size, so the memory used besides the maze does not grow with the number
+ * of planks. Listeners of the maze hear each batch once. The number of
+ * lines, planks and characters read and the time taken by the last parse
+ * are kept to report its throughput.
+ * <p/>
+ * A maze parser may be reused for many parses but must not be shared
+ * between threads.
+ *
+ * @author Shaun Howard
+ */
+public class MazeParser {
+
+    /* the number of planks linked in each batch by default. */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    /* the number of characters read from the text at once. */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /* the longest line that may be parsed. */
+    static final int MAX_LINE = 1024;
+
+    /* the number of planks linked in each batch. */
+    final int batchSize;
+
+    /* the characters read from the text but not yet parsed. */
+    final char[] buffer = new char[BUFFER_SIZE];
+
+    /* the line being parsed. */
+    final char[] line = new char[MAX_LINE];
+
+    /* the number of characters in the line being parsed. */
+    int lineLength;
+
+    /* the position of the next token in the line being parsed. */
+    int cursor;
+
+    /* the next character of the buffer to parse and the end of the buffer. */
+    int next, limit;
+
+    /* the number of lines, planks and characters read by the last parse. */
+    long lines, links, chars;
+
+    /* the number of batches of planks linked by the last parse. */
+    long batches;
+
+    /* the time the last parse took in nanoseconds. */
+    long nanos;
+
+    /**
+     * Constructs a maze parser linking planks in batches of the default size.
+     */
+    public MazeParser() {
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Constructs a maze parser linking planks in batches of the given size.
+     *
+     * @param batchSize - the number of planks linked in each batch
+     * @throws Exception - thrown when the batch size is not positive
+     */
+    public MazeParser(int batchSize) throws Exception {
+        if (batchSize < 1) {
+            throw new Exception("The batch size was not positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Parses a maze from the given text.
+     *
+     * @param reader - the text of the maze
+     * @return the maze
+     * @throws Exception - thrown when the text cannot be read or a line is
+     *                   not a statement of the format, naming the line
+     */
+    public Maze parse(Reader reader) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(reader);
+        long start = System.nanoTime();
+        lines = links = chars = batches = 0;
+        next = limit = 0;
+
+        Maze maze = null;
+        Maze.Batch batch = null;
+        int pending = 0;
+        while (readLine(reader)) {
+            lines++;
+            cursor = 0;
+            skipSpaces();
+            if (cursor == lineLength || line[cursor] == '#') {
+                continue;
+            }
+            if (keyword("maze")) {
+                if (maze != null) {
+                    throw error("The maze size was given twice.");
+                }
+                int length = number();
+                int width = number();
+                if ((long) length * width > Integer.MAX_VALUE) {
+                    throw error("The maze is too large.");
+                }
+                endOfLine();
+                maze = new Maze(length, width);
+                batch = maze.batch();
+            } else if (maze == null) {
+                throw error("The maze size must be given first.");
+            } else if (keyword("link")) {
+                long from = coordinate(maze);
+                long to = coordinate(maze);
+                endOfLine();
+                if (!neighbors(maze, maze.index(from), maze.index(to))) {
+                    throw error("The positions are not next to each other.");
+                }
+                batch.link(from, to);
+                links++;
+                if (++pending == batchSize) {
+                    batch.apply();
+                    batches++;
+                    pending = 0;
+                }
+            } else if (keyword("begin")) {
+                long begin = coordinate(maze);
+                endOfLine();
+                maze.setBegin(begin);
+            } else if (keyword("end")) {
+                long end = coordinate(maze);
+                endOfLine();
+                maze.setEnd(end);
+            } else {
+                throw error("Unknown statement.");
+            }
+        }
+        if (maze == null) {
+            throw new Exception("The text has no maze size.");
+        }
+        if (pending > 0) {
+            batch.apply();
+            batches++;
+        }
+        nanos = System.nanoTime() - start;
+        return maze;
+    }
+
+    /**
+     * Writes the given grid of pillars in the text format.
+     *
+     * @param grid   - the grid of pillars to write, such as a Maze
+     * @param writer - the writer of the text
+     * @throws Exception - thrown when the grid or writer is null or
+     *                   the text cannot be written
+     */
+    public static void write(PillarGrid grid, Writer writer) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(grid, writer);
+        int length = grid.length();
+        writer.write("maze " + length + " " + grid.width() + "\n");
+        if (grid.beginIndex() >= 0) {
+            writer.write("begin " + grid.beginIndex() % length + " " + grid.beginIndex() / length + "\n");
+        }
+        if (grid.endIndex() >= 0) {
+            writer.write("end " + grid.endIndex() % length + " " + grid.endIndex() / length + "\n");
+        }
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < grid.size(); i++) {
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if (grid.isLinked(i, direction)) {
+                    int n = grid.neighbor(i, direction);
+                    out.setLength(0);
+                    out.append("link ").append(i % length).append(' ').append(i / length)
+                            .append(' ').append(n % length).append(' ').append(n / length).append('\n');
+                    writer.append(out);
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Gets the number of lines read by the last parse.
+     *
+     * @return the number of lines read
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the number of planks read by the last parse.
+     *
+     * @return the number of planks read
+     */
+    public long getLinks() {
+        return links;
+    }
+
+    /**
+     * Gets the number of batches of planks linked by the last parse.
+     *
+     * @return the number of batches linked
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Gets the number of characters read by the last parse.
+     *
+     * @return the number of characters read
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * Gets the time the last parse took.
+     *
+     * @return the time the last parse took in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Gets the number of planks read each second by the last parse.
+     *
+     * @return the planks read each second
+     */
+    public double linksPerSecond() {
+        return nanos == 0 ? 0 : links * 1e9 / nanos;
+    }
+
+    /**
+     * Gets the number of characters read each second by the last parse.
+     *
+     * @return the characters read each second
+     */
+    public double charsPerSecond() {
+        return nanos == 0 ? 0 : chars * 1e9 / nanos;
+    }
+
+    /**
+     * Reads the next line of the text into the line buffer
+     * without its line break.
+     *
+     * @param reader - the text of the maze
+     * @return whether a line was read
+     * @throws Exception - thrown when the text cannot be read
+     *                   or a line is too long
+     */
+    boolean readLine(Reader reader) throws Exception {
+        lineLength = 0;
+        boolean read = false;
+        while (true) {
+            if (next == limit && !fill(reader)) {
+                return read;
+            }
+            read = true;
+            char c = buffer[next++];
+            if (c == '\n') {
+                return true;
+            }
+            if (c != '\r') {
+                if (lineLength == MAX_LINE) {
+                    lines++;
+                    throw error("The line is too long.");
+                }
+                line[lineLength++] = c;
+            }
+        }
+    }
+
+    /**
+     * Reads more of the text into the buffer.
+     *
+     * @param reader - the text of the maze
+     * @return whether any characters were read
+     * @throws IOException - thrown when the text cannot be read
+     */
+    boolean fill(Reader reader) throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        next = 0;
+        limit = read;
+        chars += read;
+        return true;
+    }
+
+    /**
+     * Skips the spaces and tabs at the cursor.
+     */
+    void skipSpaces() {
+        while (cursor < lineLength && (line[cursor] == ' ' || line[cursor] == '\t')) {
+            cursor++;
+        }
+    }
+
+    /**
+     * Reads the given keyword at the cursor when it is there.
+     *
+     * @param keyword - the keyword to read
+     * @return whether the keyword was read
+     */
+    boolean keyword(String keyword) {
+        int end = cursor + keyword.length();
+        if (end > lineLength || (end < lineLength && line[end] != ' ' && line[end] != '\t')) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (line[cursor + i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        cursor = end;
+        return true;
+    }
+
+    /**
+     * Reads a non-negative number at the cursor.
+     *
+     * @return the number read
+     * @throws Exception - thrown when there is no number at the cursor
+     */
+    int number() throws Exception {
+        skipSpaces();
+        int start = cursor;
+        long value = 0;
+        while (cursor < lineLength && line[cursor] >= '0' && line[cursor] <= '9') {
+            value = value * 10 + (line[cursor++] - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw error("The number is too large.");
+            }
+        }
+        if (cursor == start || (cursor < lineLength && line[cursor] != ' ' && line[cursor] != '\t')) {
+            throw error("Expected a number.");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a coordinate of the given maze at the cursor.
+     *
+     * @param maze - the maze the coordinate is in
+     * @return the packed coordinate read
+     * @throws Exception - thrown when there is no coordinate of the maze at the cursor
+     */
+    long coordinate(Maze maze) throws Exception {
+        int x = number();
+        int y = number();
+        if (maze.index(x, y) < 0) {
+            throw error("The position is outside the maze.");
+        }
+        return Maze.coordinate(x, y);
+    }
+
+    /**
+     * Determines whether the pillars at the given grid indices are neighbors.
+     *
+     * @param maze - the maze the pillars are in
+     * @param from - the grid index of one pillar
+     * @param to   - the grid index of the other pillar
+     * @return whether the pillars are neighbors
+     */
+    static boolean neighbors(Maze maze, int from, int to) {
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            if (maze.neighbor(from, direction) == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that nothing but spaces is left on the line.
+     *
+     * @throws Exception - thrown when more is left on the line
+     */
+    void endOfLine() throws Exception {
+        skipSpaces();
+        if (cursor != lineLength) {
+            throw error("Unexpected text at the end of the line.");
+        }
+    }
+
+    /**
+     * Makes an exception naming the line being parsed.
+     *
+     * @param message - what is wrong with the line
+     * @return the exception
+     */
+    Exception error(String message) {
+        return new Exception("Line " + lines + ": " + message + " "
+                + new String(Arrays.copyOf(line, Math.min(lineLength, 80))));
+    }
+}
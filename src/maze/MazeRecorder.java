@@ -0,0 +1,115 @@
+package maze;
+
+/**
+ * Records the events of the maze for Flight Recorder. Flight Recorder is
+ * only part of Java 11 and later, so the maze never touches its classes
+ * directly: this recorder does nothing, and the recorder of MazeEvents,
+ * which does, is loaded in its place only when jdk.jfr is present. The
+ * maze then builds and runs on Java 7 and 8, where MazeEvents may be left
+ * out of the build.
+ * <p/>
+ * Each event is begun before the work and handed back when the work is
+ * done, so a recorder that does nothing costs a call and a null.
+ *
+ * @author Shaun Howard
+ */
+class MazeRecorder {
+
+    /* the recorder of the events of the maze. */
+    static final MazeRecorder RECORDER = recorder();
+
+    /**
+     * Begins the construction of a maze.
+     *
+     * @return the event begun or null
+     */
+    Object beginConstruction() {
+        return null;
+    }
+
+    /**
+     * Ends the construction of a maze.
+     *
+     * @param event  - the event begun or null
+     * @param length - the length of the maze
+     * @param width  - the width of the maze
+     */
+    void constructed(Object event, int length, int width) {
+    }
+
+    /**
+     * Begins a batch of planks applied to a maze.
+     *
+     * @return the event begun or null
+     */
+    Object beginLinkBatch() {
+        return null;
+    }
+
+    /**
+     * Ends a batch of planks applied to a maze.
+     *
+     * @param event       - the event begun or null
+     * @param length      - the length of the maze
+     * @param width       - the width of the maze
+     * @param requested   - the planks the batch asked to link or unlink
+     * @param changed     - the planks that changed
+     * @param linkVersion - the link version of the maze after the batch
+     */
+    void linked(Object event, int length, int width, int requested, int changed, int linkVersion) {
+    }
+
+    /**
+     * Begins a search through a grid.
+     *
+     * @return the event begun or null
+     */
+    Object beginSolve() {
+        return null;
+    }
+
+    /**
+     * Ends a search through a grid.
+     *
+     * @param event  - the event begun or null
+     * @param search - the name of the search
+     * @param grid   - the grid searched
+     * @param begin  - the grid index of the beginning pillar
+     * @param end    - the grid index of the end pillar or -1
+     * @param planks - the number of extra planks that may be placed
+     * @param stats  - the stats of the search
+     * @param path   - the number of pillars along the path or -1
+     */
+    void solved(Object event, String search, PillarGrid grid, int begin, int end,
+                int planks, SearchStats stats, int path) {
+    }
+
+    /**
+     * Records a search answered by a path cache.
+     *
+     * @param maze    - the maze of the search
+     * @param begin   - the grid index of the beginning pillar
+     * @param end     - the grid index of the end pillar
+     * @param planks  - the number of extra planks or -1 for the original P*
+     * @param version - the version of the maze the path was found in
+     * @param path    - the number of pillars along the path or -1
+     */
+    void cacheHit(Maze maze, int begin, int end, int planks, int version, int path) {
+    }
+
+    /**
+     * Gets the recorder of MazeEvents when Flight Recorder is
+     * present, otherwise a recorder that does nothing.
+     *
+     * @return the recorder of the events of the maze
+     */
+    static MazeRecorder recorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (MazeRecorder) Class.forName("maze.MazeEvents$Recorder")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new MazeRecorder();
+        }
+    }
+}
@@ -4,11 +4,35 @@ import java.util.*;
 
 /**
  * Solves the pillar maze with a P* (modified A*) algorithm.
+ * <p/>
+ * When a metrics registry is set, every P* search run through this
+ * solver, with or without extra planks, is recorded into it.
  *
  * @author Shaun Howard
  */
 public class MazeSolver {
 
+    /* the registry the P* searches are recorded into or null. */
+    static volatile MazeMetrics metrics;
+
+    /**
+     * Sets the registry every P* search of this solver is recorded into.
+     *
+     * @param registry - the registry to record into or null to stop recording
+     */
+    public static void setMetrics(MazeMetrics registry) {
+        metrics = registry;
+    }
+
+    /**
+     * Gets the registry the P* searches of this solver are recorded into.
+     *
+     * @return the registry or null when searches are not recorded
+     */
+    public static MazeMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * P* algorithm which finds the most optimal path to from
      * the beginning pillar to the end pillar of the given maze.
@@ -29,72 +53,447 @@ public class MazeSolver {
         /* throw exception with maze size is not expected size. */
         MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
 
+        return pStar(new SearchContext(maze));
+    }
+
+    /**
+     * P* algorithm which finds the most optimal path from the beginning
+     * pillar to the end pillar of the given maze with the given type of
+     * open list. The bucket queue pops pillars in constant time since
+     * their costs are small integers.
+     *
+     * @param maze - the maze to find the shortest path through
+     * @param size - the expected size of the maze
+     * @param type - the type of open list to search with
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ
+     */
+    public static List<Pillar> pStar(Maze maze, int size, OpenList.Type type) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        return pStar(new SearchContext(maze, type));
+    }
+
+    /**
+     * Plank-aware P* algorithm which finds the most optimal path from the
+     * beginning pillar to the end pillar of the given maze placing at most
+     * the given number of extra planks. The search is over each pillar and
+     * the planks left there, so a pillar first reached without planks does
+     * not block a better arrival that still has planks.
+     *
+     * @param maze   - the maze to find the shortest path through
+     * @param size   - the expected size of the maze
+     * @param planks - the number of extra planks that may be placed
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ, the maze has no beginning or the number of
+     *                   planks is negative
+     */
+    public static List<Pillar> pStar(Maze maze, int size, int planks) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        return pStar(maze, size, planks, OpenList.Type.PRIORITY_QUEUE);
+    }
+
+    /**
+     * Plank-aware P* algorithm which places at most the given number of
+     * extra planks and searches with the given type of open list.
+     *
+     * @param maze   - the maze to find the shortest path through
+     * @param size   - the expected size of the maze
+     * @param planks - the number of extra planks that may be placed
+     * @param type   - the type of open list to search with
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ, the maze has no beginning or the number of
+     *                   planks is negative
+     */
+    public static List<Pillar> pStar(Maze maze, int size, int planks, OpenList.Type type) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        PlankSearch search = new PlankSearch(maze, planks, type);
+        return recorded(maze, search.solve(), search.getStats());
+    }
+
+    /**
+     * P* algorithm which finds the most optimal path from the beginning
+     * pillar to the end pillar of the given maze, giving the path with the
+     * counters and phase times of the search.
+     *
+     * @param maze - the maze to find the shortest path through
+     * @param size - the expected size of the maze
+     * @return the shortest path, the plank placed, if any, and the stats
+     * of the search, where the path is null when there is none
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ or the maze has no beginning
+     */
+    public static SearchResult pStarWithStats(Maze maze, int size) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        SearchContext context = new SearchContext(maze);
+        return withStats(maze, pStar(context), context.getStats());
+    }
+
+    /**
+     * Plank-aware P* algorithm which places at most the given number of
+     * extra planks, giving the path with the counters and phase times of
+     * the search.
+     *
+     * @param maze   - the maze to find the shortest path through
+     * @param size   - the expected size of the maze
+     * @param planks - the number of extra planks that may be placed
+     * @return the shortest path, the first plank placed, if any, and the
+     * stats of the search, where the path is null when there is none
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ, the maze has no beginning or the number of
+     *                   planks is negative
+     */
+    public static SearchResult pStarWithStats(Maze maze, int size, int planks) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        PlankSearch search = new PlankSearch(maze, planks);
+        return withStats(maze, recorded(maze, search.solve(), search.getStats()), search.getStats());
+    }
+
+    /**
+     * Records a search into the registry, when one is set.
+     *
+     * @param maze  - the maze searched
+     * @param path  - the shortest path found or null
+     * @param stats - the stats of the search
+     * @return the path
+     */
+    static List<Pillar> recorded(Maze maze, List<Pillar> path, SearchStats stats) {
+        MazeMetrics registry = metrics;
+        if (registry != null) {
+            registry.record(maze.size(), stats.getTotalWallNanos(), stats.expanded, path != null);
+        }
+        return path;
+    }
+
+    /**
+     * Makes the result of a search from its path and a copy of its stats,
+     * finding the first step of the path not linked by a plank of the maze.
+     *
+     * @param maze  - the maze searched
+     * @param path  - the shortest path found or null
+     * @param stats - the stats of the search
+     * @return the result of the search
+     */
+    static SearchResult withStats(Maze maze, List<Pillar> path, SearchStats stats) {
+        if (path != null) {
+            for (int i = 1; i < path.size(); i++) {
+                int from = maze.indexOf(path.get(i - 1));
+                int to = maze.indexOf(path.get(i));
+                for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                    if (maze.neighbor(from, direction) == to && !maze.isLinked(from, direction)) {
+                        return new SearchResult(path, path.get(i - 1), path.get(i), stats.copy());
+                    }
+                }
+            }
+        }
+        return new SearchResult(path, null, null, stats.copy());
+    }
+
+    /**
+     * Finds the shortest path from the beginning pillar to the end pillar of
+     * the given maze without extra planks by walking the distance field to
+     * the end. The field is built once for each end and kept with the maze
+     * until its planks change, so later searches to the same end take time
+     * proportional to the length of the path instead of the size of the maze.
+     *
+     * @param maze - the maze to find the shortest path through
+     * @param size - the expected size of the maze
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ or the maze has no beginning or end
+     */
+    public static List<Pillar> pathToEnd(Maze maze, int size) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        /* make sure maze has a beginning node */
+        MazeUtilities.throwExceptionWhenNull(maze.getBegin());
+
+        return distanceField(maze).path(maze.indexOf(maze.getBegin()));
+    }
+
+    /**
+     * Gets the distance field to the end pillar of the given maze, building
+     * it only when the maze has no field to its current end that matches
+     * its current planks.
+     *
+     * @param maze - the maze to get the distance field of
+     * @return the distance field to the end pillar of the maze
+     * @throws Exception - thrown when the maze has no end
+     */
+    public static DistanceField distanceField(Maze maze) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze.getEnd());
+        int end = maze.indexOf(maze.getEnd());
+        DistanceField field = maze.distanceField;
+        if (field == null || field.getEnd() != end || !field.isCurrent()) {
+            field = new DistanceField(maze, end);
+            maze.distanceField = field;
+        }
+        return field;
+    }
+
+    /**
+     * Bidirectional P* algorithm which finds the most optimal path through
+     * the given maze placing at most the given number of extra planks. The
+     * maze is searched forward from the beginning pillar and backward from
+     * the end pillar until the two searches meet, which expands far fewer
+     * pillars than one search on long paths through open mazes.
+     *
+     * @param maze   - the maze to find the shortest path through
+     * @param size   - the expected size of the maze
+     * @param planks - the number of extra planks that may be placed
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ, the maze has no beginning or the number of
+     *                   planks is negative
+     */
+    public static List<Pillar> bidirectionalPStar(Maze maze, int size, int planks) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        return new BidirectionalSearch(maze, planks).solve();
+    }
+
+    /**
+     * Finds the most optimal path from the beginning pillar to the end
+     * pillar of the given maze placing at most one extra plank, without a
+     * best-first search. One breadth first sweep over planks from the
+     * beginning and one sweep against planks from the end give the distance
+     * of every pillar from both. The best plank is then the unconnected pair
+     * of neighbors u and v with the least distBegin[u] + 1 + distEnd[v].
+     * The time taken is linear in the size of the maze no matter how well
+     * the manhattan heuristic fits the maze.
+     *
+     * @param maze - the maze to find the shortest path through
+     * @param size - the expected size of the maze
+     * @return the shortest path and the location of the plank placed, if any,
+     * where the path is null when there is none
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ or the maze has no beginning
+     */
+    public static SearchResult placePlank(Maze maze, int size) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        /* make sure maze has a beginning node */
+        MazeUtilities.throwExceptionWhenNull(maze.getBegin());
+
+        int end = endIndex(maze);
+        if (end < 0) {
+            return new SearchResult(null, null, null);
+        }
+        int pillars = maze.grid.length;
+        int[] distBegin = new int[pillars];
+        int[] towardBegin = new int[pillars];
+        int[] distEnd = new int[pillars];
+        int[] towardEnd = new int[pillars];
+        sweep(maze, maze.indexOf(maze.getBegin()), false, distBegin, towardBegin);
+        sweep(maze, end, true, distEnd, towardEnd);
+
+        /* the path without a plank, if there is one */
+        int best = distBegin[end] < 0 ? Integer.MAX_VALUE : distBegin[end];
+        int plankStart = -1, plankEnd = -1;
+
+        /* the best unconnected pair of neighbors to place the plank between */
+        for (int u = 0; u < pillars; u++) {
+            if (distBegin[u] < 0 || distBegin[u] + 1 >= best) {
+                continue;
+            }
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int v = maze.neighbor(u, direction);
+                if (v >= 0 && distEnd[v] >= 0 && !maze.isLinked(u, direction)
+                        && distBegin[u] + 1 + distEnd[v] < best) {
+                    best = distBegin[u] + 1 + distEnd[v];
+                    plankStart = u;
+                    plankEnd = v;
+                }
+            }
+        }
+        if (best == Integer.MAX_VALUE) {
+            return new SearchResult(null, null, null);
+        }
+        if (plankStart < 0) {
+            return new SearchResult(sweepPath(maze, end, towardBegin, -1, towardEnd), null, null);
+        }
+        return new SearchResult(sweepPath(maze, plankStart, towardBegin, plankEnd, towardEnd),
+                maze.getPillar(plankStart), maze.getPillar(plankEnd));
+    }
+
+    /**
+     * Sweeps breadth first over the planks of the maze from the given
+     * pillar, recording the distance of every pillar and the pillar it was
+     * reached from. A reverse sweep steps against planks, which gives the
+     * distance from every pillar to the given pillar.
+     *
+     * @param maze     - the maze to sweep
+     * @param start    - the grid index of the pillar to sweep from
+     * @param reverse  - whether to step against planks
+     * @param distance - the distance of each pillar, or -1 when unreached
+     * @param previous - the pillar each pillar was reached from or -1
+     */
+    static void sweep(Maze maze, int start, boolean reverse, int[] distance, int[] previous) {
+        Arrays.fill(distance, -1);
+        Arrays.fill(previous, -1);
+        int[] queue = new int[distance.length];
+        int head = 0, tail = 0;
+        distance[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = maze.neighbor(v, direction);
+                if (u >= 0 && distance[u] < 0
+                        && (reverse ? maze.isLinkedFrom(v, direction) : maze.isLinked(v, direction))) {
+                    distance[u] = distance[v] + 1;
+                    previous[u] = v;
+                    queue[tail++] = u;
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins the path from the beginning to the given pillar found by a
+     * forward sweep with the path from the other given pillar to the end
+     * found by a reverse sweep.
+     *
+     * @param maze        - the maze that was swept
+     * @param last        - the last pillar reached by the forward sweep
+     * @param towardBegin - the pillar each pillar was reached from going forward
+     * @param first       - the first pillar of the reverse sweep or -1
+     * @param towardEnd   - the pillar each pillar was reached from going backward
+     * @return the list of pillars from the beginning to the end of the maze
+     */
+    static List<Pillar> sweepPath(Maze maze, int last, int[] towardBegin, int first, int[] towardEnd) {
+        List<Pillar> path = new ArrayList<>();
+        for (int curr = last; curr >= 0; curr = towardBegin[curr]) {
+            path.add(maze.getPillar(curr));
+        }
+        Collections.reverse(path);
+        for (int curr = first; curr >= 0; curr = towardEnd[curr]) {
+            path.add(maze.getPillar(curr));
+        }
+        return path;
+    }
+
+    /**
+     * P* algorithm which finds the most optimal path through the maze
+     * of the given search context. All search state is kept in the
+     * context, so the maze is only read and may be searched by other
+     * threads with their own contexts at the same time. The context is
+     * reset before searching so it may be reused.
+     * <p/>
+     * A pillar reached again by a cheaper route before it is expanded is
+     * relaxed again. An indexed heap open list lowers the cost of the pillar
+     * in place, while other open lists hold a stale copy that is skipped.
+     *
+     * @param context - the search context holding the maze to search
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the maze does not have a beginning pillar
+     */
+    public static List<Pillar> pStar(final SearchContext context) throws Exception {
+
+        /* the maze to search. */
+        Maze maze = context.getMaze();
+
         /* the end of the maze. */
-        Pillar end = maze.getEnd();
+        int end = endIndex(maze);
 
-        /* initialize the set of expanded nodes 'E' */
-        Set<Pillar> E = new HashSet<>();
+        /* the counters and phase times of this search. */
+        SearchStats stats = context.getStats();
+        Object event = MazeRecorder.RECORDER.beginSolve();
+
+        /* clear the set of expanded nodes 'E' and the state of any previous search */
+        stats.start();
+        context.reset();
 
         /*
-         * initialize a priority queue of nodes 'N' sorted in non-decreasing order by cost, c,
+         * the open list of nodes 'N' popped in non-decreasing order by cost, c,
          * the sum of heuristic and number of times moved
         */
-        PriorityQueue<Pillar> N = new PriorityQueue<>();
+        OpenList N = context.getOpenList();
 
         /* initialize the P* search through the maze. */
-        initializeSearch(maze, E, N);
+        initializeSearch(context, N);
+        stats.end(SearchStats.Phase.INIT);
 
         /* while N is not empty */
         while (!N.isEmpty()) {
 
             /* extract lowest cost node 'v' from N */
-            Pillar v = N.poll();
+            int v = N.pop();
+
+            /* skip stale copies of v left by open lists that cannot lower costs */
+            if (context.isExpanded(v)) {
+                continue;
+            }
+            context.expand(v);
+            stats.expanded++;
 
             /* if v is the end node of maze */
-            if (v.equals(end)) {
+            if (v == end) {
+                stats.end(SearchStats.Phase.SEARCH);
 
                 /* return shortest path to v */
-                return shortestPath(v);
+                List<Pillar> path = context.shortestPath(v);
+                stats.end(SearchStats.Phase.PATH);
+                stats.closed = context.exploredCount();
+                stats.planksUsed = 1 - context.getPlanksLeft(v);
+                MazeRecorder.RECORDER.solved(event, "P*", maze, maze.beginIndex(), end, 1, stats, path.size());
+                return recorded(maze, path, stats);
             }
 
-            /* find the connected neighbor nodes of v */
-            List<Pillar> connectedNeighbors = v.getNeighborList(true);
-
-            /* for each connected node 'c' */
-            for (Pillar c : connectedNeighbors) {
-
-                /* if c does not exist in E */
-                if (!E.contains(c)) {
-
-                    /* c.p = v */
-                    c.setPrevious(v);
-
-                    /* c.b = v.b + 1 */
-                    c.setDistanceFromBegin(v.getDistanceFromBegin() + 1);
-
-                    /* c.e = distance to end from c */
-                    c.setHeuristic(distanceToEnd(c, end));
+            /* for each connected neighbor node 'c' of v */
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if (!maze.isLinked(v, direction)) {
+                    continue;
+                }
+                int c = maze.neighbor(v, direction);
 
-                    /* c.n = v.n */
-                    c.setPlanksLeft(v.getPlanksLeft());
+                /* if c does not exist in E, or this is a cheaper route to c */
+                if (context.improves(c, context.getDistanceFromBegin(v) + 1, context.getPlanksLeft(v))) {
 
-                    /* c.c = c.b + c.e */
-                    c.setCost(c.getDistanceFromBegin() + c.getHeuristic());
+                    /* c.p = v, c.b = v.b + 1, c.e = distance to end from c, c.n = v.n */
+                    visit(context, c, v, end, context.getPlanksLeft(v));
 
                     /* add c to E */
-                    E.add(c);
+                    context.explore(c);
 
                     /* add c to N */
-                    N.add(c);
+                    N.push(c, context.getCost(c));
+                    stats.pushed(N.size());
                 }
             }
 
             /* attempt to link unconnected neighbors of v if at least one plank at v. */
-            attemptLinks(v, end, E, N);
+            attemptLinks(context, v, end, N);
         }
+        stats.end(SearchStats.Phase.SEARCH);
+        stats.closed = context.exploredCount();
+        MazeRecorder.RECORDER.solved(event, "P*", maze, maze.beginIndex(), end, 1, stats, -1);
 
         /* return nil */
-        return null;
+        return recorded(maze, null, stats);
     }
 
     /**
@@ -102,27 +501,30 @@ public class MazeSolver {
      * and adding it to the set of explored pillars, then adding it the the priority queue
      * of new pillars and initializing it's values.
      *
-     * @param maze - the maze to search
-     * @param E    - the set of explored pillars
-     * @param N    - the priority queue of new pillars
+     * @param context - the search context holding the maze and set of explored pillars
+     * @param N       - the open list of new pillars
      * @throws Exception - thrown when the maze does not have a beginning pillar
      */
-    static void initializeSearch(Maze maze, Set<Pillar> E, PriorityQueue<Pillar> N) throws Exception {
+    static void initializeSearch(SearchContext context, OpenList N) throws Exception {
+
+        /* the maze to search. */
+        Maze maze = context.getMaze();
 
         /* make sure maze has a beginning node */
         MazeUtilities.throwExceptionWhenNull(maze.getBegin());
 
         /* The beginning pillar of the maze. */
-        Pillar pillar = maze.getBegin();
+        int begin = maze.indexOf(maze.getBegin());
 
         /* add the beginning node of maze to E */
-        E.add(pillar);
-
-        /* add the beginning node to N with c=0, n=1, e=distance to end from beginning */
-        pillar.setCost(0);
-        pillar.setPlanksLeft(1);
-        pillar.setHeuristic(distanceToEnd(pillar, maze.getEnd()));
-        N.add(pillar);
+        context.explore(begin);
+
+        /* add the beginning node to N with b=0, n=1, e=distance to end from beginning */
+        context.setDistanceFromBegin(begin, 0);
+        context.setPlanksLeft(begin, 1);
+        context.setHeuristic(begin, distanceToEnd(maze, begin, endIndex(maze)));
+        N.push(begin, context.getCost(begin));
+        context.getStats().pushed(N.size());
     }
 
     /**
@@ -130,49 +532,68 @@ public class MazeSolver {
      * that are its neighbors. These newly connected pillars are added to the set
      * of explored pillars, E, and the priority queue of new pillars, N.
      *
-     * @param v   - the currently visited pillar
-     * @param end - the end pillar of the maze
-     * @param E   - the set of explored pillars
-     * @param N   - the priority queue of new pillars
-     * @throws Exception - thrown when the end pillar is null
+     * @param context - the search context holding the maze and set of explored pillars
+     * @param v       - the index of the currently visited pillar
+     * @param end     - the index of the end pillar of the maze or -1
+     * @param N       - the open list of new pillars
      */
-    static void attemptLinks(Pillar v, Pillar end, Set<Pillar> E, PriorityQueue<Pillar> N) throws Exception {
+    static void attemptLinks(SearchContext context, int v, int end, OpenList N) {
         /* if v.n > 0 */
-        if (v.getPlanksLeft() > 0) {
-
-                /* find the unconnected neighbor nodes of v */
-            List<Pillar> unconnectedNeighbors = v.getNeighborList(false);
-
-                /* for each unconnected node u */
-            for (Pillar u : unconnectedNeighbors) {
-
-                    /* if u does not exist in E */
-                if (!E.contains(u)) {
-                        /* u.p = v */
-                    u.setPrevious(v);
-
-                        /* u.b = v.b + 1 */
-                    u.setDistanceFromBegin(v.getDistanceFromBegin() + 1);
+        if (context.getPlanksLeft(v) > 0) {
 
-                        /* u.e = distance to end from u */
-                    u.setHeuristic(distanceToEnd(u, end));
+            /* the maze to search. */
+            Maze maze = context.getMaze();
 
-                        /* u.n = v.n - 1 */
-                    u.setPlanksLeft(v.getPlanksLeft() - 1);
+                /* for each unconnected neighbor node u of v */
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = maze.neighbor(v, direction);
+                if (u < 0 || maze.isLinked(v, direction)) {
+                    continue;
+                }
 
-                        /* u.c = u.b + u.e */
-                    u.setCost(u.getDistanceFromBegin() + u.getHeuristic());
+                    /* if u does not exist in E, or this is a cheaper route to u */
+                if (context.improves(u, context.getDistanceFromBegin(v) + 1, context.getPlanksLeft(v) - 1)) {
+                        /* u.p = v, u.b = v.b + 1, u.e = distance to end from u, u.n = v.n - 1 */
+                    visit(context, u, v, end, context.getPlanksLeft(v) - 1);
 
                         /* add u to E */
-                    E.add(u);
+                    context.explore(u);
 
                         /* add u to N */
-                    N.add(u);
+                    N.push(u, context.getCost(u));
+                    context.getStats().pushed(N.size());
                 }
             }
         }
     }
 
+    /**
+     * Gets the grid index of the end pillar of the maze.
+     *
+     * @param maze - the maze to get the end of
+     * @return the grid index of the end pillar or -1 when there is no end
+     */
+    static int endIndex(Maze maze) {
+        return maze.endIndex();
+    }
+
+    /**
+     * Records a step from pillar v to pillar u in the search context.
+     * The cost of u, u.c, is then u.b + u.e.
+     *
+     * @param context - the search context to record the step in
+     * @param u       - the index of the pillar stepped to
+     * @param v       - the index of the pillar stepped from
+     * @param end     - the index of the end pillar of the maze or -1
+     * @param planks  - the planks left at u
+     */
+    static void visit(SearchContext context, int u, int v, int end, int planks) {
+        context.setPrevious(u, v);
+        context.setDistanceFromBegin(u, context.getDistanceFromBegin(v) + 1);
+        context.setHeuristic(u, distanceToEnd(context.getMaze(), u, end));
+        context.setPlanksLeft(u, planks);
+    }
+
     /**
      * Returns the shortest path to the given end pillar
      * from the beginning pillar of the maze.
@@ -235,6 +656,26 @@ public class MazeSolver {
         return manhattan;
     }
 
+    /**
+     * Determines and returns the manhattan distance from the pillar
+     * at the given grid index to the end pillar of the maze.
+     *
+     * @param maze    - the maze or grid holding both pillars
+     * @param current - the grid index of the pillar to get the distance
+     *                to the end from
+     * @param end     - the grid index of the end pillar or -1 when the
+     *                maze has no end
+     * @return the distance from the given pillar to the end of the maze,
+     * or 0 when there is no end to guide the search toward
+     */
+    public static int distanceToEnd(PillarGrid maze, int current, int end) {
+        if (end < 0) {
+            return 0;
+        }
+        int length = maze.length();
+        return Math.abs(end % length - current % length) + Math.abs(end / length - current / length);
+    }
+
     /**
      * Tests the MazeSolver class protected methods.
      */
@@ -245,14 +686,13 @@ public class MazeSolver {
          * that are its neighbors. These newly connected pillars are added to the set
          * of explored pillars, E, and the priority queue of new pillars, N.
          *
-         * @param v   - the currently visited pillar
-         * @param end - the end pillar of the maze
-         * @param E   - the set of explored pillars
-         * @param N   - the priority queue of new pillars
-         * @throws Exception - thrown when the end pillar is null
+         * @param context - the search context holding the maze and set of explored pillars
+         * @param v       - the index of the currently visited pillar
+         * @param end     - the index of the end pillar of the maze or -1
+         * @param N       - the open list of new pillars
          */
-        public void testAttemptLinks(Pillar v, Pillar end, Set<Pillar> E, PriorityQueue<Pillar> N) throws Exception {
-            attemptLinks(v, end, E, N);
+        public void testAttemptLinks(SearchContext context, int v, int end, OpenList N) {
+            attemptLinks(context, v, end, N);
         }
 
         /**
@@ -260,13 +700,12 @@ public class MazeSolver {
          * and adding it to the set of explored pillars, then adding it the the priority queue
          * of new pillars and initializing it's values.
          *
-         * @param maze - the maze to search
-         * @param E    - the set of explored pillars
-         * @param N    - the priority queue of new pillars
+         * @param context - the search context holding the maze and set of explored pillars
+         * @param N       - the open list of new pillars
          * @throws Exception - thrown when the maze does not have a beginning pillar
          */
-        public void testInitializeSearch(Maze maze, Set<Pillar> E, PriorityQueue<Pillar> N) throws Exception {
-            initializeSearch(maze, E, N);
+        public void testInitializeSearch(SearchContext context, OpenList N) throws Exception {
+            initializeSearch(context, N);
         }
     }
-}
\ No newline at end of file
+}
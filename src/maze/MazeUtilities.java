@@ -53,4 +53,50 @@ public class MazeUtilities {
             throw new Exception("Maze size was unequal to expected size.");
         }
     }
+
+    /**
+     * Checks that the grid indices of the pillars to begin and end a
+     * search at are in a grid of the given size, where an end of -1
+     * means the search has no end.
+     *
+     * @param size  - the number of pillars in the grid
+     * @param begin - the grid index of the pillar to begin at
+     * @param end   - the grid index of the pillar to end at or -1
+     * @throws Exception - thrown when the beginning is outside the grid
+     * or the end is outside the grid and not -1
+     */
+    public static void throwExceptionWhenOutside(int size, int begin, int end) throws Exception {
+        if (begin < 0 || begin >= size) {
+            throw new Exception("The beginning pillar is outside the maze.");
+        }
+        if (end < -1 || end >= size) {
+            throw new Exception("The end pillar is outside the maze.");
+        }
+    }
+
+    /**
+     * Gets the grid index of the neighbor of the pillar at the given grid
+     * index in the given direction within a grid of the given length and
+     * size, otherwise returns -1 when the neighbor would be outside the grid.
+     *
+     * @param length    - the number of pillars in a row of the grid
+     * @param size      - the number of pillars in the grid
+     * @param index     - the grid index of the pillar
+     * @param direction - one of Maze.ABOVE, Maze.BELOW, Maze.LEFT or Maze.RIGHT
+     * @return the grid index of the neighbor or -1
+     */
+    public static int neighbor(int length, int size, int index, int direction) {
+        switch (direction) {
+            case Maze.ABOVE:
+                return index < size - length ? index + length : -1;
+            case Maze.BELOW:
+                return index >= length ? index - length : -1;
+            case Maze.LEFT:
+                return (index + 1) % length != 0 ? index + 1 : -1;
+            case Maze.RIGHT:
+                return index % length != 0 ? index - 1 : -1;
+            default:
+                return -1;
+        }
+    }
 }
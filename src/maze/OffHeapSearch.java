@@ -0,0 +1,445 @@
+package maze;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Searches a grid over the product of pillars and the planks left at
+ * each pillar, as a PlankSearch does, while keeping the state of the
+ * search in direct memory outside the heap. Together with a grid made
+ * by PackedGrid.offHeap() or a MappedMaze, a grid of hundreds of millions
+ * of pillars may be searched in a heap of a fixed size, without a single
+ * pillar object.
+ * <p/>
+ * The state of the search is kept in parallel off-heap arrays indexed by
+ * state, which is pillar * (planks + 1) + planks left:
+ * <ul>
+ * <li>the distance from the beginning plus one, or 0 when not reached, in four bytes.</li>
+ * <li>a byte of flags: the direction the state was reached in, whether a plank
+ * was placed to reach it and whether it has been expanded.</li>
+ * </ul>
+ * The previous state is not kept, since it is the neighbor in the opposite
+ * direction with the same planks left, or one more when a plank was placed.
+ * So each state takes five bytes rather than the nine and more of a
+ * PlankSearch.
+ * <p/>
+ * Because each step costs one and the manhattan heuristic is consistent,
+ * the cost of a state pushed is never more than two above the least cost
+ * in the open list. The open list is then three off-heap stacks, one for
+ * each cost modulo three, which grow only as far as the open list does.
+ * <p/>
+ * The states reached by a search are kept on an off-heap stack, so the
+ * next search clears only them, until there are more than a sixteenth of
+ * all states, when the next search clears every state at once instead.
+ * <p/>
+ * When even the state of the search is larger than the memory of the
+ * machine, as for a TiledMaze, the distances and flags may be mapped from
+ * a file instead, which the operating system pages to and from disk.
+ * <p/>
+ * An off-heap search may be reused for many searches of the same grid but
+ * must not be shared between threads.
+ *
+ * @author Shaun Howard
+ */
+public class OffHeapSearch {
+
+    /* the flag bits of the direction a state was reached in. */
+    static final int DIRECTION = 0x3;
+
+    /* the flag of a state reached by placing a plank. */
+    static final int PLANK = 0x4;
+
+    /* the flag of an expanded state. */
+    static final int EXPANDED = 0x8;
+
+    /* the number of bits of the offset within a chunk of the stacks, 4 MB chunks. */
+    static final int STACK_CHUNK_BITS = 22;
+
+    /* the grid to search. */
+    final PillarGrid grid;
+
+    /* the number of planks that may be placed along a path. */
+    final int planks;
+
+    /* the number of plank counts each pillar may be reached with. */
+    final int stride;
+
+    /* the number of states. */
+    final long states;
+
+    /* b + 1, distance from the beginning of each state plus one, or 0 */
+    final DirectArray distanceFromBegin;
+
+    /* the direction, plank and expanded flags of each state */
+    final DirectArray flags;
+
+    /* N, the open list of new states, a stack for each cost modulo three */
+    final DirectArray[] open = new DirectArray[3];
+
+    /* the least cost that may have states in the open list */
+    int min;
+
+    /* the number of states in the open list */
+    int openSize;
+
+    /* the states reached by the last search, so only they need clearing */
+    final DirectArray touched = DirectArray.stack(STACK_CHUNK_BITS);
+
+    /* the most states kept in touched before every state is cleared instead */
+    final long touchedLimit;
+
+    /* the number of states reached by the last search */
+    long touchedCount = 0;
+
+    /* the number of states expanded by the last search */
+    long expandedCount = 0;
+
+    /* the state the end of the grid was reached in or -1 */
+    long goal = -1;
+
+    /* the counters and phase times of the last search */
+    final SearchStats stats = new SearchStats();
+
+    /**
+     * Constructs an off-heap search of the given grid with the given
+     * budget of planks.
+     *
+     * @param grid   - the grid to search
+     * @param planks - the number of planks that may be placed
+     * @throws Exception - thrown when the grid is null, the number
+     *                   of planks is negative or there are more than
+     *                   2^31 - 1 states
+     */
+    public OffHeapSearch(PillarGrid grid, int planks) throws Exception {
+        this(grid, planks, null);
+    }
+
+    /**
+     * Constructs an off-heap search of the given grid with the given
+     * budget of planks whose distances and flags are mapped from the
+     * given file, which is made or overwritten.
+     *
+     * @param grid   - the grid to search
+     * @param planks - the number of planks that may be placed
+     * @param file   - the file of the state of the search or null to
+     *               keep it in direct memory
+     * @throws Exception - thrown when the grid is null, the number
+     *                   of planks is negative, there are more than
+     *                   2^31 - 1 states or the file cannot be mapped
+     */
+    public OffHeapSearch(PillarGrid grid, int planks, File file) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(grid);
+        if (planks < 0) {
+            throw new Exception("The number of planks was negative.");
+        }
+        this.grid = grid;
+        this.planks = planks;
+        this.stride = planks + 1;
+        this.states = (long) grid.size() * stride;
+        if (states > Integer.MAX_VALUE) {
+            throw new Exception("The grid has too many states to search.");
+        }
+        if (file == null) {
+            this.distanceFromBegin = DirectArray.ints(states);
+            this.flags = DirectArray.bytes(states);
+        } else {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+
+                /* a new length of zeros, and the mappings stay valid after the channel is closed */
+                raf.setLength(0);
+                raf.setLength(states * 5);
+                this.distanceFromBegin = DirectArray.mapped(channel, 0, states, 4);
+                this.flags = DirectArray.mapped(channel, states * 4, states, 1);
+            }
+        }
+        for (int i = 0; i < open.length; i++) {
+            open[i] = DirectArray.stack(STACK_CHUNK_BITS);
+        }
+        this.touchedLimit = Math.max(1024, states >> 4);
+    }
+
+    /**
+     * Finds the most optimal path from the beginning pillar to the end
+     * pillar of the grid placing at most the budget of planks.
+     *
+     * @return the grid indices of the pillars along the shortest path or null
+     * @throws Exception - thrown when the grid does not have a beginning pillar
+     */
+    public int[] findPath() throws Exception {
+
+        /* make sure grid has a beginning node */
+        if (grid.beginIndex() < 0) {
+            throw new Exception("The maze has no beginning pillar.");
+        }
+
+        return findPath(grid.beginIndex(), grid.endIndex());
+    }
+
+    /**
+     * Finds the most optimal path between the pillars at the given grid
+     * indices placing at most the budget of planks.
+     *
+     * @param beginIndex - the grid index of the pillar to begin at
+     * @param end        - the grid index of the pillar to end at or -1
+     * @return the grid indices of the pillars along the shortest path or null
+     * @throws Exception - thrown when either pillar is outside the grid
+     */
+    public int[] findPath(int beginIndex, int end) throws Exception {
+        MazeUtilities.throwExceptionWhenOutside(grid.size(), beginIndex, end);
+
+        Object event = MazeRecorder.RECORDER.beginSolve();
+
+        /* clear the state of any previous search */
+        stats.start();
+        reset();
+
+        int begin = state(beginIndex, planks);
+        reach(begin, 0, 0);
+        min = cost(begin, 0, end);
+        push(begin, min);
+        stats.end(SearchStats.Phase.INIT);
+
+        while (openSize > 0) {
+
+            /* extract lowest cost state 'v' from N */
+            int v = pop();
+            int pillar = v / stride;
+            int left = v % stride;
+            int flag = flags.getByte(v);
+            int b = distanceFromBegin.getInt(v) - 1;
+
+            /* skip states already expanded or dominated since they were added to N */
+            if ((flag & EXPANDED) != 0 || isDominated(pillar, left + 1, b)) {
+                continue;
+            }
+            flags.putByte(v, (byte) (flag | EXPANDED));
+            expandedCount++;
+
+            if (pillar == end) {
+                goal = v;
+                stats.end(SearchStats.Phase.SEARCH);
+                int[] path = shortestPath(v);
+                stats.end(SearchStats.Phase.PATH);
+                count();
+                MazeRecorder.RECORDER.solved(event, "OffHeapSearch", grid, beginIndex, end, planks, stats, path.length);
+                return path;
+            }
+
+            b++;
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = grid.neighbor(pillar, direction);
+                if (u < 0) {
+                    continue;
+                }
+
+                /* a connected neighbor keeps the planks, an unconnected one needs a plank */
+                boolean linked = grid.isLinked(pillar, direction);
+                int n = linked ? left : left - 1;
+                if (n < 0 || isDominated(u, n, b)) {
+                    continue;
+                }
+                int s = state(u, n);
+                reach(s, b, linked ? direction : direction | PLANK);
+                push(s, cost(s, b, end));
+            }
+        }
+        stats.end(SearchStats.Phase.SEARCH);
+        count();
+        MazeRecorder.RECORDER.solved(event, "OffHeapSearch", grid, beginIndex, end, planks, stats, -1);
+
+        /* return nil */
+        return null;
+    }
+
+    /**
+     * Gets the number of planks placed along the last path found.
+     *
+     * @return the number of planks placed or -1 when no path was found
+     */
+    public int planksUsed() {
+        return goal < 0 ? -1 : planks - (int) (goal % stride);
+    }
+
+    /**
+     * Gets the number of states expanded by the last search.
+     *
+     * @return the number of states expanded
+     */
+    public long expandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Gets the counters and phase times of the last search, which the
+     * next search changes, so they are copied to be kept.
+     *
+     * @return the stats of the last search
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the number of bytes of direct memory this search holds,
+     * which grows with the most states ever in the open list.
+     *
+     * @return the number of bytes held outside the heap
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (DirectArray array : new DirectArray[]{distanceFromBegin, flags, touched, open[0], open[1], open[2]}) {
+            for (ByteBuffer chunk : array.chunks) {
+                bytes += chunk.capacity();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Records the counters of the search just ended in its stats.
+     */
+    void count() {
+        stats.expanded = expandedCount;
+        stats.closed = touchedCount;
+        stats.planksUsed = planksUsed();
+    }
+
+    /**
+     * Clears the states reached by the last search, or every state
+     * when too many were reached to have been kept.
+     */
+    void reset() {
+        if (touchedCount > touched.size) {
+            distanceFromBegin.clear();
+            flags.clear();
+        } else {
+            while (touched.size > 0) {
+                int s = touched.pop();
+                distanceFromBegin.putInt(s, 0);
+                flags.putByte(s, (byte) 0);
+            }
+        }
+        touched.size = 0;
+        for (DirectArray bucket : open) {
+            bucket.size = 0;
+        }
+        openSize = 0;
+        touchedCount = 0;
+        expandedCount = 0;
+        goal = -1;
+    }
+
+    /**
+     * Records reaching a state at the given distance from the beginning.
+     *
+     * @param state - the state reached
+     * @param b     - the distance from the beginning of the state
+     * @param flag  - the direction it was reached in and whether a plank was placed
+     */
+    void reach(int state, int b, int flag) {
+        if (distanceFromBegin.getInt(state) == 0) {
+            if (touched.size < touchedLimit) {
+                touched.push(state);
+            }
+            touchedCount++;
+        }
+        distanceFromBegin.putInt(state, b + 1);
+        flags.putByte(state, (byte) flag);
+    }
+
+    /**
+     * Determines whether reaching the given pillar with the given planks
+     * left, or fewer, at the given distance from the beginning is no better
+     * than an arrival already found with at least as many planks left.
+     *
+     * @param pillar - the grid index of the pillar
+     * @param left   - the least planks left of a dominating arrival
+     * @param b      - the distance from the beginning of the arrival
+     * @return whether the arrival is dominated
+     */
+    boolean isDominated(int pillar, int left, int b) {
+        int base = pillar * stride;
+        for (int n = left; n < stride; n++) {
+            int reached = distanceFromBegin.getInt(base + n);
+            if (reached != 0 && ((flags.getByte(base + n) & EXPANDED) != 0 || reached - 1 <= b)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the state of the given pillar with the given planks left.
+     *
+     * @param pillar - the grid index of the pillar
+     * @param left   - the planks left at the pillar
+     * @return the index of the state
+     */
+    int state(int pillar, int left) {
+        return pillar * stride + left;
+    }
+
+    /**
+     * Gets the cost of a state, which is the sum of its distance
+     * from the beginning and its heuristic distance to the end.
+     *
+     * @param state - the index of the state
+     * @param b     - the distance from the beginning of the state
+     * @param end   - the grid index of the end pillar or -1
+     * @return the cost of the state
+     */
+    int cost(int state, int b, int end) {
+        return b + MazeSolver.distanceToEnd(grid, state / stride, end);
+    }
+
+    /**
+     * Adds a state to the open list, which is at most two above the least cost.
+     *
+     * @param state - the index of the state
+     * @param cost  - the cost of the state
+     */
+    void push(int state, int cost) {
+        open[cost % 3].push(state);
+        openSize++;
+        stats.pushed(openSize);
+    }
+
+    /**
+     * Removes and returns a state of least cost from the open list, which
+     * must not be empty. States of equal cost are popped last in, first out.
+     *
+     * @return the index of the state
+     */
+    int pop() {
+        while (open[min % 3].size == 0) {
+            min++;
+        }
+        openSize--;
+        return open[min % 3].pop();
+    }
+
+    /**
+     * Returns the grid indices of the pillars along the path to the given
+     * state by following the direction each state was reached in back to
+     * the beginning, which is the only state at distance 0.
+     *
+     * @param state - the index of the state to get the path to
+     * @return the grid indices of the pillars from the beginning of the grid
+     */
+    int[] shortestPath(int state) {
+        int length = distanceFromBegin.getInt(state);
+        int[] shortestPath = new int[length];
+        int curr = state;
+        for (int i = length - 1; i > 0; i--) {
+            shortestPath[i] = curr / stride;
+            int flag = flags.getByte(curr);
+            int pillar = grid.neighbor(curr / stride, Maze.opposite(flag & DIRECTION));
+            curr = state(pillar, curr % stride + ((flag & PLANK) != 0 ? 1 : 0));
+        }
+        shortestPath[0] = curr / stride;
+        return shortestPath;
+    }
+}
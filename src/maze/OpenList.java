@@ -0,0 +1,86 @@
+package maze;
+
+/**
+ * The open list of a search, which holds the new pillars, or states,
+ * that have been reached but not yet expanded, ordered by their
+ * integer cost. The same id may be pushed again when a cheaper route
+ * to it is found. Open lists that cannot lower the cost of an id keep
+ * both copies, and the search skips the copies of an id it has already
+ * expanded.
+ *
+ * @author Shaun Howard
+ */
+public interface OpenList {
+
+    /**
+     * Adds an id to this open list with the given cost.
+     *
+     * @param id       - the id of the pillar or state
+     * @param priority - the non-negative cost of the id
+     */
+    void push(int id, int priority);
+
+    /**
+     * Removes and returns an id of least cost from this open list.
+     *
+     * @return an id of least cost
+     */
+    int pop();
+
+    /**
+     * Determines whether this open list is empty.
+     *
+     * @return whether this open list is empty
+     */
+    boolean isEmpty();
+
+    /**
+     * Gets the number of ids in this open list.
+     *
+     * @return the number of ids in this open list
+     */
+    int size();
+
+    /**
+     * Removes all ids from this open list.
+     */
+    void clear();
+
+    /**
+     * The kinds of open lists a search may use.
+     */
+    enum Type {
+
+        /* a binary heap of boxed keys from java.util. */
+        PRIORITY_QUEUE {
+            @Override
+            public OpenList create(int capacity) {
+                return new PriorityOpenList();
+            }
+        },
+
+        /* Dial's bucket queue indexed by integer cost. */
+        BUCKET_QUEUE {
+            @Override
+            public OpenList create(int capacity) {
+                return new BucketQueue();
+            }
+        },
+
+        /* a binary heap indexed by id that lowers costs in place. */
+        INDEXED_HEAP {
+            @Override
+            public OpenList create(int capacity) {
+                return new IndexedHeap(capacity);
+            }
+        };
+
+        /**
+         * Makes a new open list of this type.
+         *
+         * @param capacity - the number of ids the search may push
+         * @return a new open list of this type
+         */
+        public abstract OpenList create(int capacity);
+    }
+}
@@ -0,0 +1,220 @@
+package maze;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A grid of pillars kept as a packed bitmap of planks, four bits for each
+ * pillar, one for each direction, laid out as in the maze files read by
+ * MappedMaze. A packed grid takes half a byte for each pillar, so grids of
+ * far more pillars than a Maze can hold may be built and searched.
+ * A grid made by offHeap() keeps its bitmap in direct memory outside the
+ * heap, so a grid of hundreds of millions of pillars needs no more heap
+ * than a small one and may be searched by an OffHeapSearch.
+ * <p/>
+ * The planks of different pillars may be set by different threads at once
+ * only when no two threads set pillars sharing a byte, which are the pillars
+ * at grid indices 2k and 2k + 1.
+ *
+ * @author Shaun Howard
+ */
+public class PackedGrid implements PillarGrid {
+
+    /* the bitmap of planks, two pillars to a byte. */
+    final ByteBuffer planks;
+
+    /* the length, width and size of the grid. */
+    final int length, width, size;
+
+    /* the grid indices of the beginning and end pillars or -1. */
+    int begin = -1, end = -1;
+
+    /**
+     * Constructs a grid of the given length and width without planks.
+     *
+     * @param length - the number of pillars in a row
+     * @param width  - the number of rows
+     * @throws Exception - thrown when the grid would have too many pillars
+     */
+    public PackedGrid(int length, int width) throws Exception {
+        long pillars = (long) length * width;
+        if (length < 0 || width < 0 || pillars > Integer.MAX_VALUE) {
+            throw new Exception("The grid has a bad size.");
+        }
+        this.length = length;
+        this.width = width;
+        this.size = (int) pillars;
+        this.planks = ByteBuffer.allocate((int) MappedMaze.bitmapBytes(size));
+    }
+
+    /**
+     * Constructs a grid of the given length and width without planks
+     * whose bitmap is the given buffer.
+     *
+     * @param length - the number of pillars in a row
+     * @param width  - the number of rows
+     * @param planks - the zeroed bitmap of planks of the grid
+     */
+    PackedGrid(int length, int width, ByteBuffer planks) {
+        this.length = length;
+        this.width = width;
+        this.size = length * width;
+        this.planks = planks;
+    }
+
+    /**
+     * Makes a grid of the given length and width without planks whose
+     * bitmap is kept in direct memory outside the heap. The memory is
+     * counted against the limit on direct memory of the JVM, which is set
+     * by -XX:MaxDirectMemorySize, and is freed when the grid is collected.
+     *
+     * @param length - the number of pillars in a row
+     * @param width  - the number of rows
+     * @return the grid
+     * @throws Exception - thrown when the grid would have too many pillars
+     */
+    public static PackedGrid offHeap(int length, int width) throws Exception {
+        long pillars = (long) length * width;
+        if (length < 0 || width < 0 || pillars > Integer.MAX_VALUE) {
+            throw new Exception("The grid has a bad size.");
+        }
+        return new PackedGrid(length, width,
+                ByteBuffer.allocateDirect((int) MappedMaze.bitmapBytes((int) pillars)));
+    }
+
+    /**
+     * Determines whether the bitmap of this grid is kept outside the heap.
+     *
+     * @return whether the bitmap is in direct memory
+     */
+    public boolean isOffHeap() {
+        return planks.isDirect();
+    }
+
+    /**
+     * Links a pillar to its neighbor in the given direction with a plank.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     */
+    public void link(int index, int direction) {
+        if (neighbor(index, direction) >= 0) {
+            int at = index >> 1;
+            planks.put(at, (byte) (planks.get(at) | 1 << (direction + ((index & 1) << 2))));
+        }
+    }
+
+    /**
+     * Removes the plank from a pillar to its neighbor in the given direction.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     */
+    public void unlink(int index, int direction) {
+        int at = index >> 1;
+        planks.put(at, (byte) (planks.get(at) & ~(1 << (direction + ((index & 1) << 2)))));
+    }
+
+    /**
+     * Links a pillar and its neighbor in the given direction
+     * to each other with a plank each way.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     */
+    public void carve(int index, int direction) {
+        int neighbor = neighbor(index, direction);
+        if (neighbor >= 0) {
+            link(index, direction);
+            link(neighbor, Maze.opposite(direction));
+        }
+    }
+
+    /**
+     * Sets the beginning pillar of the grid.
+     *
+     * @param index - the grid index of the beginning pillar or -1
+     */
+    public void setBegin(int index) {
+        this.begin = index;
+    }
+
+    /**
+     * Sets the end pillar of the grid.
+     *
+     * @param index - the grid index of the end pillar or -1
+     */
+    public void setEnd(int index) {
+        this.end = index;
+    }
+
+    /**
+     * Makes a maze of pillars with the planks, beginning and end of this grid.
+     *
+     * @return the maze
+     * @throws Exception - thrown when the maze cannot be linked
+     */
+    public Maze toMaze() throws Exception {
+        Maze maze = new Maze(length, width);
+        for (int i = 0; i < size; i++) {
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                if (isLinked(i, direction)) {
+                    maze.linkPillars(i, neighbor(i, direction));
+                }
+            }
+        }
+        maze.setBegin(begin);
+        maze.setEnd(end);
+        return maze;
+    }
+
+    /**
+     * Gets the four bits of planks leading from a pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @return the bits of the directions a plank leads in
+     */
+    int bits(int index) {
+        return planks.get(index >> 1) >> ((index & 1) << 2) & 0xF;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int neighbor(int index, int direction) {
+        return MazeUtilities.neighbor(length, size, index, direction);
+    }
+
+    @Override
+    public boolean isLinked(int index, int direction) {
+        return (bits(index) >> direction & 1) != 0;
+    }
+
+    @Override
+    public boolean isLinkedFrom(int index, int direction) {
+        int neighbor = neighbor(index, direction);
+        return neighbor >= 0 && (bits(neighbor) >> Maze.opposite(direction) & 1) != 0;
+    }
+
+    @Override
+    public int beginIndex() {
+        return begin;
+    }
+
+    @Override
+    public int endIndex() {
+        return end;
+    }
+}
@@ -0,0 +1,243 @@
+package maze;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of shortest paths found by the maze solver, kept in front of
+ * MazeSolver so repeated searches of an unchanged maze are not run again.
+ * Each path is keyed by the maze, its version, the beginning and end
+ * pillars and the budget of planks. Every change to the planks, beginning
+ * or end of a maze bumps its version, so a stale path is never returned.
+ * <p/>
+ * The cache holds at most its capacity of paths and evicts the path
+ * used least recently when full. Paths are returned as read-only lists.
+ * Any number of threads may use the cache at once; a search missed by
+ * the cache runs outside its lock.
+ *
+ * @author Shaun Howard
+ */
+public class PathCache {
+
+    /* the budget of planks the paths of the original P* are keyed by. */
+    static final int P_STAR = -1;
+
+    /* the value cached when a search finds no path. */
+    static final List<Pillar> NO_PATH = Collections.emptyList();
+
+    /* the most paths the cache may hold. */
+    final int capacity;
+
+    /* the cached paths in order of least recent use. */
+    final Map<Key, List<Pillar>> paths;
+
+    /* the number of searches answered by the cache. */
+    final AtomicLong hits = new AtomicLong();
+
+    /* the number of searches the cache had to run. */
+    final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs an empty path cache with the given capacity.
+     *
+     * @param capacity - the most paths the cache may hold
+     * @throws Exception - thrown when the capacity is not positive
+     */
+    public PathCache(final int capacity) throws Exception {
+        if (capacity < 1) {
+            throw new Exception("The capacity of the cache was not positive.");
+        }
+        this.capacity = capacity;
+        this.paths = new LinkedHashMap<Key, List<Pillar>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Pillar>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Finds the shortest path through the given maze with the original
+     * P* algorithm, returning the cached path when there is one.
+     *
+     * @param maze - the maze to find the shortest path through
+     * @param size - the expected size of the maze
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ or the maze has no beginning
+     */
+    public List<Pillar> pStar(Maze maze, int size) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+
+        Key key = new Key(maze, P_STAR);
+        List<Pillar> path = get(key);
+        if (path == null) {
+            path = put(key, MazeSolver.pStar(maze, size));
+        }
+        return path == NO_PATH ? null : path;
+    }
+
+    /**
+     * Finds the shortest path through the given maze placing at most the
+     * given number of extra planks, returning the cached path when there is one.
+     *
+     * @param maze   - the maze to find the shortest path through
+     * @param size   - the expected size of the maze
+     * @param planks - the number of extra planks that may be placed
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the actual and expected maze sizes
+     *                   differ, the maze has no beginning or the number of
+     *                   planks is negative
+     */
+    public List<Pillar> pStar(Maze maze, int size, int planks) throws Exception {
+
+        /* throw exception with maze size is not expected size. */
+        MazeUtilities.throwExceptionWhenDifferent(maze.size, size);
+        if (planks < 0) {
+            throw new Exception("The number of planks was negative.");
+        }
+
+        Key key = new Key(maze, planks);
+        List<Pillar> path = get(key);
+        if (path == null) {
+            path = put(key, MazeSolver.pStar(maze, size, planks));
+        }
+        return path == NO_PATH ? null : path;
+    }
+
+    /**
+     * Gets the cached path of the given key, counting the hit or miss.
+     *
+     * @param key - the key of the search
+     * @return the cached path, NO_PATH, or null when it is not cached
+     */
+    List<Pillar> get(Key key) {
+        List<Pillar> path;
+        synchronized (paths) {
+            path = paths.get(key);
+        }
+        if (path == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+            MazeRecorder.RECORDER.cacheHit(key.maze, key.begin, key.end, key.planks, key.version,
+                    path == NO_PATH ? -1 : path.size());
+        }
+        return path;
+    }
+
+    /**
+     * Caches the path found for the given key.
+     *
+     * @param key  - the key of the search
+     * @param path - the path found or null when there is none
+     * @return the path as cached
+     */
+    List<Pillar> put(Key key, List<Pillar> path) {
+        List<Pillar> cached = path == null ? NO_PATH : Collections.unmodifiableList(path);
+        synchronized (paths) {
+            paths.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Gets the number of searches answered by the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of searches the cache had to run.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of paths in the cache.
+     *
+     * @return the number of cached paths
+     */
+    public int size() {
+        synchronized (paths) {
+            return paths.size();
+        }
+    }
+
+    /**
+     * Removes every path from the cache and resets its counters.
+     */
+    public void clear() {
+        synchronized (paths) {
+            paths.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * The key of a cached path, which is the maze, its version, the
+     * beginning and end pillars and the budget of planks. The version
+     * is read before the search, so a path found while the maze changed
+     * is kept under a version that is never asked for again.
+     */
+    static class Key {
+
+        /* the maze searched, compared by identity. */
+        final Maze maze;
+
+        /* the version of the maze. */
+        final int version;
+
+        /* the grid indices of the beginning and end pillars or -1. */
+        final int begin, end;
+
+        /* the budget of planks, or P_STAR for the original P*. */
+        final int planks;
+
+        /**
+         * Constructs the key of a search of the maze as it is now.
+         *
+         * @param maze   - the maze searched
+         * @param planks - the budget of planks
+         */
+        Key(Maze maze, int planks) {
+            this.maze = maze;
+            this.version = maze.getVersion();
+            this.begin = MazeUtilities.isNull(maze.getBegin()) ? -1 : maze.indexOf(maze.getBegin());
+            this.end = MazeSolver.endIndex(maze);
+            this.planks = planks;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return maze == k.maze && version == k.version && begin == k.begin
+                    && end == k.end && planks == k.planks;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(maze);
+            result = 31 * result + version;
+            result = 31 * result + begin;
+            result = 31 * result + end;
+            result = 31 * result + planks;
+            return result;
+        }
+    }
+}
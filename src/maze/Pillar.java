@@ -1,6 +1,13 @@
 package maze;
 
-import java.util.*;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * A node represents a pillar in a pillar grid.
@@ -10,8 +17,16 @@ import java.util.*;
  * the cost of this node which is the sum of b and e,
  * the number of planks left at this node,
  * the x and y coordinates of this node in the maze grid,
- * whether the node is the beginning or end, and a map of neighbors with
- * neighbors as key and a connected Boolean as the value.
+ * whether the node is the beginning or end, and a slot for the neighbor in
+ * each direction with a 4-bit mask of the directions linked by a plank.
+ * <p/>
+ * The neighbors are iterated by direction without allocating:
+ * <pre>
+ *   for (int d = 0; d &lt; Maze.DIRECTIONS; d++) {
+ *       Pillar neighbor = pillar.getNeighbor(d);
+ *       if (neighbor != null &amp;&amp; pillar.isLinked(d)) { ... }
+ *   }
+ * </pre>
  *
  * @author Shaun Howard
  */
@@ -35,8 +50,11 @@ public class Pillar implements Comparable<Pillar> {
     /* x, y, coordinates of this node in a grid */
     int x = 0, y = 0;
 
-    /* nMap, map of neighbor nodes with key as neighbor and connected boolean as value */
-    Map<Pillar, Boolean> neighbors = new HashMap<>();
+    /* the neighbor nodes above, below, left and right of this node or null */
+    Pillar above = null, below = null, left = null, right = null;
+
+    /* the directions linked by a plank, bit d for direction d */
+    byte links = 0;
 
     /**
      * Constructs a pillar from its x and y coordinates.
@@ -158,48 +176,176 @@ public class Pillar implements Comparable<Pillar> {
     }
 
     /**
-     * Gets the neighbor pillars of this pillar.
+     * Gets a read-only map view of the neighbor pillars of this pillar
+     * with whether each is connected by a plank.
      *
      * @return the neighbor pillars of this pillar
      */
     public Map<Pillar, Boolean> getNeighbors() {
-        return neighbors;
+        return new NeighborMap();
     }
 
     /**
      * Gets a list of neighbors, which are either
      * connected or disconnected as determined by the
-     * entered boolean value.
+     * entered boolean value. The list is a copy, so
+     * searches iterate by direction instead.
      *
      * @param connected - whether to get connected neighbors
      * @return connected or disconnected neighbors of this pillar
      */
     public List<Pillar> getNeighborList(boolean connected) {
-        // The list of neighbors of this pillar.
-        List<Pillar> neighborList = new ArrayList<>(neighbors.keySet());
-        Iterator<Pillar> listItr = neighborList.iterator();
-        Pillar curr = null;
-
-        // Remove any neighbors not matching connected boolean in map.
-        while (listItr.hasNext()) {
-            curr = listItr.next();
-            if (neighbors.containsKey(curr) && neighbors.get(curr).booleanValue() != connected) {
-                listItr.remove();
+        List<Pillar> neighborList = new ArrayList<>(Maze.DIRECTIONS);
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            Pillar neighbor = getNeighbor(direction);
+            if (neighbor != null && isLinked(direction) == connected) {
+                neighborList.add(neighbor);
             }
         }
         return neighborList;
     }
 
     /**
-     * Adds a neighbor pillar to this pillar.
+     * Adds a neighbor pillar to this pillar in the slot
+     * of the direction the neighbor is in.
      *
      * @param neighbor    - the neighbor pillar to add
      * @param isConnected - whether the neighbor is connected
+     * @throws IllegalArgumentException - thrown when the pillar is not
+     *                                  next to this pillar
      */
     public void addNeighbor(Pillar neighbor, boolean isConnected) {
         if (!MazeUtilities.isNull(neighbor)) {
-            this.neighbors.put(neighbor, isConnected);
+            int direction = directionOf(neighbor.x, neighbor.y);
+            if (direction < 0) {
+                throw new IllegalArgumentException("The pillars are not next to each other.");
+            }
+            setNeighbor(direction, neighbor);
+            setLinked(direction, isConnected);
+        }
+    }
+
+    /**
+     * Gets the neighbor pillar in the given direction.
+     *
+     * @param direction - one of Maze.ABOVE, BELOW, LEFT or RIGHT
+     * @return the neighbor pillar or null when there is none
+     */
+    public Pillar getNeighbor(int direction) {
+        switch (direction) {
+            case Maze.ABOVE:
+                return above;
+            case Maze.BELOW:
+                return below;
+            case Maze.LEFT:
+                return left;
+            case Maze.RIGHT:
+                return right;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Sets the neighbor pillar in the given direction.
+     *
+     * @param direction - one of Maze.ABOVE, BELOW, LEFT or RIGHT
+     * @param neighbor  - the neighbor pillar or null
+     */
+    void setNeighbor(int direction, Pillar neighbor) {
+        switch (direction) {
+            case Maze.ABOVE:
+                above = neighbor;
+                break;
+            case Maze.BELOW:
+                below = neighbor;
+                break;
+            case Maze.LEFT:
+                left = neighbor;
+                break;
+            case Maze.RIGHT:
+                right = neighbor;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Determines whether a plank leads to the neighbor in the given direction.
+     *
+     * @param direction - one of Maze.ABOVE, BELOW, LEFT or RIGHT
+     * @return whether a plank leads to the neighbor
+     */
+    public boolean isLinked(int direction) {
+        return (links >> direction & 1) != 0;
+    }
+
+    /**
+     * Gets the directions linked by a plank as a 4-bit mask,
+     * with bit d set when a plank leads in direction d.
+     *
+     * @return the mask of directions linked
+     */
+    public int getLinks() {
+        return links;
+    }
+
+    /**
+     * Adds or removes the plank to the neighbor in the given direction.
+     * No plank is added where there is no neighbor.
+     *
+     * @param direction - one of Maze.ABOVE, BELOW, LEFT or RIGHT
+     * @param linked    - whether to add rather than remove the plank
+     * @return whether the plank changed
+     */
+    boolean setLinked(int direction, boolean linked) {
+        if (getNeighbor(direction) == null || isLinked(direction) == linked) {
+            return false;
         }
+        links ^= 1 << direction;
+        return true;
+    }
+
+    /**
+     * Gets the direction of the pillar at the given coordinates from this pillar.
+     *
+     * @param x - the x-coordinate of the other pillar
+     * @param y - the y-coordinate of the other pillar
+     * @return the direction of the other pillar or -1 when it is not next to this one
+     */
+    int directionOf(int x, int y) {
+        if (x == this.x) {
+            if (y == this.y + 1) {
+                return Maze.ABOVE;
+            }
+            if (y == this.y - 1) {
+                return Maze.BELOW;
+            }
+        } else if (y == this.y) {
+            if (x == this.x + 1) {
+                return Maze.LEFT;
+            }
+            if (x == this.x - 1) {
+                return Maze.RIGHT;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the direction of the given neighbor pillar.
+     *
+     * @param neighbor - the neighbor pillar
+     * @return the direction of the neighbor or -1 when it is not a neighbor
+     */
+    int directionOf(Pillar neighbor) {
+        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+            if (getNeighbor(direction) == neighbor) {
+                return direction;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -273,4 +419,85 @@ public class Pillar implements Comparable<Pillar> {
         result = 31 * result + y;
         return result;
     }
+
+    /**
+     * A read-only map view of the neighbor slots, mapping
+     * each neighbor to whether a plank leads to it.
+     */
+    class NeighborMap extends AbstractMap<Pillar, Boolean> {
+
+        @Override
+        public Boolean get(Object key) {
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                Pillar neighbor = getNeighbor(direction);
+                if (neighbor != null && neighbor.equals(key)) {
+                    return isLinked(direction);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<Pillar, Boolean>> entrySet() {
+            return new AbstractSet<Entry<Pillar, Boolean>>() {
+                @Override
+                public Iterator<Entry<Pillar, Boolean>> iterator() {
+                    return new Iterator<Entry<Pillar, Boolean>>() {
+
+                        /* the next direction to look for a neighbor in. */
+                        int next = skip(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < Maze.DIRECTIONS;
+                        }
+
+                        @Override
+                        public Entry<Pillar, Boolean> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int direction = next;
+                            next = skip(direction + 1);
+                            return new SimpleImmutableEntry<>(getNeighbor(direction), isLinked(direction));
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int count = 0;
+                    for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                        if (getNeighbor(direction) != null) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            };
+        }
+
+        /**
+         * Gets the first direction from the given one with a neighbor.
+         *
+         * @param direction - the direction to start from
+         * @return the direction of the neighbor or DIRECTIONS when there is none
+         */
+        int skip(int direction) {
+            while (direction < Maze.DIRECTIONS && getNeighbor(direction) == null) {
+                direction++;
+            }
+            return direction;
+        }
+    }
 }
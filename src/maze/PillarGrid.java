@@ -0,0 +1,79 @@
+package maze;
+
+/**
+ * The planks of a grid of pillars as seen by a search, with each pillar
+ * known only by its grid index, y * length + x. A Maze is one such grid,
+ * and grids stored in other ways may be searched without making a Pillar
+ * object for each pillar.
+ * <p/>
+ * The directions of neighbors are Maze.ABOVE, Maze.BELOW, Maze.LEFT
+ * and Maze.RIGHT.
+ *
+ * @author Shaun Howard
+ */
+public interface PillarGrid {
+
+    /**
+     * Gets the length of the grid, which is the number of pillars in a row.
+     *
+     * @return the length of the grid
+     */
+    int length();
+
+    /**
+     * Gets the width of the grid, which is the number of rows.
+     *
+     * @return the width of the grid
+     */
+    int width();
+
+    /**
+     * Gets the number of pillars in the grid.
+     *
+     * @return the number of pillars
+     */
+    int size();
+
+    /**
+     * Gets the grid index of the neighbor of a pillar in the given direction.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     * @return the grid index of the neighbor or -1 when there is none
+     */
+    int neighbor(int index, int direction);
+
+    /**
+     * Determines whether a pillar is linked by a plank to its neighbor
+     * in the given direction.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     * @return whether there is a plank from the pillar to the neighbor
+     */
+    boolean isLinked(int index, int direction);
+
+    /**
+     * Determines whether the neighbor of a pillar in the given
+     * direction is linked by a plank to the pillar.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     * @return whether there is a plank from the neighbor to the pillar
+     */
+    boolean isLinkedFrom(int index, int direction);
+
+    /**
+     * Gets the grid index of the beginning pillar.
+     *
+     * @return the grid index of the beginning pillar or -1 when there is none
+     */
+    int beginIndex();
+
+    /**
+     * Gets the grid index of the end pillar.
+     *
+     * @return the grid index of the end pillar or -1 when there is none
+     */
+    int endIndex();
+}
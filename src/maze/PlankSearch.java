@@ -0,0 +1,419 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Searches a maze over the product of pillars and the planks left at
+ * each pillar. Unlike P*, a pillar reached with no planks left does
+ * not block a later arrival at the same pillar that still has planks,
+ * so the path found is optimal for any budget of planks.
+ * <p/>
+ * Each state is a pillar and the number of planks left there, which
+ * is indexed by pillar * (planks + 1) + planks left. The expanded states
+ * are kept in a bitset of pillars x (planks + 1) bits. A state is pruned
+ * when another arrival at the same pillar costs the same or less and
+ * has at least as many planks left.
+ * <p/>
+ * Any grid of pillars may be searched, giving the path as grid indices
+ * through findPath(). The path is given as pillars only for a Maze.
+ * <p/>
+ * The counters and phase times of the last search are kept in its stats.
+ * <p/>
+ * A plank search may be reused for many searches of the same maze but
+ * must not be shared between threads.
+ *
+ * @author Shaun Howard
+ */
+public class PlankSearch {
+
+    /* the grid to search. */
+    final PillarGrid grid;
+
+    /* the grid as a maze, or null when it has no pillar objects. */
+    final Maze maze;
+
+    /* the number of planks that may be placed along a path. */
+    final int planks;
+
+    /* the number of plank counts each pillar may be reached with. */
+    final int stride;
+
+    /* b, distance from the beginning of each state */
+    final int[] distanceFromBegin;
+
+    /* p, the previously visited state of each state or -1 */
+    final int[] previous;
+
+    /* E, the set of expanded states */
+    final BitSet expanded;
+
+    /* N, the open list of new states */
+    final OpenList open;
+
+    /* the states reached by the last search, so only they need clearing */
+    int[] touched = new int[64];
+
+    /* the most states kept in touched before every state is cleared instead */
+    final int touchedLimit;
+
+    /* the number of states reached by the last search */
+    int touchedCount = 0;
+
+    /* the number of states expanded by the last search */
+    int expandedCount = 0;
+
+    /* the state the end of the maze was reached in or -1 */
+    int goal = -1;
+
+    /* the counters and phase times of the last search */
+    final SearchStats stats = new SearchStats();
+
+    /**
+     * Constructs a plank search of the given maze with the given
+     * budget of planks and a priority queue open list.
+     *
+     * @param maze   - the maze to search
+     * @param planks - the number of planks that may be placed
+     * @throws Exception - thrown when the maze is null or the
+     *                   number of planks is negative
+     */
+    public PlankSearch(PillarGrid maze, int planks) throws Exception {
+        this(maze, planks, OpenList.Type.PRIORITY_QUEUE);
+    }
+
+    /**
+     * Constructs a plank search of the given maze with the given
+     * budget of planks and type of open list.
+     *
+     * @param maze   - the maze to search
+     * @param planks - the number of planks that may be placed
+     * @param type   - the type of open list to search with
+     * @throws Exception - thrown when the maze is null or the
+     *                   number of planks is negative
+     */
+    public PlankSearch(PillarGrid maze, int planks, OpenList.Type type) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(maze);
+        if (planks < 0) {
+            throw new Exception("The number of planks was negative.");
+        }
+        this.grid = maze;
+        this.maze = maze instanceof Maze ? (Maze) maze : null;
+        this.planks = planks;
+        this.stride = planks + 1;
+        int states = maze.size() * stride;
+        this.distanceFromBegin = new int[states];
+        this.previous = new int[states];
+        this.expanded = new BitSet(states);
+        this.open = type.create(states);
+        this.touchedLimit = Math.max(1024, states >> 4);
+        Arrays.fill(distanceFromBegin, Integer.MAX_VALUE);
+        Arrays.fill(previous, -1);
+    }
+
+    /**
+     * Finds the most optimal path from the beginning pillar to the
+     * end pillar of the maze placing at most the budget of planks.
+     *
+     * @return the shortest path through the maze or null
+     * @throws Exception - thrown when the grid is not a maze of pillars
+     *                   or the maze does not have a beginning pillar
+     */
+    public List<Pillar> solve() throws Exception {
+        throwExceptionWhenNotMaze();
+        List<Pillar> path = pillars(findPath());
+
+        /* making the pillars of the path is part of following it back */
+        stats.end(SearchStats.Phase.PATH);
+        return path;
+    }
+
+    /**
+     * Finds the most optimal path from the beginning pillar to the end
+     * pillar of the grid placing at most the budget of planks.
+     *
+     * @return the grid indices of the pillars along the shortest path or null
+     * @throws Exception - thrown when the grid does not have a beginning pillar
+     */
+    public int[] findPath() throws Exception {
+
+        /* make sure maze has a beginning node */
+        if (grid.beginIndex() < 0) {
+            throw new Exception("The maze has no beginning pillar.");
+        }
+
+        return findPath(grid.beginIndex(), grid.endIndex());
+    }
+
+    /**
+     * Finds the most optimal path between the pillars at the given grid
+     * indices placing at most the budget of planks. The beginning and end
+     * of the maze are not read, so one maze may serve searches between
+     * many pillars at once, each with its own plank search.
+     *
+     * @param beginIndex - the grid index of the pillar to begin at
+     * @param end        - the grid index of the pillar to end at or -1
+     * @return the shortest path between the pillars or null
+     * @throws Exception - thrown when the grid is not a maze of pillars
+     *                   or either pillar is outside the maze
+     */
+    public List<Pillar> solve(int beginIndex, int end) throws Exception {
+        throwExceptionWhenNotMaze();
+        List<Pillar> path = pillars(findPath(beginIndex, end));
+        stats.end(SearchStats.Phase.PATH);
+        return path;
+    }
+
+    /**
+     * Finds the most optimal path between the pillars at the given grid
+     * indices placing at most the budget of planks.
+     *
+     * @param beginIndex - the grid index of the pillar to begin at
+     * @param end        - the grid index of the pillar to end at or -1
+     * @return the grid indices of the pillars along the shortest path or null
+     * @throws Exception - thrown when either pillar is outside the grid
+     */
+    public int[] findPath(int beginIndex, int end) throws Exception {
+        MazeUtilities.throwExceptionWhenOutside(grid.size(), beginIndex, end);
+
+        Object event = MazeRecorder.RECORDER.beginSolve();
+
+        /* clear the state of any previous search */
+        stats.start();
+        reset();
+
+        int begin = state(beginIndex, planks);
+
+        OpenList N = open;
+        reach(begin, 0, -1);
+        N.push(begin, cost(begin, end));
+        stats.pushed(N.size());
+        stats.end(SearchStats.Phase.INIT);
+
+        while (!N.isEmpty()) {
+
+            /* extract lowest cost state 'v' from N */
+            int v = N.pop();
+            int pillar = v / stride;
+            int left = v % stride;
+
+            /* skip states already expanded or dominated since they were added to N */
+            if (expanded.get(v) || isDominated(pillar, left + 1, distanceFromBegin[v])) {
+                continue;
+            }
+            expanded.set(v);
+            expandedCount++;
+
+            if (pillar == end) {
+                goal = v;
+                stats.end(SearchStats.Phase.SEARCH);
+                int[] path = shortestPath(v);
+                stats.end(SearchStats.Phase.PATH);
+                count();
+                MazeRecorder.RECORDER.solved(event, "PlankSearch", grid, beginIndex, end, planks, stats, path.length);
+                return path;
+            }
+
+            int b = distanceFromBegin[v] + 1;
+            for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                int u = grid.neighbor(pillar, direction);
+                if (u < 0) {
+                    continue;
+                }
+
+                /* a connected neighbor keeps the planks, an unconnected one needs a plank */
+                int n = grid.isLinked(pillar, direction) ? left : left - 1;
+                if (n < 0 || isDominated(u, n, b)) {
+                    continue;
+                }
+                int s = state(u, n);
+                reach(s, b, v);
+                N.push(s, cost(s, end));
+                stats.pushed(N.size());
+            }
+        }
+        stats.end(SearchStats.Phase.SEARCH);
+        count();
+        MazeRecorder.RECORDER.solved(event, "PlankSearch", grid, beginIndex, end, planks, stats, -1);
+
+        /* return nil */
+        return null;
+    }
+
+    /**
+     * Gets the number of planks placed along the last path found.
+     *
+     * @return the number of planks placed or -1 when no path was found
+     */
+    public int planksUsed() {
+        return goal < 0 ? -1 : planks - goal % stride;
+    }
+
+    /**
+     * Gets the number of states expanded by the last search.
+     *
+     * @return the number of states expanded
+     */
+    public int expandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Gets the counters and phase times of the last search, which the
+     * next search changes, so they are copied to be kept.
+     *
+     * @return the stats of the last search
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Records the counters of the search just ended in its stats.
+     */
+    void count() {
+        stats.expanded = expandedCount;
+        stats.closed = touchedCount;
+        stats.planksUsed = planksUsed();
+    }
+
+    /**
+     * Clears the states reached by the last search, which costs time
+     * in proportion to the states reached rather than the maze size,
+     * or every state when too many were reached to have been kept.
+     */
+    void reset() {
+        if (touchedCount > touchedLimit) {
+            Arrays.fill(distanceFromBegin, Integer.MAX_VALUE);
+            Arrays.fill(previous, -1);
+            expanded.clear();
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                int s = touched[i];
+                distanceFromBegin[s] = Integer.MAX_VALUE;
+                previous[s] = -1;
+                expanded.clear(s);
+            }
+        }
+        touchedCount = 0;
+        expandedCount = 0;
+        open.clear();
+        goal = -1;
+    }
+
+    /**
+     * Records reaching a state at the given distance from the beginning.
+     *
+     * @param state - the state reached
+     * @param b     - the distance from the beginning of the state
+     * @param from  - the state it was reached from or -1
+     */
+    void reach(int state, int b, int from) {
+        if (distanceFromBegin[state] == Integer.MAX_VALUE) {
+            if (touchedCount < touchedLimit) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, Math.min(touchedLimit, 2 * touched.length));
+                }
+                touched[touchedCount] = state;
+            }
+            touchedCount++;
+        }
+        distanceFromBegin[state] = b;
+        previous[state] = from;
+    }
+
+    /**
+     * Determines whether reaching the given pillar with the given planks
+     * left, or fewer, at the given distance from the beginning is no better
+     * than an arrival already found with at least as many planks left.
+     * A state already expanded with at least as many planks left always
+     * dominates.
+     *
+     * @param pillar - the grid index of the pillar
+     * @param left   - the least planks left of a dominating arrival
+     * @param b      - the distance from the beginning of the arrival
+     * @return whether the arrival is dominated
+     */
+    boolean isDominated(int pillar, int left, int b) {
+        int base = pillar * stride;
+        for (int n = left; n < stride; n++) {
+            if (expanded.get(base + n) || distanceFromBegin[base + n] <= b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the state of the given pillar with the given planks left.
+     *
+     * @param pillar - the grid index of the pillar
+     * @param left   - the planks left at the pillar
+     * @return the index of the state
+     */
+    int state(int pillar, int left) {
+        return pillar * stride + left;
+    }
+
+    /**
+     * Gets the cost of a state, which is the sum of its distance
+     * from the beginning and its heuristic distance to the end.
+     *
+     * @param state - the index of the state
+     * @param end   - the grid index of the end pillar or -1
+     * @return the cost of the state
+     */
+    int cost(int state, int end) {
+        return distanceFromBegin[state] + MazeSolver.distanceToEnd(grid, state / stride, end);
+    }
+
+    /**
+     * Returns the grid indices of the pillars along the path to the
+     * given state by following the previously visited states.
+     *
+     * @param state - the index of the state to get the path to
+     * @return the grid indices of the pillars from the beginning of the maze
+     */
+    int[] shortestPath(int state) {
+        int length = 0;
+        for (int curr = state; curr >= 0; curr = previous[curr]) {
+            length++;
+        }
+        int[] shortestPath = new int[length];
+        for (int curr = state; curr >= 0; curr = previous[curr]) {
+            shortestPath[--length] = curr / stride;
+        }
+        return shortestPath;
+    }
+
+    /**
+     * Throws an exception when the grid searched is not a maze, since
+     * only a maze has pillars to give back; other grids use findPath().
+     *
+     * @throws Exception - thrown when the grid is not a maze of pillars
+     */
+    void throwExceptionWhenNotMaze() throws Exception {
+        if (maze == null) {
+            throw new Exception("The grid has no pillars to give, use findPath().");
+        }
+    }
+
+    /**
+     * Gets the pillars of the maze at the given grid indices.
+     *
+     * @param path - the grid indices of the pillars or null
+     * @return the list of pillars along the path or null
+     */
+    List<Pillar> pillars(int[] path) {
+        if (path == null) {
+            return null;
+        }
+        List<Pillar> pillars = new ArrayList<>(path.length);
+        for (int index : path) {
+            pillars.add(maze.getPillar(index));
+        }
+        return pillars;
+    }
+}
@@ -0,0 +1,58 @@
+package maze;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * An open list backed by a java.util.PriorityQueue. Each id and its cost
+ * are packed into a long key with the cost in the high bits. Keys are
+ * compared by cost alone, so ids of equal cost are popped in the same
+ * order as a priority queue of pillars compared by cost.
+ *
+ * @author Shaun Howard
+ */
+public class PriorityOpenList implements OpenList {
+
+    /* compares keys by the cost in their high bits. */
+    static final Comparator<Long> BY_COST = new Comparator<Long>() {
+        @Override
+        public int compare(Long a, Long b) {
+            return Long.compare(a >> 32, b >> 32);
+        }
+    };
+
+    /* the keys of the open list. */
+    final PriorityQueue<Long> queue;
+
+    /**
+     * Constructs an empty priority queue open list.
+     */
+    public PriorityOpenList() {
+        this.queue = new PriorityQueue<>(11, BY_COST);
+    }
+
+    @Override
+    public void push(int id, int priority) {
+        queue.add((long) priority << 32 | id);
+    }
+
+    @Override
+    public int pop() {
+        return (int) queue.remove().longValue();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,307 @@
+package maze;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of a single search through a maze. The previously
+ * visited pillar p, the distance from the beginning b, the heuristic
+ * distance to the end e and the number of planks left n are kept in
+ * arrays indexed by the grid index of each pillar, along with the set
+ * of explored pillars E, the set of expanded pillars and the open list
+ * of new pillars N.
+ * <p/>
+ * The maze is only read during a search, so any number of threads
+ * may search the same maze at once as long as each thread uses its
+ * own search context.
+ *
+ * @author Shaun Howard
+ */
+public class SearchContext {
+
+    /* the maze being searched. */
+    final Maze maze;
+
+    /* p, grid index of the previously visited pillar or -1 */
+    final int[] previous;
+
+    /* b, distance from the beginning pillar */
+    final int[] distanceFromBegin;
+
+    /* e, heuristic distance to the ending pillar */
+    final int[] heuristic;
+
+    /* n, number of planks left at each pillar */
+    final int[] planksLeft;
+
+    /* E, the set of explored pillars */
+    final BitSet explored;
+
+    /* the set of expanded pillars, which are never visited again */
+    final BitSet expanded;
+
+    /* N, the open list of new pillars */
+    final OpenList open;
+
+    /* the counters and phase times of the last search */
+    final SearchStats stats = new SearchStats();
+
+    /**
+     * Constructs a search context sized for the given maze
+     * with a priority queue open list.
+     *
+     * @param maze - the maze to search
+     */
+    public SearchContext(Maze maze) {
+        this(maze, OpenList.Type.PRIORITY_QUEUE);
+    }
+
+    /**
+     * Constructs a search context sized for the given maze
+     * with the given type of open list.
+     *
+     * @param maze - the maze to search
+     * @param type - the type of open list to search with
+     */
+    public SearchContext(Maze maze, OpenList.Type type) {
+        this.maze = maze;
+        int size = maze.grid.length;
+        this.previous = new int[size];
+        this.distanceFromBegin = new int[size];
+        this.heuristic = new int[size];
+        this.planksLeft = new int[size];
+        this.explored = new BitSet(size);
+        this.expanded = new BitSet(size);
+        this.open = type.create(size);
+        reset();
+    }
+
+    /**
+     * Clears the state of any previous search so this
+     * context may be reused for another search.
+     */
+    public void reset() {
+        Arrays.fill(previous, -1);
+        Arrays.fill(distanceFromBegin, 0);
+        Arrays.fill(heuristic, 0);
+        Arrays.fill(planksLeft, 0);
+        explored.clear();
+        expanded.clear();
+        open.clear();
+    }
+
+    /**
+     * Gets the maze searched by this context.
+     *
+     * @return the maze searched by this context
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Gets the open list of new pillars of this context.
+     *
+     * @return the open list of new pillars
+     */
+    public OpenList getOpenList() {
+        return open;
+    }
+
+    /**
+     * Gets the counters and phase times of the last search with this
+     * context, which the next search changes, so they are copied to be kept.
+     *
+     * @return the stats of the last search
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the index of the previously visited pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @return the index of the previously visited pillar or -1
+     */
+    public int getPrevious(int index) {
+        return previous[index];
+    }
+
+    /**
+     * Sets the index of the previously visited pillar.
+     *
+     * @param index    - the grid index of the pillar
+     * @param previous - the index of the previously visited pillar
+     */
+    public void setPrevious(int index, int previous) {
+        this.previous[index] = previous;
+    }
+
+    /**
+     * Gets the distance from the beginning pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @return the distance from the beginning pillar
+     */
+    public int getDistanceFromBegin(int index) {
+        return distanceFromBegin[index];
+    }
+
+    /**
+     * Sets the distance from the beginning pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @param b     - the distance from the beginning pillar
+     */
+    public void setDistanceFromBegin(int index, int b) {
+        this.distanceFromBegin[index] = b;
+    }
+
+    /**
+     * Gets the heuristic distance to the end pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @return the heuristic distance to the end pillar
+     */
+    public int getHeuristic(int index) {
+        return heuristic[index];
+    }
+
+    /**
+     * Sets the heuristic distance to the end pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @param e     - the heuristic distance to the end pillar
+     */
+    public void setHeuristic(int index, int e) {
+        this.heuristic[index] = e;
+    }
+
+    /**
+     * Gets the cost of a pillar, which is the sum of its
+     * distance from the beginning and its heuristic.
+     *
+     * @param index - the grid index of the pillar
+     * @return the cost of the pillar
+     */
+    public int getCost(int index) {
+        return distanceFromBegin[index] + heuristic[index];
+    }
+
+    /**
+     * Gets the planks left at a pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @return the planks left at the pillar
+     */
+    public int getPlanksLeft(int index) {
+        return planksLeft[index];
+    }
+
+    /**
+     * Sets the planks left at a pillar.
+     *
+     * @param index - the grid index of the pillar
+     * @param n     - the planks left at the pillar
+     */
+    public void setPlanksLeft(int index, int n) {
+        this.planksLeft[index] = n;
+    }
+
+    /**
+     * Determines whether a pillar has been explored.
+     *
+     * @param index - the grid index of the pillar
+     * @return whether the pillar has been explored
+     */
+    public boolean isExplored(int index) {
+        return explored.get(index);
+    }
+
+    /**
+     * Adds a pillar to the set of explored pillars.
+     *
+     * @param index - the grid index of the pillar
+     */
+    public void explore(int index) {
+        explored.set(index);
+    }
+
+    /**
+     * Gets the number of explored pillars.
+     *
+     * @return the number of explored pillars
+     */
+    public int exploredCount() {
+        return explored.cardinality();
+    }
+
+    /**
+     * Determines whether a pillar has been expanded.
+     *
+     * @param index - the grid index of the pillar
+     * @return whether the pillar has been expanded
+     */
+    public boolean isExpanded(int index) {
+        return expanded.get(index);
+    }
+
+    /**
+     * Adds a pillar to the set of expanded pillars.
+     *
+     * @param index - the grid index of the pillar
+     */
+    public void expand(int index) {
+        expanded.set(index);
+    }
+
+    /**
+     * Determines whether stepping to a pillar at the given distance from
+     * the beginning with the given planks left improves on how the pillar
+     * was reached so far. A pillar not yet explored is always improved,
+     * and an expanded pillar never is.
+     *
+     * @param index - the grid index of the pillar
+     * @param b     - the distance from the beginning of the step
+     * @param n     - the planks left after the step
+     * @return whether the step improves on the pillar
+     */
+    public boolean improves(int index, int b, int n) {
+        if (expanded.get(index)) {
+            return false;
+        }
+        if (!explored.get(index)) {
+            return true;
+        }
+        int current = distanceFromBegin[index];
+        return b < current || (b == current && n > planksLeft[index]);
+    }
+
+    /**
+     * Returns the shortest path to the given end pillar from
+     * the beginning pillar by following the previously visited
+     * pillars of this search.
+     *
+     * @param end - the grid index of the pillar to get the
+     *            shortest path to
+     * @return the list of pillars from the beginning of the
+     * maze to the given pillar
+     */
+    public List<Pillar> shortestPath(int end) {
+        /* initialize the path list */
+        List<Pillar> shortestPath = new ArrayList<>();
+
+        /* follow curr.p back to the beginning */
+        for (int curr = end; curr >= 0; curr = previous[curr]) {
+            shortestPath.add(maze.getPillar(curr));
+        }
+
+        /* the path was gathered from the end, so reverse it */
+        Collections.reverse(shortestPath);
+        return shortestPath;
+    }
+}
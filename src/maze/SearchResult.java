@@ -0,0 +1,98 @@
+package maze;
+
+import java.util.List;
+
+/**
+ * The result of a search through a maze, which is the shortest path
+ * found along with the pillars any extra plank was placed between and
+ * the counters and phase times of the search, when it kept them.
+ *
+ * @author Shaun Howard
+ */
+public class SearchResult {
+
+    /* the shortest path from the beginning to the end or null. */
+    final List<Pillar> path;
+
+    /* the pillar the extra plank starts at or null. */
+    final Pillar plankStart;
+
+    /* the pillar the extra plank ends at or null. */
+    final Pillar plankEnd;
+
+    /* the counters and phase times of the search or null. */
+    final SearchStats stats;
+
+    /**
+     * Constructs a search result.
+     *
+     * @param path       - the shortest path or null when there is none
+     * @param plankStart - the pillar the extra plank starts at or null
+     * @param plankEnd   - the pillar the extra plank ends at or null
+     */
+    public SearchResult(List<Pillar> path, Pillar plankStart, Pillar plankEnd) {
+        this(path, plankStart, plankEnd, null);
+    }
+
+    /**
+     * Constructs a search result with the stats of the search.
+     *
+     * @param path       - the shortest path or null when there is none
+     * @param plankStart - the pillar the first extra plank starts at or null
+     * @param plankEnd   - the pillar the first extra plank ends at or null
+     * @param stats      - the counters and phase times of the search or null
+     */
+    public SearchResult(List<Pillar> path, Pillar plankStart, Pillar plankEnd, SearchStats stats) {
+        this.path = path;
+        this.plankStart = plankStart;
+        this.plankEnd = plankEnd;
+        this.stats = stats;
+    }
+
+    /**
+     * Gets the shortest path from the beginning to the end of the maze.
+     *
+     * @return the shortest path or null when there is none
+     */
+    public List<Pillar> getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the pillar the extra plank starts at.
+     *
+     * @return the pillar the extra plank starts at or null when
+     * no plank was placed
+     */
+    public Pillar getPlankStart() {
+        return plankStart;
+    }
+
+    /**
+     * Gets the pillar the extra plank ends at.
+     *
+     * @return the pillar the extra plank ends at or null when
+     * no plank was placed
+     */
+    public Pillar getPlankEnd() {
+        return plankEnd;
+    }
+
+    /**
+     * Gets the counters and phase times of the search.
+     *
+     * @return the stats of the search or null when it kept none
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Determines whether an extra plank was placed along the path.
+     *
+     * @return whether an extra plank was placed
+     */
+    public boolean usesPlank() {
+        return plankStart != null;
+    }
+}
@@ -0,0 +1,250 @@
+package maze;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * The counters of a single search through a maze: the pillars expanded,
+ * the pushes onto the open list, the most pillars ever waiting in the open
+ * list, the pillars explored, which is the size of the closed set E, and
+ * the planks placed along the path found. The wall and CPU time of the
+ * thread are kept for each phase of the search, which are setting up the
+ * search, searching and following the path back from the end.
+ * <p/>
+ * Counting costs an increment and a comparison for each push, and timing
+ * costs two clock reads for each phase, so the stats of every search may
+ * be kept. CPU time is 0 when the JVM cannot measure the time of a thread
+ * or the application has not turned measuring it on, which is left to the
+ * application since it is a setting of the whole JVM.
+ *
+ * @author Shaun Howard
+ */
+public class SearchStats {
+
+    /**
+     * The phases of a search.
+     */
+    public enum Phase {
+
+        /* clearing the last search and pushing the beginning pillar. */
+        INIT,
+
+        /* expanding pillars until the end is expanded or none are left. */
+        SEARCH,
+
+        /* following the previous pillars back from the end. */
+        PATH
+    }
+
+    /* the clock of the CPU time of each thread or null when it cannot be read. */
+    static final ThreadMXBean THREADS = threads();
+
+    /* the number of pillars expanded. */
+    long expanded;
+
+    /* the number of pushes onto the open list. */
+    long pushes;
+
+    /* the most pillars ever waiting in the open list. */
+    int peakOpen;
+
+    /* the number of pillars explored. */
+    long closed;
+
+    /* the number of extra planks placed along the path or -1 when none was found. */
+    int planksUsed = -1;
+
+    /* the wall and CPU time of each phase in nanoseconds. */
+    final long[] wallNanos = new long[Phase.values().length];
+    final long[] cpuNanos = new long[Phase.values().length];
+
+    /* the wall and CPU time the current phase started at. */
+    long wallMark, cpuMark;
+
+    /**
+     * Clears the counters and starts timing the first phase of a search.
+     */
+    void start() {
+        expanded = pushes = closed = 0;
+        peakOpen = 0;
+        planksUsed = -1;
+        Arrays.fill(wallNanos, 0);
+        Arrays.fill(cpuNanos, 0);
+        wallMark = System.nanoTime();
+        cpuMark = cpuTime();
+    }
+
+    /**
+     * Ends the given phase, adding its time to the phase,
+     * and starts timing the next phase.
+     *
+     * @param phase - the phase ended
+     */
+    void end(Phase phase) {
+        long wall = System.nanoTime();
+        long cpu = cpuTime();
+        wallNanos[phase.ordinal()] += wall - wallMark;
+        if (cpu > 0 && cpuMark > 0) {
+            cpuNanos[phase.ordinal()] += cpu - cpuMark;
+        }
+        wallMark = wall;
+        cpuMark = cpu;
+    }
+
+    /**
+     * Counts a push onto an open list now holding the given number of pillars.
+     *
+     * @param openSize - the number of pillars in the open list after the push
+     */
+    void pushed(int openSize) {
+        pushes++;
+        if (openSize > peakOpen) {
+            peakOpen = openSize;
+        }
+    }
+
+    /**
+     * Makes a copy of these stats, which later searches do not change.
+     *
+     * @return the copy of these stats
+     */
+    public SearchStats copy() {
+        SearchStats copy = new SearchStats();
+        copy.expanded = expanded;
+        copy.pushes = pushes;
+        copy.peakOpen = peakOpen;
+        copy.closed = closed;
+        copy.planksUsed = planksUsed;
+        System.arraycopy(wallNanos, 0, copy.wallNanos, 0, wallNanos.length);
+        System.arraycopy(cpuNanos, 0, copy.cpuNanos, 0, cpuNanos.length);
+        return copy;
+    }
+
+    /**
+     * Gets the number of pillars expanded, which for a search with
+     * planks is the number of pillar and plank states expanded.
+     *
+     * @return the number of pillars expanded
+     */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Gets the number of pushes onto the open list.
+     *
+     * @return the number of pushes
+     */
+    public long getPushes() {
+        return pushes;
+    }
+
+    /**
+     * Gets the most pillars ever waiting in the open list at once.
+     *
+     * @return the peak size of the open list
+     */
+    public int getPeakOpen() {
+        return peakOpen;
+    }
+
+    /**
+     * Gets the number of pillars explored, which is the size of the
+     * closed set E when the search ended.
+     *
+     * @return the number of pillars explored
+     */
+    public long getClosed() {
+        return closed;
+    }
+
+    /**
+     * Gets the number of extra planks placed along the path found.
+     *
+     * @return the number of planks placed or -1 when no path was found
+     */
+    public int getPlanksUsed() {
+        return planksUsed;
+    }
+
+    /**
+     * Gets the wall time of the given phase.
+     *
+     * @param phase - the phase of the search
+     * @return the wall time of the phase in nanoseconds
+     */
+    public long getWallNanos(Phase phase) {
+        return wallNanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets the CPU time of the searching thread in the given phase.
+     *
+     * @param phase - the phase of the search
+     * @return the CPU time of the phase in nanoseconds or 0
+     * when CPU time cannot be measured
+     */
+    public long getCpuNanos(Phase phase) {
+        return cpuNanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets the wall time of the whole search.
+     *
+     * @return the wall time of every phase in nanoseconds
+     */
+    public long getTotalWallNanos() {
+        long total = 0;
+        for (long nanos : wallNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append("expanded=").append(expanded)
+                .append(" pushes=").append(pushes)
+                .append(" peakOpen=").append(peakOpen)
+                .append(" closed=").append(closed)
+                .append(" planksUsed=").append(planksUsed);
+        for (Phase phase : Phase.values()) {
+            String name = phase.name().toLowerCase();
+            out.append(' ').append(name).append("WallNanos=").append(wallNanos[phase.ordinal()])
+                    .append(' ').append(name).append("CpuNanos=").append(cpuNanos[phase.ordinal()]);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets the CPU time of the current thread when measuring it is on.
+     *
+     * @return the CPU time of the current thread in nanoseconds or 0
+     */
+    static long cpuTime() {
+        if (THREADS == null || !THREADS.isThreadCpuTimeEnabled()) {
+            return 0;
+        }
+        return Math.max(0, THREADS.getCurrentThreadCpuTime());
+    }
+
+    /**
+     * Gets the clock of the CPU time of each thread, leaving
+     * whether it is on to the application.
+     *
+     * @return the clock or null when the JVM cannot measure the time of a thread
+     */
+    static ThreadMXBean threads() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!threads.isCurrentThreadCpuTimeSupported()) {
+                return null;
+            }
+            return threads;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+}
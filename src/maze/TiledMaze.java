@@ -0,0 +1,741 @@
+package maze;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A maze kept on disk as square tiles of pillars, of which only the tiles
+ * most recently used are held in memory, so a maze larger than the memory
+ * of the machine may be linked and searched. The file is a header followed
+ * by the tiles, row by row, each a packed bitmap of planks as in the maze
+ * files read by MappedMaze:
+ * <pre>
+ *   int magic       "PMT1"
+ *   int length      the number of pillars in a row
+ *   int width       the number of rows
+ *   int begin       the grid index of the beginning pillar or -1
+ *   int end         the grid index of the end pillar or -1
+ *   int tileSize    the number of pillars along each side of a tile
+ *   byte[] tiles    tileSize * tileSize / 2 bytes for each tile
+ * </pre>
+ * The pillar at x, y of a tile keeps its bits in the nibble of its index
+ * y * tileSize + x within the tile. Tiles along the right and top of the
+ * maze are padded to full size. Integers are big-endian.
+ * <p/>
+ * Tiles are read when a search first looks at the planks of one of their
+ * pillars, so a search pages in the tiles its frontier reaches, and the
+ * least recently used tile is dropped, being written back when it was
+ * changed, once the tiles held would take more than the memory given.
+ * When a tile is read, the tiles next to it toward the end of the maze
+ * are read ahead on the executor, when there is one, or at once.
+ * <p/>
+ * The number of tiles read, written, read ahead and dropped are counted.
+ * <p/>
+ * A tiled maze must not be shared between threads, besides the thread
+ * reading ahead, and must be closed to write back the tiles changed.
+ *
+ * @author Shaun Howard
+ */
+public class TiledMaze implements PillarGrid, AutoCloseable {
+
+    /* the first four bytes of every tiled maze file, "PMT1". */
+    public static final int MAGIC = 0x504D5431;
+
+    /* the number of bytes before the tiles. */
+    static final int HEADER = 24;
+
+    /* the most pillars along each side of a tile. */
+    static final int MAX_TILE_SIZE = 4096;
+
+    /* the file of the tiles. */
+    final RandomAccessFile file;
+
+    /* the channel of the file, read and written at given positions. */
+    final FileChannel channel;
+
+    /* the executor reading tiles ahead or null to read them at once. */
+    final ExecutorService executor;
+
+    /* the length, width and size of the maze. */
+    final int length, width, size;
+
+    /* the number of pillars along each side of a tile and the bytes of a tile. */
+    final int tileSize, tileBytes;
+
+    /* the number of tiles in a row and in a column. */
+    final int tilesAcross, tilesUp;
+
+    /* the most tiles held in memory at once. */
+    final int maxTiles;
+
+    /* the grid indices of the beginning and end pillars or -1. */
+    int begin, end;
+
+    /* the tiles held in memory by tile index, least recently used first. */
+    final LinkedHashMap<Integer, Tile> tiles;
+
+    /* the tile indices being read ahead. */
+    final Set<Integer> pending = new HashSet<>();
+
+    /* the tile last looked at by the searching thread or null. */
+    Tile last;
+
+    /* the counters of the tiles read, written, read ahead and dropped. */
+    long reads, writes, readAheads, evictions, hits, misses;
+
+    /**
+     * Constructs a tiled maze over the given file after checking its header.
+     *
+     * @param file      - the file of the maze, open for reading and writing
+     * @param maxBytes  - the most bytes of tiles to hold in memory
+     * @param executor  - the executor reading tiles ahead or null
+     * @throws Exception - thrown when the file is not a tiled maze file or
+     *                   the memory given cannot hold a tile
+     */
+    TiledMaze(RandomAccessFile file, long maxBytes, ExecutorService executor) throws Exception {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.executor = executor;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        channel.read(header, 0);
+        if (header.position() < HEADER || header.getInt(0) != MAGIC) {
+            throw new Exception("The file is not a tiled maze file.");
+        }
+        this.length = header.getInt(4);
+        this.width = header.getInt(8);
+        this.begin = header.getInt(12);
+        this.end = header.getInt(16);
+        this.tileSize = header.getInt(20);
+        checkSize(length, width, tileSize);
+        this.size = length * width;
+        this.tileBytes = tileSize * tileSize / 2;
+        this.tilesAcross = (length + tileSize - 1) / tileSize;
+        this.tilesUp = (width + tileSize - 1) / tileSize;
+        if (file.length() < HEADER + (long) tilesAcross * tilesUp * tileBytes) {
+            throw new Exception("The maze file is shorter than its tiles.");
+        }
+        if (begin < -1 || begin >= size || end < -1 || end >= size) {
+            throw new Exception("The maze file has a bad beginning or end.");
+        }
+        if (maxBytes < tileBytes) {
+            throw new Exception("The memory given cannot hold a tile.");
+        }
+        this.maxTiles = (int) Math.min(Integer.MAX_VALUE, maxBytes / tileBytes);
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Makes a tiled maze file of the given size without planks,
+     * which takes no space on disk until its tiles are written
+     * on file systems with sparse files.
+     *
+     * @param file     - the tiled maze file to make
+     * @param length   - the number of pillars in a row
+     * @param width    - the number of rows
+     * @param tileSize - the even number of pillars along each side of a tile
+     * @throws Exception - thrown when the size is bad or the file cannot be written
+     */
+    public static void create(File file, int length, int width, int tileSize) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(file);
+        checkSize(length, width, tileSize);
+        long tileCount = (long) ((length + tileSize - 1) / tileSize) * ((width + tileSize - 1) / tileSize);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            raf.setLength(HEADER + tileCount * (tileSize * tileSize / 2));
+            raf.writeInt(MAGIC);
+            raf.writeInt(length);
+            raf.writeInt(width);
+            raf.writeInt(-1);
+            raf.writeInt(-1);
+            raf.writeInt(tileSize);
+        }
+    }
+
+    /**
+     * Writes the given grid to a tiled maze file, one tile at a time.
+     *
+     * @param grid     - the grid of pillars to write, such as a Maze
+     * @param file     - the tiled maze file to write
+     * @param tileSize - the even number of pillars along each side of a tile
+     * @throws Exception - thrown when the grid or file is null, the tile
+     *                   size is bad or the file cannot be written
+     */
+    public static void write(PillarGrid grid, File file, int tileSize) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(grid, file);
+        create(file, grid.length(), grid.width(), tileSize);
+        try (TiledMaze maze = open(file, tileSize * tileSize / 2)) {
+            maze.setBegin(grid.beginIndex());
+            maze.setEnd(grid.endIndex());
+
+            /* one tile at a time, so each tile is read and written once */
+            for (int t = 0; t < maze.tilesAcross * maze.tilesUp; t++) {
+                int x0 = t % maze.tilesAcross * tileSize;
+                int y0 = t / maze.tilesAcross * tileSize;
+                for (int y = y0; y < Math.min(y0 + tileSize, grid.width()); y++) {
+                    for (int x = x0; x < Math.min(x0 + tileSize, grid.length()); x++) {
+                        int i = y * grid.length() + x;
+                        for (int direction = 0; direction < Maze.DIRECTIONS; direction++) {
+                            if (grid.isLinked(i, direction)) {
+                                maze.link(i, direction);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the tiled maze file at the given path, holding at most the
+     * given bytes of tiles in memory and reading tiles ahead at once.
+     *
+     * @param file     - the tiled maze file
+     * @param maxBytes - the most bytes of tiles to hold in memory
+     * @return the tiled maze
+     * @throws Exception - thrown when the file cannot be read, is not a
+     *                   tiled maze file or the memory cannot hold a tile
+     */
+    public static TiledMaze open(File file, long maxBytes) throws Exception {
+        return open(file, maxBytes, null);
+    }
+
+    /**
+     * Opens the tiled maze file at the given path, holding at most the
+     * given bytes of tiles in memory and reading tiles ahead on the given
+     * executor. Each tile being read ahead takes the bytes of a tile more.
+     *
+     * @param file     - the tiled maze file
+     * @param maxBytes - the most bytes of tiles to hold in memory
+     * @param executor - the executor reading tiles ahead or null to read them at once
+     * @return the tiled maze
+     * @throws Exception - thrown when the file cannot be read, is not a
+     *                   tiled maze file or the memory cannot hold a tile
+     */
+    public static TiledMaze open(File file, long maxBytes, ExecutorService executor) throws Exception {
+        MazeUtilities.throwExceptionWhenNull(file);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            return new TiledMaze(raf, maxBytes, executor);
+        } catch (Exception e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the size of a tiled maze.
+     *
+     * @param length   - the number of pillars in a row
+     * @param width    - the number of rows
+     * @param tileSize - the number of pillars along each side of a tile
+     * @throws Exception - thrown when the maze or tiles have a bad size
+     */
+    static void checkSize(int length, int width, int tileSize) throws Exception {
+        if (length < 0 || width < 0 || (long) length * width > Integer.MAX_VALUE) {
+            throw new Exception("The maze file has a bad size.");
+        }
+        if (tileSize < 2 || tileSize > MAX_TILE_SIZE || tileSize % 2 != 0) {
+            throw new Exception("The tile size must be even and from 2 to " + MAX_TILE_SIZE + ".");
+        }
+    }
+
+    /**
+     * Links a pillar to its neighbor in the given direction with a plank.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     * @throws Exception - thrown when the tile cannot be read or a tile dropped cannot be written
+     */
+    public synchronized void link(int index, int direction) throws Exception {
+        if (neighbor(index, direction) >= 0) {
+            set(index, direction, true);
+        }
+    }
+
+    /**
+     * Removes the plank from a pillar to its neighbor in the given direction.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     * @throws Exception - thrown when the tile cannot be read or a tile dropped cannot be written
+     */
+    public synchronized void unlink(int index, int direction) throws Exception {
+        set(index, direction, false);
+    }
+
+    /**
+     * Sets the beginning pillar of the maze, which is written when it is closed.
+     *
+     * @param index - the grid index of the beginning pillar or -1
+     */
+    public void setBegin(int index) {
+        this.begin = index;
+    }
+
+    /**
+     * Sets the end pillar of the maze, which is written when it is closed,
+     * and toward which tiles are read ahead.
+     *
+     * @param index - the grid index of the end pillar or -1
+     */
+    public void setEnd(int index) {
+        this.end = index;
+    }
+
+    /**
+     * Writes back the tiles changed and the beginning and end of the maze.
+     *
+     * @throws IOException - thrown when the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        for (Tile tile : tiles.values()) {
+            writeBack(tile);
+        }
+        ByteBuffer ends = ByteBuffer.allocate(8);
+        ends.putInt(begin).putInt(end).flip();
+        channel.write(ends, 12);
+    }
+
+    /**
+     * Writes back the tiles changed and closes the file. Tiles still
+     * being read ahead are dropped when they are read.
+     *
+     * @throws IOException - thrown when the file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            tiles.clear();
+            last = null;
+            file.close();
+        }
+    }
+
+    /**
+     * Gets the counters of the tiles read, written, read ahead and dropped
+     * since the maze was opened.
+     *
+     * @return a copy of the counters
+     */
+    public synchronized Counters getCounters() {
+        return new Counters(reads, writes, readAheads, evictions, hits, misses, (long) tileBytes);
+    }
+
+    /**
+     * Gets the most bytes of tiles held in memory at once, besides the
+     * tiles being read ahead.
+     *
+     * @return the most bytes of tiles held
+     */
+    public long maxBytes() {
+        return (long) maxTiles * tileBytes;
+    }
+
+    /**
+     * Gets the number of tiles held in memory.
+     *
+     * @return the number of tiles held
+     */
+    public synchronized int tilesHeld() {
+        return tiles.size();
+    }
+
+    /**
+     * Gets the four bits of planks leading from a pillar,
+     * reading the tile holding it when it is not held.
+     *
+     * @param index - the grid index of the pillar
+     * @return the bits of the directions a plank leads in
+     */
+    int bits(int index) {
+        int x = index % length;
+        int y = index / length;
+        int t = y / tileSize * tilesAcross + x / tileSize;
+        Tile tile = last;
+        if (tile == null || tile.index != t) {
+            try {
+                tile = tile(t);
+            } catch (IOException e) {
+                throw new IllegalStateException("The tile could not be read.", e);
+            }
+            last = tile;
+        }
+        int local = y % tileSize * tileSize + x % tileSize;
+        return tile.bits[local >> 1] >> ((local & 1) << 2) & 0xF;
+    }
+
+    /**
+     * Sets or clears the plank from a pillar in the given direction
+     * in the tile holding it, which is then written back when dropped.
+     *
+     * @param index     - the grid index of the pillar
+     * @param direction - the direction of the neighbor
+     * @param linked    - whether to set or clear the plank
+     * @throws IOException - thrown when the tile cannot be read or a tile dropped cannot be written
+     */
+    void set(int index, int direction, boolean linked) throws IOException {
+        int x = index % length;
+        int y = index / length;
+        Tile tile = tile(y / tileSize * tilesAcross + x / tileSize);
+        int local = y % tileSize * tileSize + x % tileSize;
+        int bit = 1 << (direction + ((local & 1) << 2));
+        byte old = tile.bits[local >> 1];
+        byte bits = (byte) (linked ? old | bit : old & ~bit);
+        if (bits != old) {
+            tile.bits[local >> 1] = bits;
+            tile.dirty = true;
+        }
+        last = tile;
+    }
+
+    /**
+     * Gets the tile at the given tile index, reading it and the tiles
+     * next to it toward the end of the maze when it is not held.
+     *
+     * @param t - the tile index
+     * @return the tile
+     * @throws IOException - thrown when the tile cannot be read or a tile dropped cannot be written
+     */
+    synchronized Tile tile(int t) throws IOException {
+        Tile tile = tiles.get(t);
+        if (tile != null) {
+            hits++;
+            return tile;
+        }
+        misses++;
+        tile = new Tile(t, read(t));
+        reads++;
+        hold(tile);
+        readAheadFrom(t);
+        return tile;
+    }
+
+    /**
+     * Reads ahead the tiles next to the given tile toward the end
+     * of the maze that are neither held nor being read.
+     *
+     * @param t - the tile index of the tile read
+     */
+    void readAheadFrom(int t) {
+        if (end < 0 || maxTiles < 3) {
+            return;
+        }
+        int tx = t % tilesAcross;
+        int ty = t / tilesAcross;
+        int ex = end % length / tileSize;
+        int ey = end / length / tileSize;
+        if (ex != tx) {
+            readAhead(ty * tilesAcross + tx + Integer.signum(ex - tx));
+        }
+        if (ey != ty) {
+            readAhead((ty + Integer.signum(ey - ty)) * tilesAcross + tx);
+        }
+    }
+
+    /**
+     * Reads ahead the tile at the given tile index unless it is held or
+     * being read, on the executor or at once. A tile read on the executor
+     * is dropped when a tile was written back while it was read, since it
+     * may have been read before the tile was written.
+     *
+     * @param t - the tile index
+     */
+    void readAhead(final int t) {
+        if (tiles.containsKey(t) || !pending.add(t)) {
+            return;
+        }
+        if (executor == null) {
+            try {
+                hold(new Tile(t, read(t)));
+                reads++;
+                readAheads++;
+            } catch (IOException e) {
+
+                /* the tile is read again when it is needed */
+            } finally {
+                pending.remove(t);
+            }
+            return;
+        }
+        final long written = writes;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                byte[] bits = null;
+                try {
+                    bits = read(t);
+                } catch (IOException e) {
+
+                    /* the tile is read again when it is needed */
+                }
+                synchronized (TiledMaze.this) {
+                    pending.remove(t);
+                    if (bits != null && channel.isOpen() && writes == written
+                            && !tiles.containsKey(t)) {
+                        reads++;
+                        readAheads++;
+                        try {
+                            hold(new Tile(t, bits));
+                        } catch (IOException e) {
+
+                            /* the tile dropped is written back when it is next dropped */
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Holds a tile in memory, dropping the least recently used tiles
+     * while there are too many and writing them back when changed.
+     *
+     * @param tile - the tile to hold
+     * @throws IOException - thrown when a tile dropped cannot be written
+     */
+    void hold(Tile tile) throws IOException {
+        tiles.put(tile.index, tile);
+        Iterator<Map.Entry<Integer, Tile>> eldest = tiles.entrySet().iterator();
+        while (tiles.size() > maxTiles) {
+            Tile dropped = eldest.next().getValue();
+            writeBack(dropped);
+            eldest.remove();
+            evictions++;
+            if (dropped == last) {
+                last = null;
+            }
+        }
+    }
+
+    /**
+     * Reads the tile at the given tile index from the file.
+     *
+     * @param t - the tile index
+     * @return the bitmap of planks of the tile
+     * @throws IOException - thrown when the tile cannot be read
+     */
+    byte[] read(int t) throws IOException {
+        byte[] bits = new byte[tileBytes];
+        ByteBuffer buffer = ByteBuffer.wrap(bits);
+        long position = HEADER + (long) t * tileBytes;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Writes a tile to the file when it was changed.
+     *
+     * @param tile - the tile to write
+     * @throws IOException - thrown when the tile cannot be written
+     */
+    void writeBack(Tile tile) throws IOException {
+        if (!tile.dirty) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(tile.bits);
+        long position = HEADER + (long) tile.index * tileBytes;
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        tile.dirty = false;
+        writes++;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int neighbor(int index, int direction) {
+        return MazeUtilities.neighbor(length, size, index, direction);
+    }
+
+    @Override
+    public boolean isLinked(int index, int direction) {
+        return (bits(index) >> direction & 1) != 0;
+    }
+
+    @Override
+    public boolean isLinkedFrom(int index, int direction) {
+        int neighbor = neighbor(index, direction);
+        return neighbor >= 0 && (bits(neighbor) >> Maze.opposite(direction) & 1) != 0;
+    }
+
+    @Override
+    public int beginIndex() {
+        return begin;
+    }
+
+    @Override
+    public int endIndex() {
+        return end;
+    }
+
+    /**
+     * A tile of pillars held in memory.
+     */
+    static class Tile {
+
+        /* the tile index, which is tile row * tiles across + tile column. */
+        final int index;
+
+        /* the bitmap of planks, two pillars to a byte. */
+        final byte[] bits;
+
+        /* whether the bitmap was changed since it was read or written. */
+        boolean dirty;
+
+        /**
+         * Constructs a tile of the given bitmap.
+         *
+         * @param index - the tile index
+         * @param bits  - the bitmap of planks
+         */
+        Tile(int index, byte[] bits) {
+            this.index = index;
+            this.bits = bits;
+        }
+    }
+
+    /**
+     * The counters of the tiles of a tiled maze taken at once.
+     */
+    public static class Counters {
+
+        /* the tiles read, written, read ahead and dropped. */
+        final long reads, writes, readAheads, evictions;
+
+        /* the lookups of a tile that found it held and that did not. */
+        final long hits, misses;
+
+        /* the bytes of each tile. */
+        final long tileBytes;
+
+        /**
+         * Constructs the counters of a tiled maze.
+         *
+         * @param reads      - the tiles read
+         * @param writes     - the tiles written
+         * @param readAheads - the tiles read ahead
+         * @param evictions  - the tiles dropped
+         * @param hits       - the lookups that found the tile held
+         * @param misses     - the lookups that read the tile
+         * @param tileBytes  - the bytes of each tile
+         */
+        Counters(long reads, long writes, long readAheads, long evictions,
+                 long hits, long misses, long tileBytes) {
+            this.reads = reads;
+            this.writes = writes;
+            this.readAheads = readAheads;
+            this.evictions = evictions;
+            this.hits = hits;
+            this.misses = misses;
+            this.tileBytes = tileBytes;
+        }
+
+        /**
+         * Gets the number of tiles read, including those read ahead.
+         *
+         * @return the tiles read
+         */
+        public long getReads() {
+            return reads;
+        }
+
+        /**
+         * Gets the number of tiles written back.
+         *
+         * @return the tiles written
+         */
+        public long getWrites() {
+            return writes;
+        }
+
+        /**
+         * Gets the number of tiles read ahead toward the end of the maze.
+         *
+         * @return the tiles read ahead
+         */
+        public long getReadAheads() {
+            return readAheads;
+        }
+
+        /**
+         * Gets the number of tiles dropped from memory.
+         *
+         * @return the tiles dropped
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * Gets the number of lookups of a tile that found it held,
+         * not counting the lookups of the tile last looked at.
+         *
+         * @return the lookups that found the tile held
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Gets the number of lookups of a tile that had to read it.
+         *
+         * @return the lookups that read the tile
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Gets the number of bytes read from the file.
+         *
+         * @return the bytes read
+         */
+        public long getBytesRead() {
+            return reads * tileBytes;
+        }
+
+        /**
+         * Gets the number of bytes written to the file.
+         *
+         * @return the bytes written
+         */
+        public long getBytesWritten() {
+            return writes * tileBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "reads=" + reads + " writes=" + writes + " readAheads=" + readAheads
+                    + " evictions=" + evictions + " hits=" + hits + " misses=" + misses;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package tests;
+
+import maze.BatchSolver;
+import maze.Maze;
+import maze.MazeSolver;
+import maze.Pillar;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests solving batches of queries against one maze.
+ *
+ * @author Shaun Howard
+ */
+public class BatchSolverTest {
+
+    Maze maze;
+    ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        //only the first row is linked
+        maze = new Maze(5, 5);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        maze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        maze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testResultsInInputOrder() throws Exception {
+        List<BatchSolver.Query> queries = new ArrayList<>();
+        queries.add(new BatchSolver.Query(Maze.position(0, 0), Maze.position(4, 0), 0));
+        queries.add(new BatchSolver.Query(Maze.position(0, 0), Maze.position(4, 2), 1));
+        queries.add(new BatchSolver.Query(Maze.position(0, 0), Maze.position(4, 2), 2));
+        queries.add(new BatchSolver.Query(Maze.position(2, 0), Maze.position(2, 0), 0));
+
+        List<BatchSolver.Result> results = new BatchSolver(maze, executor, 1).solve(queries);
+        assertEquals(4, results.size());
+
+        assertEquals(5, results.get(0).getPath().size());
+        assertEquals(0, results.get(0).getPlanksUsed());
+        assertTrue(results.get(0).getExpanded() > 0);
+        assertTrue(results.get(0).getNanos() >= 0);
+
+        assertNull(results.get(1).getPath());
+        assertEquals(-1, results.get(1).getPlanksUsed());
+
+        assertEquals(7, results.get(2).getPath().size());
+        assertEquals(2, results.get(2).getPlanksUsed());
+        assertEquals("<4, 2>", results.get(2).getPath().get(6).getCoordinateString());
+
+        assertEquals(1, results.get(3).getPath().size());
+
+        //the maze is left as it was
+        assertNull(maze.getBegin());
+        assertNull(maze.getEnd());
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testMatchesSingleSolves() throws Exception {
+        Random random = new Random(11);
+        Maze randomMaze = new Maze(8, 8);
+        for (int i = 0; i < randomMaze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int n = randomMaze.neighbor(i, d);
+                if (n >= 0 && random.nextInt(100) < 45) {
+                    randomMaze.linkPillars(Maze.position(i % 8, i / 8), Maze.position(n % 8, n / 8));
+                }
+            }
+        }
+        Maze.Position[] begins = new Maze.Position[500];
+        Maze.Position[] ends = new Maze.Position[500];
+        int[] planks = new int[500];
+        List<BatchSolver.Query> queries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            begins[i] = Maze.position(random.nextInt(8), random.nextInt(8));
+            ends[i] = Maze.position(random.nextInt(8), random.nextInt(8));
+            planks[i] = random.nextInt(3);
+            queries.add(new BatchSolver.Query(begins[i], ends[i], planks[i]));
+        }
+
+        ExecutorService virtual = BatchSolver.newVirtualThreadExecutor();
+        try {
+            List<BatchSolver.Result> results = new BatchSolver(randomMaze, virtual, 16).solve(queries);
+            for (int i = 0; i < queries.size(); i++) {
+                randomMaze.setBegin(begins[i]);
+                randomMaze.setEnd(ends[i]);
+                List<Pillar> expected = MazeSolver.pStar(randomMaze, 64, planks[i]);
+                List<Pillar> actual = results.get(i).getPath();
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.size(), actual.size());
+                }
+            }
+        } finally {
+            virtual.shutdown();
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testPositionOutsideMaze() throws Exception {
+        List<BatchSolver.Query> queries = new ArrayList<>();
+        queries.add(new BatchSolver.Query(Maze.position(0, 0), Maze.position(5, 0), 0));
+        new BatchSolver(maze, executor).solve(queries);
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testNegativePlanks() throws Exception {
+        List<BatchSolver.Query> queries = new ArrayList<>();
+        queries.add(new BatchSolver.Query(Maze.position(0, 0), Maze.position(4, 0), -1));
+        new BatchSolver(maze, executor).solve(queries);
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testNullExecutor() throws Exception {
+        new BatchSolver(maze, null);
+    }
+}
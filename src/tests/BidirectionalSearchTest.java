@@ -0,0 +1,178 @@
+package tests;
+
+import maze.BidirectionalSearch;
+import maze.Maze;
+import maze.MazeSolver;
+import maze.PlankSearch;
+import maze.Pillar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bidirectional search.
+ *
+ * @author Shaun Howard
+ */
+public class BidirectionalSearchTest {
+
+    Maze smallMaze;
+    Maze largeMaze;
+    List<Pillar> shortestPath;
+
+    @Before
+    public void setUp() {
+        smallMaze = new Maze(3, 3);
+        largeMaze = new Maze(5, 5);
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testGivenMaze() throws Exception {
+        //link row 1
+        largeMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        largeMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        largeMaze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        largeMaze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        largeMaze.linkPillars(Maze.position(1, 0), Maze.position(1, 1));
+
+        //link row 2
+        largeMaze.linkPillars(Maze.position(1, 1), Maze.position(2, 1));
+        largeMaze.linkPillars(Maze.position(1, 1), Maze.position(1, 2));
+        largeMaze.linkPillars(Maze.position(3, 1), Maze.position(4, 1));
+
+        //link row 3
+        largeMaze.linkPillars(Maze.position(1, 2), Maze.position(1, 3));
+        largeMaze.linkPillars(Maze.position(1, 2), Maze.position(2, 2));
+
+        //link row 4
+        largeMaze.linkPillars(Maze.position(1, 3), Maze.position(0, 3));
+        largeMaze.linkPillars(Maze.position(1, 3), Maze.position(2, 3));
+        largeMaze.linkPillars(Maze.position(3, 3), Maze.position(4, 3));
+        largeMaze.linkPillars(Maze.position(0, 3), Maze.position(0, 4));
+
+        //link row 5
+        largeMaze.linkPillars(Maze.position(0, 4), Maze.position(1, 4));
+        largeMaze.linkPillars(Maze.position(1, 4), Maze.position(2, 4));
+        largeMaze.linkPillars(Maze.position(2, 4), Maze.position(3, 4));
+        largeMaze.linkPillars(Maze.position(3, 4), Maze.position(4, 4));
+
+        //set beginning and end
+        largeMaze.setBegin(Maze.position(0, 0));
+        largeMaze.setEnd(Maze.position(4, 4));
+
+        BidirectionalSearch search = new BidirectionalSearch(largeMaze, 1);
+        shortestPath = search.solve();
+        assertEquals(9, shortestPath.size());
+        assertEquals("<0, 0>", shortestPath.get(0).getCoordinateString());
+        assertEquals("<4, 4>", shortestPath.get(8).getCoordinateString());
+        assertEquals(1, search.planksUsed());
+        PlankSearchTest.assertPathUsesPlanks(largeMaze, shortestPath, 1);
+
+        //without a plank the path winds through <0, 3>
+        shortestPath = MazeSolver.bidirectionalPStar(largeMaze, 25, 0);
+        assertEquals(11, shortestPath.size());
+        assertEquals("<0, 3>", shortestPath.get(5).getCoordinateString());
+    }
+
+    //Reverse case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPlanksAreUnidirectional() throws Exception {
+        smallMaze.linkPillars(Maze.position(2, 0), Maze.position(1, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(0, 0));
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 0));
+
+        //the planks lead the wrong way
+        assertNull(MazeSolver.bidirectionalPStar(smallMaze, 9, 1));
+        assertEquals(3, MazeSolver.bidirectionalPStar(smallMaze, 9, 2).size());
+
+        smallMaze.setBegin(Maze.position(2, 0));
+        smallMaze.setEnd(Maze.position(0, 0));
+        assertEquals(3, MazeSolver.bidirectionalPStar(smallMaze, 9, 0).size());
+    }
+
+    //Small case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testBeginIsEnd() throws Exception {
+        smallMaze.setBegin(Maze.position(1, 1));
+        smallMaze.setEnd(Maze.position(1, 1));
+        shortestPath = MazeSolver.bidirectionalPStar(smallMaze, 9, 0);
+        assertEquals(1, shortestPath.size());
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testWithoutEnd() throws Exception {
+        smallMaze.setBegin(Maze.position(1, 1));
+        assertNull(MazeSolver.bidirectionalPStar(smallMaze, 9, 1));
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testWithoutBeginning() throws Exception {
+        smallMaze.setEnd(Maze.position(1, 1));
+        MazeSolver.bidirectionalPStar(smallMaze, 9, 1);
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testMatchesPlankSearchOnRandomMazes() throws Exception {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 300; trial++) {
+            Maze maze = new Maze(7, 6);
+            for (int i = 0; i < maze.size(); i++) {
+                for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                    int n = maze.neighbor(i, d);
+                    if (n >= 0 && random.nextInt(100) < 45) {
+                        maze.linkPillars(Maze.position(i % 7, i / 7), Maze.position(n % 7, n / 7));
+                    }
+                }
+            }
+            maze.setBegin(Maze.position(random.nextInt(7), random.nextInt(6)));
+            maze.setEnd(Maze.position(random.nextInt(7), random.nextInt(6)));
+            for (int planks = 0; planks <= 3; planks++) {
+                List<Pillar> expected = new PlankSearch(maze, planks).solve();
+                BidirectionalSearch search = new BidirectionalSearch(maze, planks);
+                shortestPath = search.solve();
+                if (expected == null) {
+                    assertNull(shortestPath);
+                } else {
+                    assertEquals(expected.size(), shortestPath.size());
+                    assertEquals(maze.getBegin(), shortestPath.get(0));
+                    assertEquals(maze.getEnd(), shortestPath.get(shortestPath.size() - 1));
+                    PlankSearchTest.assertPathUsesPlanks(maze, shortestPath, planks);
+                    assertTrue(search.planksUsed() <= planks);
+                }
+            }
+        }
+    }
+
+    //Stress-test, open maze, Structured Basis, Data-flow, good data
+    @Test
+    public void testFewerExpansionsThanOneSidedSearch() throws Exception {
+        Maze maze = new Maze(60, 60);
+        for (int i = 0; i < maze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int n = maze.neighbor(i, d);
+                if (n >= 0) {
+                    maze.linkPillars(Maze.position(i % 60, i / 60), Maze.position(n % 60, n / 60));
+                }
+            }
+        }
+        maze.setBegin(Maze.position(10, 30));
+        maze.setEnd(Maze.position(50, 30));
+
+        BidirectionalSearch search = new BidirectionalSearch(maze, 0);
+        assertEquals(41, search.solve().size());
+
+        //a breadth first search from one side expands a diamond of radius 40
+        assertTrue(search.expandedCount() < 2 * 20 * 20 * 2);
+    }
+}
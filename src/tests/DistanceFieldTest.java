@@ -0,0 +1,126 @@
+package tests;
+
+import maze.DistanceField;
+import maze.Maze;
+import maze.MazeSolver;
+import maze.Pillar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the distance field to the end of a maze and its cache.
+ *
+ * @author Shaun Howard
+ */
+public class DistanceFieldTest {
+
+    Maze maze;
+    List<Pillar> shortestPath;
+
+    @Before
+    public void setUp() throws Exception {
+        //only the first row is linked
+        maze = new Maze(5, 5);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        maze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        maze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(4, 0));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPathToEnd() throws Exception {
+        shortestPath = MazeSolver.pathToEnd(maze, 25);
+        assertEquals(5, shortestPath.size());
+        assertEquals("<0, 0>", shortestPath.get(0).getCoordinateString());
+        assertEquals("<4, 0>", shortestPath.get(4).getCoordinateString());
+
+        DistanceField field = MazeSolver.distanceField(maze);
+        assertEquals(0, field.distance(maze.index(4, 0)));
+        assertEquals(4, field.distance(maze.index(0, 0)));
+        assertEquals(-1, field.distance(maze.index(0, 1)));
+        assertNull(field.path(maze.index(0, 1)));
+        assertEquals(1, field.path(maze.index(4, 0)).size());
+    }
+
+    //Special, cached field case, Structured Basis, Data-flow, good data
+    @Test
+    public void testFieldIsCachedUntilPlanksChange() throws Exception {
+        DistanceField field = MazeSolver.distanceField(maze);
+        assertSame(field, MazeSolver.distanceField(maze));
+
+        //another begin reuses the field
+        maze.setBegin(Maze.position(2, 0));
+        assertEquals(3, MazeSolver.pathToEnd(maze, 25).size());
+        assertSame(field, MazeSolver.distanceField(maze));
+
+        //linking an already linked plank changes nothing
+        int version = maze.getLinkVersion();
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        assertEquals(version, maze.getLinkVersion());
+        assertSame(field, MazeSolver.distanceField(maze));
+
+        //a new plank makes the field stale
+        maze.linkPillars(Maze.position(0, 1), Maze.position(0, 0));
+        assertTrue(maze.getLinkVersion() > version);
+        assertFalse(field.isCurrent());
+        DistanceField rebuilt = MazeSolver.distanceField(maze);
+        assertNotSame(field, rebuilt);
+        assertEquals(5, rebuilt.distance(maze.index(0, 1)));
+
+        //another end needs another field
+        maze.setEnd(Maze.position(2, 0));
+        assertEquals(2, MazeSolver.distanceField(maze).getEnd());
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testMatchesPStarWithoutPlanks() throws Exception {
+        Random random = new Random(5);
+        Maze randomMaze = new Maze(7, 6);
+        for (int i = 0; i < randomMaze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int n = randomMaze.neighbor(i, d);
+                if (n >= 0 && random.nextInt(100) < 55) {
+                    randomMaze.linkPillars(Maze.position(i % 7, i / 7), Maze.position(n % 7, n / 7));
+                }
+            }
+        }
+        randomMaze.setEnd(Maze.position(3, 3));
+        for (int i = 0; i < randomMaze.size(); i++) {
+            randomMaze.setBegin(Maze.position(i % 7, i / 7));
+            List<Pillar> expected = MazeSolver.pStar(randomMaze, 42, 0);
+            shortestPath = MazeSolver.pathToEnd(randomMaze, 42);
+            if (expected == null) {
+                assertNull(shortestPath);
+            } else {
+                assertEquals(expected.size(), shortestPath.size());
+                PlankSearchTest.assertPathUsesPlanks(randomMaze, shortestPath, 0);
+            }
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testWithoutEnd() throws Exception {
+        MazeSolver.distanceField(new Maze(3, 3));
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testEndOutsideMaze() throws Exception {
+        new DistanceField(maze, 25);
+    }
+}
@@ -0,0 +1,227 @@
+package tests;
+
+import maze.HierarchicalSolver;
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.Pillar;
+import maze.PlankSearch;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the hierarchical path-finding over clusters of pillars.
+ *
+ * @author Shaun Howard
+ */
+public class HierarchicalSolverTest {
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testShortestWithoutPlanks() throws Exception {
+        MazeGenerator generator = new MazeGenerator(31);
+        Random random = new Random(31);
+        for (int trial = 0; trial < 12; trial++) {
+            Maze maze = generator.random(23, 19, 0.45 + trial * 0.03).toMaze();
+            HierarchicalSolver solver = new HierarchicalSolver(maze, 2 + trial % 6, 0);
+            PlankSearch search = new PlankSearch(maze, 0);
+            for (int query = 0; query < 10; query++) {
+                int begin = random.nextInt(maze.size());
+                int end = random.nextInt(maze.size());
+                int[] expected = search.findPath(begin, end);
+                int[] path = solver.findPath(begin, end);
+                if (expected == null) {
+                    assertNull(path);
+                    assertEquals(-1, solver.planksUsed());
+                    continue;
+                }
+                assertEquals(expected.length, path.length);
+                assertEquals(0, checkPath(maze, path, begin, end));
+                assertEquals(0, solver.planksUsed());
+            }
+        }
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testPlanksInsideClusters() throws Exception {
+        MazeGenerator generator = new MazeGenerator(7);
+        int found = 0;
+        for (int trial = 0; trial < 12; trial++) {
+            Maze maze = generator.random(24, 24, 0.5 + trial * 0.015).toMaze();
+            for (int planks = 1; planks <= 2; planks++) {
+                HierarchicalSolver solver = new HierarchicalSolver(maze, 6, planks);
+                int[] path = solver.findPath();
+                int[] expected = new PlankSearch(maze, planks).findPath();
+                if (path == null) {
+                    continue;
+                }
+                found++;
+                assertNotNull(expected);
+                assertTrue(path.length >= expected.length);
+                assertEquals(solver.planksUsed(), checkPath(maze, path, maze.beginIndex(), maze.endIndex()));
+                assertTrue(solver.planksUsed() <= planks);
+            }
+        }
+        assertTrue(found >= 12);
+    }
+
+    //Special, plank needed case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testPlankAcrossMiddleOfBorder() throws Exception {
+        //two rows linked along, with no plank between the clusters of 4 x 4
+        Maze maze = new Maze(8, 4);
+        for (int x = 0; x < 3; x++) {
+            maze.linkPillars(Maze.position(x, 2), Maze.position(x + 1, 2));
+        }
+        for (int x = 4; x < 7; x++) {
+            maze.linkPillars(Maze.position(x, 2), Maze.position(x + 1, 2));
+        }
+        maze.setBegin(Maze.position(0, 2));
+        maze.setEnd(Maze.position(7, 2));
+        assertNull(new HierarchicalSolver(maze, 4, 0).findPath());
+        HierarchicalSolver solver = new HierarchicalSolver(maze, 4, 1);
+        List<Pillar> path = solver.solve();
+        assertEquals(8, path.size());
+        assertEquals("<7, 2>", path.get(7).getCoordinateString());
+        assertEquals(1, solver.planksUsed());
+    }
+
+    //Special, changed planks case, Structured Basis, Data-flow, good data
+    @Test
+    public void testRebuildOnlyTouchedClusters() throws Exception {
+        Maze maze = new MazeGenerator(3).perfect(32, 32, MazeGenerator.Algorithm.BACKTRACKER).toMaze();
+        HierarchicalSolver solver = new HierarchicalSolver(maze, 8, 0);
+        maze.addListener(solver);
+        assertEquals(16, solver.rebuildCount());
+        assertNotNull(solver.findPath());
+        assertEquals(16, solver.rebuildCount());
+
+        //inside one cluster
+        maze.linkPillars(Maze.position(1, 1), Maze.position(2, 1));
+        maze.linkPillars(Maze.position(2, 1), Maze.position(1, 1));
+        int[] path = solver.findPath();
+        assertEquals(17, solver.rebuildCount());
+        assertEquals(new PlankSearch(maze, 0).findPath().length, path.length);
+
+        //across the border of two clusters, in a batch
+        maze.batch().link(Maze.position(7, 5), Maze.position(8, 5))
+                .link(Maze.position(8, 5), Maze.position(7, 5)).apply();
+        path = solver.findPath();
+        assertEquals(19, solver.rebuildCount());
+        assertEquals(new PlankSearch(maze, 0).findPath().length, path.length);
+
+        //told of directly
+        maze.removeListener(solver);
+        maze.unlinkPillars(Maze.position(7, 5), Maze.position(8, 5));
+        solver.linkChanged(maze.index(7, 5), Maze.LEFT);
+        solver.findPath();
+        assertEquals(21, solver.rebuildCount());
+
+        //not told of
+        if (maze.isLinked(maze.index(20, 20), Maze.LEFT)) {
+            maze.unlinkPillars(Maze.position(20, 20), Maze.position(21, 20));
+        } else {
+            maze.linkPillars(Maze.position(20, 20), Maze.position(21, 20));
+        }
+        path = solver.findPath();
+        assertEquals(37, solver.rebuildCount());
+        assertEquals(new PlankSearch(maze, 0).findPath().length, path.length);
+    }
+
+    //Special, untold change case, Structured Basis, Data-flow, good data
+    @Test
+    public void testChangeNotToldOf() throws Exception {
+        Maze maze = new Maze(8, 1);
+        for (int x = 0; x < 7; x++) {
+            maze.linkPillars(x, x + 1);
+        }
+        maze.setBegin(0);
+        maze.setEnd(7);
+        HierarchicalSolver solver = new HierarchicalSolver(maze, 2, 0);
+        assertEquals(8, solver.findPath().length);
+
+        //the solver is told of the second plank but not of the first
+        maze.unlinkPillars(2, 3);
+        maze.linkPillars(7, 6);
+        solver.linkChanged(7, Maze.RIGHT);
+        assertNull(solver.findPath());
+        assertEquals(8, solver.rebuildCount());
+    }
+
+    //Special, one pillar case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testBeginIsEnd() throws Exception {
+        Maze maze = new Maze(5, 5);
+        maze.setBegin(Maze.position(3, 3));
+        maze.setEnd(Maze.position(3, 3));
+        HierarchicalSolver solver = new HierarchicalSolver(maze, 2, 0);
+        assertEquals(1, solver.findPath().length);
+        assertNull(solver.findPath(0, -1));
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testBadArguments() throws Exception {
+        Maze maze = new Maze(4, 4);
+        try {
+            new HierarchicalSolver(maze, 1, 0);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The cluster size was less than 2.", e.getMessage());
+        }
+        try {
+            new HierarchicalSolver(maze, 2, -1);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The number of planks was negative.", e.getMessage());
+        }
+        try {
+            new HierarchicalSolver(maze, 2, 0).findPath();
+            fail();
+        } catch (Exception e) {
+            assertEquals("The maze has no beginning pillar.", e.getMessage());
+        }
+        int[][] pairs = {{-1, 0}, {16, 0}, {0, -2}, {0, 16}};
+        String[] messages = {"The beginning pillar is outside the maze.", "The beginning pillar is outside the maze.",
+                "The end pillar is outside the maze.", "The end pillar is outside the maze."};
+        for (int i = 0; i < pairs.length; i++) {
+            try {
+                new HierarchicalSolver(maze, 2, 0).findPath(pairs[i][0], pairs[i][1]);
+                fail();
+            } catch (Exception e) {
+                assertEquals(messages[i], e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks a path steps between neighbors from the beginning to the end
+     * and counts the steps that need a plank.
+     */
+    static int checkPath(Maze maze, int[] path, int begin, int end) {
+        assertEquals(begin, path[0]);
+        assertEquals(end, path[path.length - 1]);
+        int unlinked = 0;
+        for (int i = 1; i < path.length; i++) {
+            int direction = -1;
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                if (maze.neighbor(path[i - 1], d) == path[i]) {
+                    direction = d;
+                }
+            }
+            assertTrue(direction >= 0);
+            if (!maze.isLinked(path[i - 1], direction)) {
+                unlinked++;
+            }
+        }
+        return unlinked;
+    }
+}
@@ -0,0 +1,106 @@
+package tests;
+
+import maze.Histogram;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the lock-free histogram.
+ *
+ * @author Shaun Howard
+ */
+public class HistogramTest {
+
+    Histogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new Histogram();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testQuantiles() throws Exception {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshotAndReset();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5, snapshot.getMean(), 1e-9);
+        assertWithin(500, snapshot.getValueAt(0.5));
+        assertWithin(990, snapshot.getValueAt(0.99));
+        assertWithin(999, snapshot.getValueAt(0.999));
+        assertEquals(1, snapshot.getValueAt(0));
+        assertEquals(1000, snapshot.getValueAt(1));
+    }
+
+    //Stress-test, large values, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testLargeValuesWithinPrecision() throws Exception {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 1000; trial++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            histogram.record(value);
+            Histogram.Snapshot snapshot = histogram.snapshotAndReset();
+            assertEquals(value, snapshot.getMax());
+            assertEquals(value, snapshot.getValueAt(0.5));
+        }
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(Long.MAX_VALUE / 3);
+        assertWithin(Long.MAX_VALUE / 3, histogram.snapshotAndReset().getValueAt(0.5));
+    }
+
+    //Special, reset case, Structured Basis, Data-flow, bad data, boundary
+    @Test
+    public void testSnapshotResets() throws Exception {
+        histogram.record(-5);
+        histogram.record(7);
+        Histogram.Snapshot snapshot = histogram.snapshotAndReset();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAt(0.5));
+
+        snapshot = histogram.snapshotAndReset();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMean(), 0);
+        assertEquals(0, snapshot.getValueAt(0.99));
+    }
+
+    //Stress-test, many threads, Structured Basis, Data-flow, good data
+    @Test
+    public void testNoValueLostAcrossSnapshots() throws Exception {
+        final int threads = 4, values = 20000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < values; i++) {
+                        histogram.record(i);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        long count = 0;
+        while (done.getCount() > 0) {
+            count += histogram.snapshotAndReset().getCount();
+        }
+        count += histogram.snapshotAndReset().getCount();
+        assertEquals(threads * values, count);
+    }
+
+    /**
+     * Checks that a value given by the histogram is within its precision.
+     */
+    static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, Math.abs(actual - expected) <= expected / 64);
+    }
+}
@@ -0,0 +1,240 @@
+package tests;
+
+import maze.IncrementalSolver;
+import maze.Maze;
+import maze.PlankSearch;
+import maze.Pillar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests solving a maze again after its planks change.
+ *
+ * @author Shaun Howard
+ */
+public class IncrementalSolverTest {
+
+    Maze maze;
+    List<Pillar> shortestPath;
+
+    @Before
+    public void setUp() throws Exception {
+        //only the first row is linked
+        maze = new Maze(5, 5);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        maze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        maze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(4, 2));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPlanksAdded() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(maze, 1);
+        assertNull(solver.solve());
+        assertEquals(-1, solver.planksUsed());
+
+        solver.linkPillars(Maze.position(4, 0), Maze.position(4, 1));
+        shortestPath = solver.solve();
+        assertEquals(7, shortestPath.size());
+        assertEquals(1, solver.planksUsed());
+        assertEquals("<4, 2>", shortestPath.get(6).getCoordinateString());
+
+        solver.linkPillars(Maze.position(4, 1), Maze.position(4, 2));
+        assertEquals(7, solver.solve().size());
+        assertEquals(0, solver.planksUsed());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testPrimitiveLinks() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(maze, 0);
+        assertNull(solver.solve());
+
+        solver.linkPillars(Maze.coordinate(4, 0), Maze.coordinate(4, 1));
+        maze.linkPillars(maze.index(4, 1), maze.index(4, 2));
+        assertEquals(7, solver.solve().size());
+
+        solver.unlinkPillars(Maze.coordinate(4, 0), Maze.coordinate(4, 1));
+        assertNull(solver.solve());
+        maze.unlinkPillars(maze.index(4, 1), maze.index(4, 2));
+        maze.linkPillars(maze.index(4, 0), maze.index(4, 1));
+        assertNull(solver.solve());
+        assertEquals(7, new IncrementalSolver(maze, 1).solve().size());
+        try {
+            solver.linkPillars(Maze.coordinate(4, 4), Maze.coordinate(5, 4));
+            fail("Exception should be thrown for a coordinate outside the maze.");
+        } catch (Exception e) {
+            assertNull(solver.solve());
+        }
+    }
+
+    //Special, moved end case, Structured Basis, Data-flow, good data
+    @Test
+    public void testEndMoved() throws Exception {
+        IncrementalSolver solver = new IncrementalSolver(maze, 0);
+        assertNull(solver.solve());
+        maze.setEnd(Maze.position(3, 0));
+        assertEquals(4, solver.solve().size());
+
+        //a plank the solver was not told of is still found
+        maze.linkPillars(Maze.position(0, 0), Maze.position(0, 1));
+        maze.setEnd(Maze.position(0, 1));
+        assertEquals(2, solver.solve().size());
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testMatchesPlankSearchUnderChanges() throws Exception {
+        Random random = new Random(13);
+        for (int trial = 0; trial < 20; trial++) {
+            Maze randomMaze = randomMaze(random, 12, 10, 50);
+            randomMaze.setBegin(Maze.position(random.nextInt(12), random.nextInt(10)));
+            randomMaze.setEnd(Maze.position(random.nextInt(12), random.nextInt(10)));
+            for (int planks = 0; planks <= 2; planks++) {
+                IncrementalSolver solver = new IncrementalSolver(randomMaze, planks);
+                PlankSearch search = new PlankSearch(randomMaze, planks);
+                for (int change = 0; change < 30; change++) {
+                    shortestPath = solver.solve();
+                    assertSameLength(search.solve(), shortestPath);
+                    if (shortestPath != null) {
+                        PlankSearchTest.assertPathUsesPlanks(randomMaze, shortestPath, planks);
+                        assertEquals(randomMaze.getBegin(), shortestPath.get(0));
+                        assertEquals(randomMaze.getEnd(), shortestPath.get(shortestPath.size() - 1));
+                    }
+                    toggleRandomPlank(random, randomMaze, solver);
+                }
+            }
+        }
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testRepairExpandsLess() throws Exception {
+        Random random = new Random(17);
+        Maze largeMaze = randomMaze(random, 80, 80, 60);
+        largeMaze.setBegin(Maze.position(0, 0));
+        largeMaze.setEnd(Maze.position(79, 79));
+        IncrementalSolver solver = new IncrementalSolver(largeMaze, 1);
+        List<Pillar> first = solver.solve();
+        int full = solver.expandedCount();
+
+        solver.linkPillars(Maze.position(40, 0), Maze.position(40, 1));
+        assertSameLength(new PlankSearch(largeMaze, 1).solve(), solver.solve());
+        assertTrue(first == null || solver.expandedCount() < full);
+    }
+
+    //Special, untold change case, Structured Basis, Data-flow, good data
+    @Test
+    public void testChangeNotToldOf() throws Exception {
+        maze.linkPillars(Maze.position(4, 0), Maze.position(4, 1));
+        maze.linkPillars(Maze.position(4, 1), Maze.position(4, 2));
+        IncrementalSolver solver = new IncrementalSolver(maze, 0);
+        assertEquals(7, solver.solve().size());
+
+        //the solver is told of the second plank but not of the first
+        maze.unlinkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        maze.linkPillars(Maze.position(0, 0), Maze.position(0, 1));
+        solver.linkChanged(maze.index(0, 0), Maze.ABOVE);
+        assertNull(solver.solve());
+        assertNull(new PlankSearch(maze, 0).solve());
+    }
+
+    //Special, listening solver case, Structured Basis, Data-flow, good data
+    @Test
+    public void testListensToBatches() throws Exception {
+        Random random = new Random(19);
+        Maze randomMaze = randomMaze(random, 15, 15, 50);
+        randomMaze.setBegin(Maze.position(0, 0));
+        randomMaze.setEnd(Maze.position(14, 14));
+        IncrementalSolver solver = new IncrementalSolver(randomMaze, 1);
+        randomMaze.addListener(solver);
+        PlankSearch search = new PlankSearch(randomMaze, 1);
+        for (int round = 0; round < 20; round++) {
+            assertSameLength(search.solve(), solver.solve());
+            Maze.Batch batch = randomMaze.batch();
+            for (int change = 0; change < 5; change++) {
+                int i = random.nextInt(randomMaze.size());
+                int n = randomMaze.neighbor(i, random.nextInt(Maze.DIRECTIONS));
+                if (n >= 0) {
+                    Maze.Position start = Maze.position(i % 15, i / 15);
+                    Maze.Position end = Maze.position(n % 15, n / 15);
+                    if (random.nextBoolean()) {
+                        batch.link(start, end);
+                    } else {
+                        batch.unlink(start, end);
+                    }
+                }
+            }
+            batch.apply();
+        }
+        assertSameLength(search.solve(), solver.solve());
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testNegativePlanks() throws Exception {
+        new IncrementalSolver(maze, -1);
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testWithoutBeginning() throws Exception {
+        new IncrementalSolver(new Maze(3, 3), 1).solve();
+    }
+
+    /**
+     * Makes a maze linking each pillar to each neighbor
+     * with the given chance in percent.
+     */
+    static Maze randomMaze(Random random, int length, int width, int density) throws Exception {
+        Maze maze = new Maze(length, width);
+        for (int i = 0; i < maze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int n = maze.neighbor(i, d);
+                if (n >= 0 && random.nextInt(100) < density) {
+                    maze.linkPillars(Maze.position(i % length, i / length),
+                            Maze.position(n % length, n / length));
+                }
+            }
+        }
+        return maze;
+    }
+
+    /**
+     * Adds or removes a random plank and reports it to the solver.
+     */
+    static void toggleRandomPlank(Random random, Maze maze, IncrementalSolver solver) throws Exception {
+        int i = random.nextInt(maze.size());
+        int d = random.nextInt(Maze.DIRECTIONS);
+        int n = maze.neighbor(i, d);
+        if (n < 0) {
+            return;
+        }
+        Maze.Position start = Maze.position(i % maze.length(), i / maze.length());
+        Maze.Position end = Maze.position(n % maze.length(), n / maze.length());
+        if (maze.isLinked(i, d)) {
+            solver.unlinkPillars(start, end);
+        } else {
+            solver.linkPillars(start, end);
+        }
+    }
+
+    static void assertSameLength(List<Pillar> expected, List<Pillar> actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertEquals(expected.size(), actual.size());
+        }
+    }
+}
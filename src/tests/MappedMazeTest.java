@@ -0,0 +1,138 @@
+package tests;
+
+import maze.MappedMaze;
+import maze.Maze;
+import maze.PlankSearch;
+import maze.Pillar;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the memory-mapped binary maze format.
+ *
+ * @author Shaun Howard
+ */
+public class MappedMazeTest {
+
+    File file;
+    Maze maze;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("maze", ".pmz");
+        maze = new Maze(5, 3);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.linkPillars(Maze.position(1, 0), Maze.position(1, 1));
+        maze.linkPillars(Maze.position(4, 2), Maze.position(3, 2));
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(4, 2));
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testWriteAndOpen() throws Exception {
+        MappedMaze.write(maze, file);
+        assertEquals(20 + 8, file.length());
+
+        MappedMaze mapped = MappedMaze.open(file);
+        assertEquals(5, mapped.length());
+        assertEquals(3, mapped.width());
+        assertEquals(15, mapped.size());
+        assertEquals(maze.beginIndex(), mapped.beginIndex());
+        assertEquals(maze.endIndex(), mapped.endIndex());
+        for (int i = 0; i < maze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                assertEquals(maze.neighbor(i, d), mapped.neighbor(i, d));
+                assertEquals(maze.isLinked(i, d), mapped.isLinked(i, d));
+                assertEquals(maze.isLinkedFrom(i, d), mapped.isLinkedFrom(i, d));
+            }
+        }
+    }
+
+    //Special, no beginning or end case, Structured Basis, Data-flow, boundary
+    @Test
+    public void testWithoutBeginningOrEnd() throws Exception {
+        MappedMaze.write(new Maze(2, 2), file);
+        MappedMaze mapped = MappedMaze.open(file);
+        assertEquals(-1, mapped.beginIndex());
+        assertEquals(-1, mapped.endIndex());
+        try {
+            new PlankSearch(mapped, 1).findPath();
+            fail("Exception should be thrown for a maze without a beginning.");
+        } catch (Exception e) {
+            assertEquals("The maze has no beginning pillar.", e.getMessage());
+        }
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testSearchMatchesMaze() throws Exception {
+        Random random = new Random(23);
+        for (int trial = 0; trial < 20; trial++) {
+            Maze randomMaze = IncrementalSolverTest.randomMaze(random, 9, 7, 50);
+            randomMaze.setBegin(Maze.position(random.nextInt(9), random.nextInt(7)));
+            randomMaze.setEnd(Maze.position(random.nextInt(9), random.nextInt(7)));
+            MappedMaze.write(randomMaze, file);
+            MappedMaze mapped = MappedMaze.open(file);
+            for (int planks = 0; planks <= 2; planks++) {
+                List<Pillar> expected = new PlankSearch(randomMaze, planks).solve();
+                int[] path = new PlankSearch(mapped, planks).findPath();
+                if (expected == null) {
+                    assertNull(path);
+                } else {
+                    int[] indices = new int[expected.size()];
+                    for (int i = 0; i < indices.length; i++) {
+                        indices[i] = randomMaze.indexOf(expected.get(i));
+                    }
+                    assertArrayEquals(indices, path);
+                }
+            }
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testNotAMazeFile() throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+        out.close();
+        try {
+            MappedMaze.open(file);
+            fail("Exception should be thrown for a file that is not a maze file.");
+        } catch (Exception e) {
+            assertEquals("The file is not a maze file.", e.getMessage());
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testTruncatedFile() throws Exception {
+        MappedMaze.write(maze, file);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(24);
+        raf.close();
+        try {
+            MappedMaze.open(file);
+            fail("Exception should be thrown for a truncated maze file.");
+        } catch (Exception e) {
+            assertEquals("The maze file is shorter than its planks.", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package tests;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import maze.Maze;
+import maze.MazeSolver;
+import maze.PathCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Flight Recorder events of the maze.
+ *
+ * @author Shaun Howard
+ */
+public class MazeEventsTest {
+
+    File file;
+    Recording recording;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("maze", ".jfr");
+        recording = new Recording();
+        recording.enable("maze.Construction").withoutThreshold();
+        recording.enable("maze.LinkBatch").withoutThreshold();
+        recording.enable("maze.Solve").withoutThreshold();
+        recording.enable("maze.CacheHit");
+    }
+
+    @After
+    public void tearDown() {
+        recording.close();
+        file.delete();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        recording.start();
+        Maze maze = new Maze(4, 3);
+        maze.batch().link(Maze.position(0, 0), Maze.position(1, 0))
+                .link(Maze.position(0, 0), Maze.position(1, 0))
+                .link(Maze.position(1, 0), Maze.position(2, 0)).apply();
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(3, 0));
+        MazeSolver.pStar(maze, 12);
+        MazeSolver.pStar(maze, 12, 0);
+        PathCache cache = new PathCache(4);
+        cache.pStar(maze, 12, 1);
+        cache.pStar(maze, 12, 1);
+        recording.stop();
+        recording.dump(file.toPath());
+
+        RecordedEvent construction = only("maze.Construction");
+        assertEquals(4, construction.getInt("length"));
+        assertEquals(3, construction.getInt("width"));
+
+        RecordedEvent batch = only("maze.LinkBatch");
+        assertEquals(3, batch.getInt("requested"));
+        assertEquals(2, batch.getInt("changed"));
+        assertEquals(2, batch.getInt("linkVersion"));
+
+        List<RecordedEvent> solves = events("maze.Solve");
+        assertEquals(3, solves.size());
+        RecordedEvent pStar = solves.get(0);
+        assertEquals("P*", pStar.getString("search"));
+        assertEquals(0, pStar.getInt("begin"));
+        assertEquals(3, pStar.getInt("end"));
+        assertEquals(4, pStar.getInt("pathLength"));
+        assertTrue(pStar.getLong("expanded") >= 4);
+        RecordedEvent withoutPlanks = solves.get(1);
+        assertEquals("PlankSearch", withoutPlanks.getString("search"));
+        assertEquals(0, withoutPlanks.getInt("planks"));
+        assertEquals(-1, withoutPlanks.getInt("pathLength"));
+
+        RecordedEvent hit = only("maze.CacheHit");
+        assertEquals(1, hit.getInt("planks"));
+        assertEquals(4, hit.getInt("pathLength"));
+        assertEquals(maze.getVersion(), hit.getInt("version"));
+    }
+
+    //Special, recording off case, Structured Basis, Data-flow, good data
+    @Test
+    public void testNothingRecordedWhenOff() throws Exception {
+        Maze maze = new Maze(2, 2);
+        maze.setBegin(Maze.position(0, 0));
+        MazeSolver.pStar(maze, 4);
+        recording.start();
+        recording.stop();
+        recording.dump(file.toPath());
+        assertEquals(0, events("maze.Construction").size());
+        assertEquals(0, events("maze.Solve").size());
+    }
+
+    RecordedEvent only(String name) throws Exception {
+        List<RecordedEvent> events = events(name);
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+
+    List<RecordedEvent> events(String name) throws Exception {
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            if (event.getEventType().getName().equals(name)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+}
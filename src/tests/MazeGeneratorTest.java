@@ -0,0 +1,171 @@
+package tests;
+
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.PackedGrid;
+import maze.PlankSearch;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the seeded maze generator.
+ *
+ * @author Shaun Howard
+ */
+public class MazeGeneratorTest {
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testPerfectMazeIsSpanningTree() throws Exception {
+        for (MazeGenerator.Algorithm algorithm : MazeGenerator.Algorithm.values()) {
+            PackedGrid grid = new MazeGenerator(5).perfect(37, MazeGenerator.BAND_ROWS * 2 + 9, algorithm);
+            int passages = 0;
+            for (int i = 0; i < grid.size(); i++) {
+                for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                    assertEquals(grid.isLinked(i, d), grid.isLinkedFrom(i, d));
+                    if (grid.isLinked(i, d)) {
+                        passages++;
+                    }
+                }
+            }
+            assertEquals(2 * (grid.size() - 1), passages);
+            assertEquals(grid.size(), reachable(grid, 0));
+            assertEquals(0, grid.beginIndex());
+            assertEquals(grid.size() - 1, grid.endIndex());
+        }
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testSameSeedSameMaze() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        ExecutorService many = Executors.newFixedThreadPool(4);
+        try {
+            int width = MazeGenerator.BAND_ROWS * 3 + 1;
+            assertSameGrid(new MazeGenerator(11, single).perfect(20, width, MazeGenerator.Algorithm.WILSON),
+                    new MazeGenerator(11, many).perfect(20, width, MazeGenerator.Algorithm.WILSON));
+            assertSameGrid(new MazeGenerator(11, single).random(20, width, 0.4),
+                    new MazeGenerator(11).random(20, width, 0.4));
+            assertSameGrid(new MazeGenerator(11, many).perfect(20, width, MazeGenerator.Algorithm.BACKTRACKER),
+                    new MazeGenerator(11).perfect(20, width, MazeGenerator.Algorithm.BACKTRACKER));
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    //Special, corridor case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testCorridorPassesEveryPillar() throws Exception {
+        MazeGenerator generator = new MazeGenerator(3);
+        int[][] sizes = {{1, 1}, {6, 1}, {1, 6}, {9, 4}, {8, MazeGenerator.BAND_ROWS + 3}};
+        for (int[] size : sizes) {
+            PackedGrid grid = generator.corridor(size[0], size[1]);
+            int[] path = new PlankSearch(grid, 0).findPath();
+            assertNotNull(path);
+            assertEquals(grid.size(), path.length);
+            assertEquals(grid.endIndex(), path[path.length - 1]);
+        }
+    }
+
+    //Special, one plank case, Structured Basis, Data-flow, good data
+    @Test
+    public void testOnePlankMazeNeedsOnePlank() throws Exception {
+        for (long seed = 0; seed < 5; seed++) {
+            PackedGrid grid = new MazeGenerator(seed).onePlank(15, 12, MazeGenerator.Algorithm.BACKTRACKER);
+            assertNull(new PlankSearch(grid, 0).findPath());
+            PlankSearch search = new PlankSearch(grid, 1);
+            assertNotNull(search.findPath());
+        }
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testRandomDensityAndToMaze() throws Exception {
+        PackedGrid grid = new MazeGenerator(7).random(40, 30, 0.5);
+        int links = 0;
+        for (int i = 0; i < grid.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                if (grid.isLinked(i, d)) {
+                    links++;
+                }
+            }
+        }
+        int possible = 2 * (2 * 40 * 30 - 40 - 30);
+        assertTrue(links > possible * 0.45 && links < possible * 0.55);
+
+        Maze maze = grid.toMaze();
+        assertEquals(grid.beginIndex(), maze.beginIndex());
+        assertEquals(grid.endIndex(), maze.endIndex());
+        assertSameGrid(grid, maze);
+        assertEquals(0, new MazeGenerator(7).random(5, 5, 0).toMaze().getLinkVersion());
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testBadArguments() throws Exception {
+        MazeGenerator generator = new MazeGenerator(1);
+        try {
+            generator.random(3, 3, 1.5);
+            fail("Exception should be thrown for a density above 1.");
+        } catch (Exception e) {
+            assertEquals("The density was not between 0 and 1.", e.getMessage());
+        }
+        try {
+            generator.corridor(0, 3);
+            fail("Exception should be thrown for a maze without pillars.");
+        } catch (Exception e) {
+            assertEquals("The maze must have at least one pillar.", e.getMessage());
+        }
+        try {
+            generator.onePlank(1, 1, MazeGenerator.Algorithm.WILSON);
+            fail("Exception should be thrown for a maze of one pillar.");
+        } catch (Exception e) {
+            assertEquals("The maze needs two pillars to need a plank.", e.getMessage());
+        }
+        try {
+            new MazeGenerator(1, null);
+            fail("Exception should be thrown for a null executor.");
+        } catch (Exception e) {
+            //expected
+        }
+    }
+
+    void assertSameGrid(maze.PillarGrid expected, maze.PillarGrid actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                assertEquals(expected.isLinked(i, d), actual.isLinked(i, d));
+            }
+        }
+    }
+
+    int reachable(PackedGrid grid, int begin) {
+        boolean[] seen = new boolean[grid.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(begin);
+        seen[begin] = true;
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            count++;
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int u = grid.neighbor(v, d);
+                if (grid.isLinked(v, d) && !seen[u]) {
+                    seen[u] = true;
+                    queue.add(u);
+                }
+            }
+        }
+        return count;
+    }
+}
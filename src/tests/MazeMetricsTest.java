@@ -0,0 +1,135 @@
+package tests;
+
+import maze.Maze;
+import maze.MazeMetrics;
+import maze.MazeSolver;
+import maze.SearchResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the registry of search metrics.
+ *
+ * @author Shaun Howard
+ */
+public class MazeMetricsTest {
+
+    MazeMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new MazeMetrics();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testBucketsBySize() throws Exception {
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(1000, i * 1000, i, i % 10 != 0);
+        }
+        metrics.record(1024, 5, 5, true);
+        metrics.record(1025, 7, 7, false);
+        metrics.record(1, 1, 1, true);
+
+        List<MazeMetrics.Snapshot> snapshots = metrics.snapshotAndReset();
+        assertEquals(3, snapshots.size());
+        assertEquals(1, snapshots.get(0).getMaxPillars());
+        MazeMetrics.Snapshot thousand = snapshots.get(1);
+        assertEquals(1024, thousand.getMaxPillars());
+        assertEquals(101, thousand.getQueries());
+        assertEquals(10, thousand.getFailures());
+        assertEquals(10 / 101.0, thousand.getFailureRate(), 1e-9);
+        assertEquals(101, thousand.getLatency().getCount());
+        assertEquals(100000, thousand.getLatency().getMax());
+        assertTrue(Math.abs(thousand.getExpansions().getValueAt(0.5) - 50) <= 1);
+        assertEquals(2048, snapshots.get(2).getMaxPillars());
+        assertEquals(1.0, snapshots.get(2).getFailureRate(), 0);
+
+        assertTrue(metrics.snapshotAndReset().isEmpty());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testPStarIsRecorded() throws Exception {
+        Maze maze = new Maze(3, 3);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(2, 2));
+        SearchResult result = metrics.pStar(maze, 9, 3);
+        assertEquals(5, result.getPath().size());
+        assertNull(metrics.pStar(maze, 9, 0).getPath());
+
+        MazeMetrics.Snapshot snapshot = metrics.snapshotAndReset().get(0);
+        assertEquals(16, snapshot.getMaxPillars());
+        assertEquals(2, snapshot.getQueries());
+        assertEquals(1, snapshot.getFailures());
+        assertTrue(snapshot.getExpansions().getMax() >= 5);
+        assertTrue(snapshot.getLatency().getMax() > 0);
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testSolverRecords() throws Exception {
+        Maze maze = new Maze(3, 3);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(2, 0));
+        MazeSolver.setMetrics(metrics);
+        try {
+            assertEquals(3, MazeSolver.pStar(maze, 9).size());
+            assertNull(MazeSolver.pStar(maze, 9, 0));
+            assertEquals(3, MazeSolver.pStarWithStats(maze, 9, 1).getPath().size());
+            metrics.pStar(maze, 9, 2);
+        } finally {
+            MazeSolver.setMetrics(null);
+        }
+        MazeSolver.pStar(maze, 9);
+
+        MazeMetrics.Snapshot snapshot = metrics.snapshotAndReset().get(0);
+        assertEquals(4, snapshot.getQueries());
+        assertEquals(1, snapshot.getFailures());
+        assertEquals(4, snapshot.getLatency().getCount());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testExport() throws Exception {
+        metrics.record(100, 2000, 30, true);
+        metrics.record(100, 4000, 50, false);
+        StringWriter text = new StringWriter();
+        metrics.exportAndReset(text);
+
+        String exported = text.toString();
+        assertTrue(exported.contains("# TYPE pillarmaze_solve_queries counter\n"));
+        assertTrue(exported.contains("pillarmaze_solve_queries{max_pillars=\"128\"} 2\n"));
+        assertTrue(exported.contains("pillarmaze_solve_failures{max_pillars=\"128\"} 1\n"));
+        assertTrue(exported.contains("pillarmaze_solve_failure_rate{max_pillars=\"128\"} 0.500000\n"));
+        assertTrue(exported.contains("pillarmaze_solve_latency_nanos{max_pillars=\"128\",quantile=\"0.5\"} 2"));
+        assertTrue(exported.contains("pillarmaze_solve_latency_nanos{max_pillars=\"128\",quantile=\"0.999\"} 4000\n"));
+        assertTrue(exported.contains("pillarmaze_solve_latency_nanos_sum{max_pillars=\"128\"} 6000\n"));
+        assertTrue(exported.contains("pillarmaze_solve_expanded_count{max_pillars=\"128\"} 2\n"));
+
+        text = new StringWriter();
+        metrics.exportAndReset(text);
+        assertTrue(!text.toString().contains("max_pillars"));
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testExportToNull() throws Exception {
+        try {
+            metrics.exportAndReset(null);
+            fail("Exception should be thrown for a null writer.");
+        } catch (Exception e) {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package tests;
+
+import maze.Maze;
+import maze.MazeParser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the streaming text maze parser.
+ *
+ * @author Shaun Howard
+ */
+public class MazeParserTest {
+
+    MazeParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new MazeParser();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testParse() throws Exception {
+        Maze maze = parser.parse(new StringReader(
+                "# a small maze\n"
+                        + "maze 5 3\n"
+                        + "\n"
+                        + "begin 0 0\r\n"
+                        + "\tend  4 2\n"
+                        + "link 0 0 1 0\n"
+                        + "link 1 0 1 1   \n"
+                        + "   # an indented comment\n"
+                        + "link 4 2 3 2"));
+        assertEquals(5, maze.length());
+        assertEquals(3, maze.width());
+        assertEquals("<0, 0>", maze.getBegin().getCoordinateString());
+        assertEquals("<4, 2>", maze.getEnd().getCoordinateString());
+        assertTrue(maze.isLinked(maze.index(0, 0), Maze.LEFT));
+        assertTrue(maze.isLinked(maze.index(1, 0), Maze.ABOVE));
+        assertTrue(maze.isLinked(maze.index(4, 2), Maze.RIGHT));
+        assertFalse(maze.isLinked(maze.index(1, 0), Maze.RIGHT));
+
+        assertEquals(9, parser.getLines());
+        assertEquals(3, parser.getLinks());
+        assertTrue(parser.getChars() > 0);
+        assertTrue(parser.getNanos() > 0);
+        assertTrue(parser.linksPerSecond() > 0);
+        assertTrue(parser.charsPerSecond() > 0);
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testWriteAndParse() throws Exception {
+        Random random = new Random(29);
+        Maze maze = IncrementalSolverTest.randomMaze(random, 40, 30, 50);
+        maze.setBegin(Maze.position(3, 4));
+        maze.setEnd(Maze.position(39, 29));
+        StringWriter text = new StringWriter();
+        MazeParser.write(maze, text);
+
+        Maze parsed = new MazeParser(7).parse(new StringReader(text.toString()));
+        assertEquals(maze.beginIndex(), parsed.beginIndex());
+        assertEquals(maze.endIndex(), parsed.endIndex());
+        for (int i = 0; i < maze.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                assertEquals(maze.isLinked(i, d), parsed.isLinked(i, d));
+            }
+        }
+    }
+
+    //Special, batching case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testLinksInBatches() throws Exception {
+        MazeParser batched = new MazeParser(2);
+        Maze maze = batched.parse(new StringReader("maze 3 3\n"
+                + "link 0 0 1 0\nlink 1 0 2 0\nlink 2 0 2 1\nlink 2 1 2 2\nlink 0 0 0 1\n"));
+        assertEquals(5, batched.getLinks());
+        assertEquals(3, batched.getBatches());
+        assertEquals(5, maze.getLinkVersion());
+
+        batched.parse(new StringReader("maze 3 3\nlink 0 0 1 0\nlink 1 0 2 0\n"));
+        assertEquals(1, batched.getBatches());
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testErrorsNameTheLine() throws Exception {
+        assertParseError("link 0 0 1 0\n", "Line 1: The maze size must be given first.");
+        assertParseError("maze 3 3\nmaze 3 3\n", "Line 2: The maze size was given twice.");
+        assertParseError("maze 3 3\n\nlink 0 0 3 0\n", "Line 3: The position is outside the maze.");
+        assertParseError("maze 3 3\nlink 0 0 1 1\n", "Line 2: The positions are not next to each other.");
+        assertParseError("maze 4 4\nlink 0 0 3 3\n", "Line 2: The positions are not next to each other.");
+        assertParseError("maze 3 3\nlink 1 1 1 1\n", "Line 2: The positions are not next to each other.");
+        assertParseError("maze 3 3\nlink 2 0 0 1\n", "Line 2: The positions are not next to each other.");
+        assertParseError("maze 3 3\nlink 0 0 1\n", "Line 2: Expected a number.");
+        assertParseError("maze 3 3\nlink 0 0 1 0 2\n", "Line 2: Unexpected text at the end of the line.");
+        assertParseError("maze 3 x\n", "Line 1: Expected a number.");
+        assertParseError("maze 3 3\nlinks 0 0 1 0\n", "Line 2: Unknown statement.");
+        assertParseError("maze 3 3\nbegin -1 0\n", "Line 2: Expected a number.");
+        assertParseError("maze 99999999999 3\n", "Line 1: The number is too large.");
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testEmptyText() throws Exception {
+        try {
+            parser.parse(new StringReader("# nothing\n"));
+            fail("Exception should be thrown for text without a maze size.");
+        } catch (Exception e) {
+            assertEquals("The text has no maze size.", e.getMessage());
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testBadBatchSize() throws Exception {
+        new MazeParser(0);
+    }
+
+    void assertParseError(String text, String message) {
+        try {
+            parser.parse(new StringReader(text));
+            fail("Exception should be thrown for " + text);
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+    }
+}
@@ -2,7 +2,11 @@ package tests;
 
 import maze.Maze;
 import maze.MazeSolver;
+import maze.OpenList;
 import maze.Pillar;
+import maze.SearchContext;
+import maze.SearchResult;
+import maze.SearchStats;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -11,6 +15,8 @@ import java.lang.reflect.Method;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -21,8 +27,8 @@ import static org.junit.Assert.fail;
 public class MazeSolverTest {
 
     Map<Maze.Position, Pillar> testPillars;
-    Set<Pillar> testESet;
-    PriorityQueue<Pillar> testNQueue;
+    SearchContext testContext;
+    OpenList testNQueue;
     Pillar testPillar;
 
     MazeSolver solver;
@@ -40,8 +46,7 @@ public class MazeSolverTest {
 
     @Before
     public void setUp() {
-        testESet = new HashSet<>();
-        testNQueue = new PriorityQueue<>();
+        testNQueue = OpenList.Type.PRIORITY_QUEUE.create(25);
         solver = new MazeSolver();
         zeroPillarMaze = new Maze(0, 0);
         onePillarMaze = new Maze(1, 1);
@@ -51,8 +56,8 @@ public class MazeSolverTest {
 
         // Gather initializeSearch() method
         try {
-            initSearch = solver.getClass().getDeclaredMethod("initializeSearch", Maze.class, Set.class,
-                    PriorityQueue.class);
+            initSearch = solver.getClass().getDeclaredMethod("initializeSearch", SearchContext.class,
+                    OpenList.class);
             initSearch.setAccessible(true);
         } catch (NoSuchMethodException e) {
             fail("Unable to find initializeSearch() method declaration.");
@@ -60,8 +65,8 @@ public class MazeSolverTest {
 
         // Gather attemptLinks() method
         try {
-            attemptLinks = solver.getClass().getDeclaredMethod("attemptLinks", Pillar.class, Pillar.class,
-                    Set.class, PriorityQueue.class);
+            attemptLinks = solver.getClass().getDeclaredMethod("attemptLinks", SearchContext.class, int.class,
+                    int.class, OpenList.class);
             attemptLinks.setAccessible(true);
         } catch (NoSuchMethodException e) {
             fail("Unable to find attemptLinks() method declaration.");
@@ -391,10 +396,10 @@ public class MazeSolverTest {
             assertEquals("<4, 4>", shortestPath.get(8).getCoordinateString());
 
             assertEquals("<0, 0>", shortestPath2.get(0).getCoordinateString());
-            assertEquals("<0, 1>", shortestPath2.get(1).getCoordinateString());
-            assertEquals("<0, 2>", shortestPath2.get(2).getCoordinateString());
-            assertEquals("<0, 3>", shortestPath2.get(3).getCoordinateString());
-            assertEquals("<0, 4>", shortestPath2.get(4).getCoordinateString());
+            assertEquals("<1, 0>", shortestPath2.get(1).getCoordinateString());
+            assertEquals("<1, 1>", shortestPath2.get(2).getCoordinateString());
+            assertEquals("<1, 2>", shortestPath2.get(3).getCoordinateString());
+            assertEquals("<1, 3>", shortestPath2.get(4).getCoordinateString());
             assertEquals("<1, 4>", shortestPath2.get(5).getCoordinateString());
             assertEquals("<2, 4>", shortestPath2.get(6).getCoordinateString());
             assertEquals("<3, 4>", shortestPath2.get(7).getCoordinateString());
@@ -603,12 +608,13 @@ public class MazeSolverTest {
     public void testInitializeSearch() {
         try {
         smallMaze.setBegin(Maze.position(1, 1));
-            initSearch.invoke(solver.getClass(), smallMaze, testESet, testNQueue);
+            testContext = new SearchContext(smallMaze);
+            initSearch.invoke(solver.getClass(), testContext, testNQueue);
         } catch (Exception e) {
             fail("Unexpectedly could not invoke initializeSearch().");
         }
 
-        assertEquals(1, testESet.size());
+        assertEquals(1, testContext.exploredCount());
         assertEquals(1, testNQueue.size());
     }
 
@@ -616,7 +622,7 @@ public class MazeSolverTest {
     @Test(expected = Exception.class)
     public void testInvalidSizeInitializeSearch() throws Exception {
         zeroPillarMaze.setBegin(Maze.position(0, 0));
-        initSearch.invoke(solver.getClass(), zeroPillarMaze, testESet, testNQueue);
+        initSearch.invoke(solver.getClass(), new SearchContext(zeroPillarMaze), testNQueue);
     }
 
     //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
@@ -660,15 +666,15 @@ public class MazeSolverTest {
 
         //invoke attemptLinks
         try {
-            testPillars = largeMaze.getPillars();
-            testPillar = testPillars.get(Maze.position(3,3));
-            testPillar.setPlanksLeft(1);
-            attemptLinks.invoke(solver.getClass(), testPillar, largeMaze.getEnd(), testESet, testNQueue);
+            testContext = new SearchContext(largeMaze);
+            testContext.setPlanksLeft(largeMaze.index(3, 3), 1);
+            attemptLinks.invoke(solver.getClass(), testContext, largeMaze.index(3, 3),
+                    largeMaze.index(4, 4), testNQueue);
         } catch (Exception e) {
             fail("Unexpectedly could not invoke attemptLinks().");
         }
 
-        assertEquals(3, testESet.size());
+        assertEquals(3, testContext.exploredCount());
         assertEquals(3, testNQueue.size());
     }
 
@@ -713,15 +719,254 @@ public class MazeSolverTest {
 
         //invoke attemptLinks
         try {
-            testPillars = largeMaze.getPillars();
-            testPillar = testPillars.get(Maze.position(3,3));
-            testPillar.setPlanksLeft(0);
-            attemptLinks.invoke(solver.getClass(), testPillar, largeMaze.getEnd(), testESet, testNQueue);
+            testContext = new SearchContext(largeMaze);
+            testContext.setPlanksLeft(largeMaze.index(3, 3), 0);
+            attemptLinks.invoke(solver.getClass(), testContext, largeMaze.index(3, 3),
+                    largeMaze.index(4, 4), testNQueue);
         } catch (Exception e) {
             fail("Unexpectedly could not invoke attemptLinks().");
         }
 
-        assertEquals(0, testESet.size());
+        assertEquals(0, testContext.exploredCount());
         assertEquals(0, testNQueue.size());
     }
+
+    //Concurrent case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testConcurrentSolvesOfOneMaze() throws Exception {
+        //link a serpentine through the extra large maze
+        for (int y = 0; y < extraLargeRectMaze.width(); y++) {
+            for (int x = 0; x < extraLargeRectMaze.length() - 1; x++) {
+                extraLargeRectMaze.linkPillars(Maze.position(x, y), Maze.position(x + 1, y));
+            }
+            int edge = y % 2 == 0 ? extraLargeRectMaze.length() - 1 : 0;
+            if (y < extraLargeRectMaze.width() - 1) {
+                extraLargeRectMaze.linkPillars(Maze.position(edge, y), Maze.position(edge, y + 1));
+            }
+        }
+        extraLargeRectMaze.setBegin(Maze.position(0, 0));
+        extraLargeRectMaze.setEnd(Maze.position(0, 9));
+
+        final List<Pillar> expected = MazeSolver.pStar(extraLargeRectMaze, 90);
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        SearchContext context = new SearchContext(extraLargeRectMaze);
+                        for (int j = 0; j < 50; j++) {
+                            assertEquals(expected, MazeSolver.pStar(context));
+                        }
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.size());
+        assertEquals(0, extraLargeRectMaze.getBegin().getCost(), .01);
+        assertEquals(null, extraLargeRectMaze.getEnd().getPrevious());
+    }
+
+    //Nominal case, open list types, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testOpenListTypesGivenMaze() throws Exception {
+        //link row 1
+        largeMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        largeMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        largeMaze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        largeMaze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        largeMaze.linkPillars(Maze.position(1, 0), Maze.position(1, 1));
+
+        //link row 2
+        largeMaze.linkPillars(Maze.position(1, 1), Maze.position(2, 1));
+        largeMaze.linkPillars(Maze.position(1, 1), Maze.position(1, 2));
+        largeMaze.linkPillars(Maze.position(3, 1), Maze.position(4, 1));
+
+        //link row 3
+        largeMaze.linkPillars(Maze.position(1, 2), Maze.position(1, 3));
+        largeMaze.linkPillars(Maze.position(1, 2), Maze.position(2, 2));
+
+        //link row 4
+        largeMaze.linkPillars(Maze.position(1, 3), Maze.position(0, 3));
+        largeMaze.linkPillars(Maze.position(1, 3), Maze.position(2, 3));
+        largeMaze.linkPillars(Maze.position(3, 3), Maze.position(4, 3));
+        largeMaze.linkPillars(Maze.position(0, 3), Maze.position(0, 4));
+
+        //link row 5
+        largeMaze.linkPillars(Maze.position(0, 4), Maze.position(1, 4));
+        largeMaze.linkPillars(Maze.position(1, 4), Maze.position(2, 4));
+        largeMaze.linkPillars(Maze.position(2, 4), Maze.position(3, 4));
+        largeMaze.linkPillars(Maze.position(3, 4), Maze.position(4, 4));
+
+        //set beginning and end
+        largeMaze.setBegin(Maze.position(0, 0));
+        largeMaze.setEnd(Maze.position(4, 4));
+        for (OpenList.Type type : OpenList.Type.values()) {
+            shortestPath = MazeSolver.pStar(largeMaze, 25, type);
+
+            assertEquals(9, shortestPath.size());
+            assertEquals("<0, 0>", shortestPath.get(0).getCoordinateString());
+            assertEquals("<4, 4>", shortestPath.get(8).getCoordinateString());
+        }
+    }
+
+    //Special, only with plank case, two sweeps, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPlacePlank() throws Exception {
+        //link row 1
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(1, 1));
+
+        //link row 2
+        smallMaze.linkPillars(Maze.position(1, 1), Maze.position(2, 1));
+
+        //link row 3
+        smallMaze.linkPillars(Maze.position(0, 2), Maze.position(1, 2));
+        smallMaze.linkPillars(Maze.position(1, 2), Maze.position(2, 2));
+
+        //set beginning and end
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+        SearchResult result = MazeSolver.placePlank(smallMaze, 9);
+
+        assertEquals(5, result.getPath().size());
+        assertTrue(result.usesPlank());
+        assertEquals(false, result.getPlankStart().getNeighbors().get(result.getPlankEnd()));
+        int plank = result.getPath().indexOf(result.getPlankStart());
+        assertEquals(result.getPlankEnd(), result.getPath().get(plank + 1));
+    }
+
+    //Nominal case, many paths, two sweeps, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPlacePlankNotNeeded() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        smallMaze.linkPillars(Maze.position(2, 0), Maze.position(2, 1));
+        smallMaze.linkPillars(Maze.position(2, 1), Maze.position(2, 2));
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+        SearchResult result = MazeSolver.placePlank(smallMaze, 9);
+
+        assertEquals(5, result.getPath().size());
+        assertFalse(result.usesPlank());
+        assertEquals(null, result.getPlankEnd());
+    }
+
+    //Impossible case, two sweeps, Structured Basis, Data-flow, bad data, compound boundaries, boundary
+    @Test
+    public void testPlacePlankImpossible() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+        SearchResult result = MazeSolver.placePlank(smallMaze, 9);
+
+        assertEquals(null, result.getPath());
+        assertFalse(result.usesPlank());
+    }
+
+    //Stress-test, two sweeps, Structured Basis, Data-flow, good data
+    @Test
+    public void testPlacePlankMatchesPlankSearch() throws Exception {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 300; trial++) {
+            Maze maze = new Maze(6, 6);
+            for (int i = 0; i < maze.size(); i++) {
+                for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                    int n = maze.neighbor(i, d);
+                    if (n >= 0 && random.nextInt(100) < 45) {
+                        maze.linkPillars(Maze.position(i % 6, i / 6), Maze.position(n % 6, n / 6));
+                    }
+                }
+            }
+            maze.setBegin(Maze.position(random.nextInt(6), random.nextInt(6)));
+            maze.setEnd(Maze.position(random.nextInt(6), random.nextInt(6)));
+
+            List<Pillar> expected = MazeSolver.pStar(maze, 36, 1);
+            SearchResult result = MazeSolver.placePlank(maze, 36);
+            if (expected == null) {
+                assertEquals(null, result.getPath());
+            } else {
+                assertEquals(expected.size(), result.getPath().size());
+                PlankSearchTest.assertPathUsesPlanks(maze, result.getPath(), 1);
+            }
+        }
+    }
+
+    //Nominal case, search stats, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testPStarWithStats() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        smallMaze.linkPillars(Maze.position(2, 1), Maze.position(2, 2));
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+
+        for (SearchResult result : new SearchResult[]{MazeSolver.pStarWithStats(smallMaze, 9),
+                MazeSolver.pStarWithStats(smallMaze, 9, 1)}) {
+            assertEquals(5, result.getPath().size());
+            assertTrue(result.usesPlank());
+            assertEquals("<2, 0>", result.getPlankStart().getCoordinateString());
+            assertEquals("<2, 1>", result.getPlankEnd().getCoordinateString());
+
+            SearchStats stats = result.getStats();
+            assertEquals(1, stats.getPlanksUsed());
+            assertTrue(stats.getExpanded() >= 5);
+            assertTrue(stats.getPushes() >= stats.getExpanded());
+            assertTrue(stats.getPeakOpen() >= 1);
+            assertTrue(stats.getClosed() >= stats.getExpanded());
+            assertTrue(stats.getTotalWallNanos() > 0);
+            for (SearchStats.Phase phase : SearchStats.Phase.values()) {
+                assertTrue(stats.getWallNanos(phase) >= 0);
+                assertTrue(stats.getCpuNanos(phase) >= 0);
+            }
+        }
+        assertEquals(1, MazeSolver.pStarWithStats(smallMaze, 9, 2).getStats().getPlanksUsed());
+    }
+
+    //Impossible case, search stats, Structured Basis, Data-flow, bad data, boundary
+    @Test
+    public void testPStarWithStatsWithoutPath() throws Exception {
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+        SearchResult result = MazeSolver.pStarWithStats(smallMaze, 9, 0);
+
+        assertEquals(null, result.getPath());
+        assertFalse(result.usesPlank());
+        assertEquals(-1, result.getStats().getPlanksUsed());
+        assertEquals(1, result.getStats().getExpanded());
+
+        result = MazeSolver.pStarWithStats(smallMaze, 9);
+        assertEquals(null, result.getPath());
+        assertEquals(-1, result.getStats().getPlanksUsed());
+    }
+
+    //Special, reused context case, Structured Basis, Data-flow, good data
+    @Test
+    public void testStatsAreCopied() throws Exception {
+        largeMaze.setBegin(Maze.position(0, 0));
+        largeMaze.setEnd(Maze.position(4, 4));
+        SearchContext context = new SearchContext(largeMaze);
+        MazeSolver.pStar(context);
+        SearchStats first = context.getStats().copy();
+        assertEquals(-1, first.getPlanksUsed());
+        assertEquals(null, MazeSolver.pStar(context));
+        assertEquals(first.getExpanded(), context.getStats().getExpanded());
+
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(0, 0));
+        SearchResult result = MazeSolver.pStarWithStats(smallMaze, 9);
+        assertEquals(1, result.getPath().size());
+        assertEquals(0, result.getStats().getPlanksUsed());
+        assertEquals(first.toString(), first.copy().toString());
+        assertTrue(first.toString().startsWith("expanded=" + first.getExpanded() + " pushes="));
+    }
 }
@@ -1,15 +1,20 @@
 package tests;
 
+import maze.LinkChange;
 import maze.Maze;
+import maze.MazeListener;
 import maze.Pillar;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.*;
@@ -428,4 +433,237 @@ public class MazeTest {
         assertEquals(4, largeMaze.getBegin().getX());
         assertEquals(4, largeMaze.getBegin().getY());
     }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testIndex(){
+        Maze rectMaze = new Maze(4, 3);
+        assertEquals(0, rectMaze.index(0, 0));
+        assertEquals(3, rectMaze.index(3, 0));
+        assertEquals(4, rectMaze.index(0, 1));
+        assertEquals(11, rectMaze.index(3, 2));
+        assertEquals(-1, rectMaze.index(4, 0));
+        assertEquals(-1, rectMaze.index(0, 3));
+        assertEquals(-1, rectMaze.index(-1, 0));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testGetPillarByIndex(){
+        Maze rectMaze = new Maze(4, 3);
+        for (int i = 0; i < rectMaze.size(); i++) {
+            pillar = rectMaze.getPillar(i);
+            assertEquals(i, rectMaze.indexOf(pillar));
+            assertEquals(pillar, rectMaze.getPillars().get(Maze.position(pillar.getX(), pillar.getY())));
+        }
+        assertEquals(null, rectMaze.getPillar(4, 0));
+        assertEquals(rectMaze.getPillar(7), rectMaze.getPillar(3, 1));
+        assertNull(rectMaze.getPillar(-1));
+        assertNull(rectMaze.getPillar(rectMaze.size()));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testGetPillarsView(){
+        int count = 0;
+        for (Map.Entry<Maze.Position, Pillar> entry : largeMaze.getPillars().entrySet()) {
+            assertEquals(entry.getValue(), largePillarMap.get(entry.getKey()));
+            count++;
+        }
+        assertEquals(25, count);
+        assertFalse(largePillarMap.containsKey(Maze.position(5, 0)));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testNeighbor(){
+        Maze rectMaze = new Maze(4, 3);
+        int corner = rectMaze.index(0, 0);
+        assertEquals(rectMaze.index(0, 1), rectMaze.neighbor(corner, Maze.ABOVE));
+        assertEquals(-1, rectMaze.neighbor(corner, Maze.BELOW));
+        assertEquals(rectMaze.index(1, 0), rectMaze.neighbor(corner, Maze.LEFT));
+        assertEquals(-1, rectMaze.neighbor(corner, Maze.RIGHT));
+
+        int edge = rectMaze.index(3, 2);
+        assertEquals(-1, rectMaze.neighbor(edge, Maze.ABOVE));
+        assertEquals(rectMaze.index(3, 1), rectMaze.neighbor(edge, Maze.BELOW));
+        assertEquals(-1, rectMaze.neighbor(edge, Maze.LEFT));
+        assertEquals(rectMaze.index(2, 2), rectMaze.neighbor(edge, Maze.RIGHT));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testBuiltInBands(){
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[][] sizes = {{300, 211}, {1, 40000}, {40000, 1}, {3, 3}};
+            for (int[] size : sizes) {
+                Maze banded = new Maze(size[0], size[1], pool);
+                Maze alone = new Maze(size[0], size[1], null);
+                assertEquals(alone.size(), banded.size());
+                for (int i = 0; i < banded.size(); i++) {
+                    Pillar p = banded.getPillar(i);
+                    assertEquals(alone.getPillar(i).getCoordinateString(), p.getCoordinateString());
+                    for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                        int n = banded.neighbor(i, d);
+                        assertSame(n < 0 ? null : banded.getPillar(n), p.getNeighbor(d));
+                        assertEquals(alone.getPillar(i).getNeighbor(d) == null, p.getNeighbor(d) == null);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testIsLinked() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        assertTrue(smallMaze.isLinked(smallMaze.index(0, 0), Maze.LEFT));
+        assertFalse(smallMaze.isLinked(smallMaze.index(1, 0), Maze.RIGHT));
+        assertFalse(smallMaze.isLinked(smallMaze.index(0, 0), Maze.ABOVE));
+        assertFalse(smallMaze.isLinked(smallMaze.index(0, 0), Maze.RIGHT));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testUnlinkPillars() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        int version = smallMaze.getLinkVersion();
+        smallMaze.unlinkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        assertFalse(smallMaze.isLinked(smallMaze.index(0, 0), Maze.LEFT));
+        assertEquals(false, smallPillarMap.get(Maze.position(0, 0)).getNeighbors().get(new Pillar(1, 0)));
+        assertEquals(version + 1, smallMaze.getLinkVersion());
+
+        //removing a plank that is not there changes nothing
+        smallMaze.unlinkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.unlinkPillars(Maze.position(0, 0), Maze.position(2, 2));
+        assertEquals(version + 1, smallMaze.getLinkVersion());
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testExceptionUnlinkPillars() throws Exception {
+        smallMaze.unlinkPillars(Maze.position(0, 0), Maze.position(3, 0));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testListenersAndBatch() throws Exception {
+        final List<LinkChange> heard = new ArrayList<>();
+        final int[] calls = new int[1];
+        MazeListener listener = new MazeListener() {
+            @Override
+            public void linksChanged(Maze maze, List<LinkChange> changes) {
+                calls[0]++;
+                heard.addAll(changes);
+            }
+        };
+        smallMaze.addListener(listener);
+
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(0, 1));
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(0, 1));
+        assertEquals(1, calls[0]);
+        assertEquals(smallMaze.index(0, 0), heard.get(0).getStart());
+        assertEquals(Maze.ABOVE, heard.get(0).getDirection());
+        assertEquals(smallMaze.index(0, 1), heard.get(0).getEnd());
+        assertTrue(heard.get(0).isLinked());
+
+        //a batch is heard once with only the planks that changed
+        List<LinkChange> changes = smallMaze.batch()
+                .link(Maze.position(1, 1), Maze.position(2, 1))
+                .link(Maze.position(0, 0), Maze.position(0, 1))
+                .unlink(Maze.position(0, 0), Maze.position(0, 1))
+                .apply();
+        assertEquals(2, calls[0]);
+        assertEquals(2, changes.size());
+        assertEquals(3, heard.size());
+        assertFalse(heard.get(2).isLinked());
+        assertTrue(smallMaze.isLinked(smallMaze.index(1, 1), Maze.LEFT));
+        assertFalse(smallMaze.isLinked(smallMaze.index(0, 0), Maze.ABOVE));
+
+        smallMaze.removeListener(listener);
+        smallMaze.unlinkPillars(Maze.position(1, 1), Maze.position(2, 1));
+        assertEquals(2, calls[0]);
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testBatchWithBadPosition() throws Exception {
+        Maze.Batch batch = smallMaze.batch().link(Maze.position(0, 0), Maze.position(1, 0));
+        try {
+            batch.link(Maze.position(2, 2), Maze.position(3, 2));
+            fail("Exception should be thrown for a position outside the maze.");
+        } catch (Exception e) {
+            //the batch was not applied
+            assertFalse(smallMaze.isLinked(smallMaze.index(0, 0), Maze.LEFT));
+        }
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPackedCoordinates() throws Exception {
+        long coordinate = Maze.coordinate(2, 1);
+        assertEquals(2, Maze.xOf(coordinate));
+        assertEquals(1, Maze.yOf(coordinate));
+        assertEquals(smallMaze.index(2, 1), smallMaze.index(coordinate));
+        assertSame(smallMaze.getPillar(2, 1), smallMaze.getPillar(coordinate));
+        assertEquals(-1, Maze.xOf(Maze.coordinate(-1, -2)));
+        assertEquals(-2, Maze.yOf(Maze.coordinate(-1, -2)));
+        assertEquals(-1, smallMaze.index(Maze.coordinate(-1, 0)));
+        assertNull(smallMaze.getPillar(Maze.coordinate(0, 3)));
+
+        smallMaze.linkPillars(Maze.coordinate(0, 0), Maze.coordinate(1, 0));
+        assertTrue(smallMaze.isLinked(smallMaze.index(0, 0), Maze.LEFT));
+        smallMaze.unlinkPillars(Maze.coordinate(0, 0), Maze.coordinate(1, 0));
+        assertFalse(smallMaze.isLinked(smallMaze.index(0, 0), Maze.LEFT));
+
+        smallMaze.setBegin(Maze.coordinate(0, 2));
+        smallMaze.setEnd(Maze.coordinate(2, 2));
+        assertEquals(smallMaze.index(0, 2), smallMaze.beginIndex());
+        assertEquals(smallMaze.index(2, 2), smallMaze.endIndex());
+        smallMaze.setBegin(Maze.coordinate(3, 3));
+        assertEquals(smallMaze.index(0, 2), smallMaze.beginIndex());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testGridIndexes() throws Exception {
+        int from = smallMaze.index(1, 1);
+        int to = smallMaze.index(1, 2);
+        smallMaze.linkPillars(from, to);
+        assertTrue(smallMaze.isLinked(from, Maze.ABOVE));
+        smallMaze.unlinkPillars(from, to);
+        assertFalse(smallMaze.isLinked(from, Maze.ABOVE));
+
+        List<LinkChange> changes = smallMaze.batch().link(from, to)
+                .link(Maze.coordinate(1, 2), Maze.coordinate(1, 1)).unlink(from, to).apply();
+        assertEquals(3, changes.size());
+        assertTrue(smallMaze.isLinked(to, Maze.BELOW));
+        assertFalse(smallMaze.isLinked(from, Maze.ABOVE));
+
+        smallMaze.setBegin(to);
+        smallMaze.setEnd(from);
+        smallMaze.setEnd(-1);
+        assertEquals(to, smallMaze.beginIndex());
+        assertEquals(from, smallMaze.endIndex());
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testExceptionPrimitiveLinks() throws Exception {
+        try {
+            smallMaze.linkPillars(0, smallMaze.size());
+            fail("Exception should be thrown for an index outside the maze.");
+        } catch (Exception e) {
+            assertFalse(smallMaze.isLinked(0, Maze.LEFT));
+        }
+        try {
+            smallMaze.batch().unlink(Maze.coordinate(0, 0), Maze.coordinate(0, -1));
+            fail("Exception should be thrown for a coordinate outside the maze.");
+        } catch (Exception e) {
+            assertEquals(0, smallMaze.getLinkVersion());
+        }
+    }
 }
@@ -0,0 +1,185 @@
+package tests;
+
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.OffHeapSearch;
+import maze.PackedGrid;
+import maze.PlankSearch;
+import maze.SearchStats;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the plank-aware search kept outside the heap.
+ *
+ * @author Shaun Howard
+ */
+public class OffHeapSearchTest {
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testOptimalOnRandomMazes() throws Exception {
+        MazeGenerator generator = new MazeGenerator(21);
+        for (int trial = 0; trial < 20; trial++) {
+            PackedGrid grid = offHeap(generator.random(17, 13, 0.3 + trial * 0.02));
+            assertTrue(grid.isOffHeap());
+            for (int planks = 0; planks <= 2; planks++) {
+                OffHeapSearch search = new OffHeapSearch(grid, planks);
+                PlankSearch plankSearch = new PlankSearch(grid, planks);
+                int[] path = search.findPath();
+                int[] expected = plankSearch.findPath();
+                if (expected == null) {
+                    assertNull(path);
+                    assertEquals(-1, search.planksUsed());
+                    continue;
+                }
+                assertEquals(expected.length, path.length);
+                assertEquals(grid.beginIndex(), path[0]);
+                assertEquals(grid.endIndex(), path[path.length - 1]);
+                assertEquals(unlinkedSteps(grid, path), search.planksUsed());
+                assertTrue(search.planksUsed() <= planks);
+            }
+        }
+    }
+
+    //Special, plank placed case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testPathThroughPlank() throws Exception {
+        PackedGrid grid = PackedGrid.offHeap(4, 1);
+        grid.carve(0, Maze.LEFT);
+        grid.carve(2, Maze.LEFT);
+        grid.setBegin(0);
+        grid.setEnd(3);
+
+        assertNull(new OffHeapSearch(grid, 0).findPath());
+        OffHeapSearch search = new OffHeapSearch(grid, 1);
+        assertArrayEquals(new int[]{0, 1, 2, 3}, search.findPath());
+        assertEquals(1, search.planksUsed());
+        SearchStats stats = search.getStats();
+        assertEquals(1, stats.getPlanksUsed());
+        assertEquals(search.expandedCount(), stats.getExpanded());
+        assertTrue(search.offHeapBytes() >= grid.size() * 2 * 5);
+    }
+
+    //Special, reuse case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testReuseSearch() throws Exception {
+        PackedGrid grid = offHeap(new MazeGenerator(8).perfect(120, 90, MazeGenerator.Algorithm.BACKTRACKER));
+        OffHeapSearch search = new OffHeapSearch(grid, 1);
+        PlankSearch plankSearch = new PlankSearch(grid, 1);
+
+        //the first search reaches more states than are kept, so the next clears every state
+        assertNull(search.findPath(0, -1));
+        assertTrue(search.getStats().getClosed() > grid.size() * 2 / 16);
+        int[] pairs = {0, grid.size() - 1, 57, 3001, 9000, 12, 4444, 4444, 10799, 0};
+        for (int i = 0; i < pairs.length; i += 2) {
+            int[] path = search.findPath(pairs[i], pairs[i + 1]);
+            assertEquals(plankSearch.findPath(pairs[i], pairs[i + 1]).length, path.length);
+            assertEquals(pairs[i], path[0]);
+            assertEquals(pairs[i + 1], path[path.length - 1]);
+        }
+    }
+
+    //Special, heap grid case, Structured Basis, Data-flow, good data
+    @Test
+    public void testHeapGrid() throws Exception {
+        PackedGrid grid = new MazeGenerator(2).corridor(9, 4);
+        assertFalse(grid.isOffHeap());
+        int[] path = new OffHeapSearch(grid, 0).findPath();
+        assertEquals(grid.size(), path.length);
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testNegativePlanks() throws Exception {
+        try {
+            new OffHeapSearch(PackedGrid.offHeap(2, 2), -1);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The number of planks was negative.", e.getMessage());
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testPillarsOutsideGrid() throws Exception {
+        OffHeapSearch search = new OffHeapSearch(PackedGrid.offHeap(2, 2), 1);
+        int[][] pairs = {{-1, 0}, {4, 0}, {0, -2}, {0, 4}};
+        String[] messages = {"The beginning pillar is outside the maze.", "The beginning pillar is outside the maze.",
+                "The end pillar is outside the maze.", "The end pillar is outside the maze."};
+        for (int i = 0; i < pairs.length; i++) {
+            try {
+                search.findPath(pairs[i][0], pairs[i][1]);
+                fail();
+            } catch (Exception e) {
+                assertEquals(messages[i], e.getMessage());
+            }
+        }
+        assertNull(search.findPath(3, -1));
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testWithoutBeginning() throws Exception {
+        try {
+            new OffHeapSearch(PackedGrid.offHeap(2, 2), 0).findPath();
+            fail();
+        } catch (Exception e) {
+            assertEquals("The maze has no beginning pillar.", e.getMessage());
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testTooManyStates() throws Exception {
+        try {
+            new OffHeapSearch(new PackedGrid(65536, 16384), 1);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The grid has too many states to search.", e.getMessage());
+        }
+    }
+
+    /**
+     * Copies a grid into a grid kept outside the heap.
+     */
+    static PackedGrid offHeap(PackedGrid grid) throws Exception {
+        PackedGrid copy = PackedGrid.offHeap(grid.length(), grid.width());
+        for (int i = 0; i < grid.size(); i++) {
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                if (grid.isLinked(i, d)) {
+                    copy.link(i, d);
+                }
+            }
+        }
+        copy.setBegin(grid.beginIndex());
+        copy.setEnd(grid.endIndex());
+        return copy;
+    }
+
+    /**
+     * Counts the steps of a path that need a plank.
+     */
+    static int unlinkedSteps(PackedGrid grid, int[] path) {
+        int unlinked = 0;
+        for (int i = 1; i < path.length; i++) {
+            boolean adjacent = false;
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                if (grid.neighbor(path[i - 1], d) == path[i]) {
+                    adjacent = true;
+                    if (!grid.isLinked(path[i - 1], d)) {
+                        unlinked++;
+                    }
+                }
+            }
+            assertTrue(adjacent);
+        }
+        return unlinked;
+    }
+}
@@ -0,0 +1,163 @@
+package tests;
+
+import maze.BucketQueue;
+import maze.IndexedHeap;
+import maze.OpenList;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the open lists a search may use.
+ *
+ * @author Shaun Howard
+ */
+public class OpenListTest {
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testPopInOrderOfCost(){
+        for (OpenList.Type type : OpenList.Type.values()) {
+            OpenList open = type.create(10);
+            open.push(3, 7);
+            open.push(1, 2);
+            open.push(4, 9);
+            open.push(2, 5);
+            assertEquals(4, open.size());
+            assertEquals(1, open.pop());
+            assertEquals(2, open.pop());
+            assertEquals(3, open.pop());
+            assertEquals(4, open.pop());
+            assertTrue(open.isEmpty());
+        }
+    }
+
+    //Repetition case, Structured Basis, Data-flow, good data
+    @Test
+    public void testClear(){
+        for (OpenList.Type type : OpenList.Type.values()) {
+            OpenList open = type.create(10);
+            open.push(1, 40);
+            open.push(2, 3);
+            open.clear();
+            assertTrue(open.isEmpty());
+            assertEquals(0, open.size());
+
+            open.push(5, 1);
+            assertFalse(open.isEmpty());
+            assertEquals(5, open.pop());
+        }
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testBucketQueueLastInFirstOut(){
+        BucketQueue open = new BucketQueue();
+        open.push(1, 4);
+        open.push(2, 4);
+        open.push(3, 4);
+        assertEquals(3, open.pop());
+        open.push(4, 2);
+        open.push(5, 100);
+        assertEquals(4, open.pop());
+        assertEquals(2, open.pop());
+        assertEquals(1, open.pop());
+        assertEquals(5, open.pop());
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = NoSuchElementException.class)
+    public void testPopEmptyBucketQueue(){
+        new BucketQueue().pop();
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCostBucketQueue(){
+        new BucketQueue().push(1, -1);
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testIndexedHeapDecreaseKey(){
+        IndexedHeap open = new IndexedHeap(8);
+        open.push(1, 10);
+        open.push(2, 20);
+        open.push(3, 30);
+        open.push(3, 5);
+        assertEquals(3, open.size());
+        assertEquals(5, open.priority(3));
+
+        //a greater cost does not replace a lesser one
+        open.push(1, 50);
+        assertEquals(3, open.size());
+        assertEquals(10, open.priority(1));
+
+        assertEquals(3, open.pop());
+        assertFalse(open.contains(3));
+        assertEquals(1, open.pop());
+        assertEquals(2, open.pop());
+        assertTrue(open.isEmpty());
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testIndexedHeapOrderUnderUpdates(){
+        Random random = new Random(3);
+        IndexedHeap open = new IndexedHeap(500);
+        int[] costs = new int[500];
+        for (int i = 0; i < 500; i++) {
+            costs[i] = 1000 + random.nextInt(1000);
+            open.push(i, costs[i]);
+        }
+        for (int i = 0; i < 2000; i++) {
+            int id = random.nextInt(500);
+            costs[id] = Math.min(costs[id], random.nextInt(1500));
+            open.push(id, costs[id]);
+        }
+        assertEquals(500, open.size());
+        int last = -1;
+        while (!open.isEmpty()) {
+            int id = open.pop();
+            assertTrue(costs[id] >= last);
+            last = costs[id];
+        }
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testIndexedHeapUpdateAndRemove(){
+        Random random = new Random(9);
+        IndexedHeap open = new IndexedHeap(300);
+        long[] keys = new long[300];
+        boolean[] removed = new boolean[300];
+        for (int i = 0; i < 300; i++) {
+            keys[i] = ((long) random.nextInt(100) << 32) | random.nextInt(100);
+            open.update(i, keys[i]);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int id = random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                open.remove(id);
+                removed[id] = true;
+            } else {
+                keys[id] = ((long) random.nextInt(100) << 32) | random.nextInt(100);
+                open.update(id, keys[id]);
+                removed[id] = false;
+            }
+        }
+        long last = -1;
+        while (!open.isEmpty()) {
+            assertEquals(keys[open.peek()], open.key(open.peek()));
+            int id = open.pop();
+            assertFalse(removed[id]);
+            assertTrue(keys[id] >= last);
+            last = keys[id];
+        }
+    }
+}
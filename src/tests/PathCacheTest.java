@@ -0,0 +1,157 @@
+package tests;
+
+import maze.Maze;
+import maze.PathCache;
+import maze.Pillar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the cache of shortest paths.
+ *
+ * @author Shaun Howard
+ */
+public class PathCacheTest {
+
+    Maze maze;
+    PathCache cache;
+    List<Pillar> shortestPath;
+
+    @Before
+    public void setUp() throws Exception {
+        //only the first row is linked
+        maze = new Maze(5, 5);
+        maze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        maze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        maze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        maze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        maze.setBegin(Maze.position(0, 0));
+        maze.setEnd(Maze.position(4, 0));
+        cache = new PathCache(2);
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        shortestPath = cache.pStar(maze, 25);
+        assertEquals(5, shortestPath.size());
+        assertSame(shortestPath, cache.pStar(maze, 25));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        //another budget of planks is another search
+        assertEquals(5, cache.pStar(maze, 25, 2).size());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    //Special, stale path case, Structured Basis, Data-flow, good data
+    @Test
+    public void testChangesBumpVersion() throws Exception {
+        int version = maze.getVersion();
+        shortestPath = cache.pStar(maze, 25, 0);
+
+        maze.setEnd(Maze.position(4, 2));
+        assertTrue(maze.getVersion() > version);
+        assertNull(cache.pStar(maze, 25, 0));
+
+        //a path to the new end needs the new plank
+        maze.linkPillars(Maze.position(4, 0), Maze.position(4, 1));
+        maze.linkPillars(Maze.position(4, 1), Maze.position(4, 2));
+        assertEquals(7, cache.pStar(maze, 25, 0).size());
+
+        maze.setBegin(Maze.position(2, 0));
+        assertEquals(5, cache.pStar(maze, 25, 0).size());
+        assertEquals(0, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    //Special, no path case, Structured Basis, Data-flow, good data
+    @Test
+    public void testNoPathIsCached() throws Exception {
+        maze.setEnd(Maze.position(4, 4));
+        assertNull(cache.pStar(maze, 25, 0));
+        assertNull(cache.pStar(maze, 25, 0));
+        assertEquals(1, cache.getHits());
+    }
+
+    //Special, eviction case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        cache.pStar(maze, 25, 0);
+        cache.pStar(maze, 25, 1);
+        cache.pStar(maze, 25, 0);
+        cache.pStar(maze, 25, 2);
+        assertEquals(2, cache.size());
+
+        //the search with one plank was used least recently
+        cache.pStar(maze, 25, 0);
+        assertEquals(2, cache.getHits());
+        cache.pStar(maze, 25, 1);
+        assertEquals(4, cache.getMisses());
+    }
+
+    //Special, read-only path case, Structured Basis
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPathsAreReadOnly() throws Exception {
+        cache.pStar(maze, 25, 0).clear();
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 200; i++) {
+                            if (cache.pStar(maze, 25, i % 3).size() != 5) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+        assertEquals(1600, cache.getHits() + cache.getMisses());
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testBadCapacity() {
+        try {
+            new PathCache(0);
+            fail("Exception should be thrown for a capacity that is not positive.");
+        } catch (Exception e) {
+            assertEquals("The capacity of the cache was not positive.", e.getMessage());
+        }
+    }
+}
@@ -34,34 +34,46 @@ public class PillarTest {
     public void testAddNeighbor(){
         Map<Pillar, Boolean> neighbors;
 
-        pillar3.addNeighbor(pillar2, true);
+        pillar3.addNeighbor(pillar4, true);
         pillar3.addNeighbor(pillar1, true);
         neighbors = pillar3.getNeighbors();
         assertEquals(2, neighbors.size());
-        assertTrue(neighbors.containsKey(pillar2));
+        assertTrue(neighbors.containsKey(pillar4));
         assertTrue(neighbors.containsKey(pillar1));
         assertEquals(true, neighbors.get(pillar1));
-        assertEquals(true, neighbors.get(pillar2));
+        assertEquals(true, neighbors.get(pillar4));
 
-        pillar2.addNeighbor(pillar3, true);
-        pillar2.addNeighbor(pillar1, false);
         pillar2.addNeighbor(pillar4, true);
+        pillar2.addNeighbor(pillar1, false);
         neighbors = pillar2.getNeighbors();
-        assertEquals(3, neighbors.size());
-        assertTrue(neighbors.containsKey(pillar3));
+        assertEquals(2, neighbors.size());
+        assertTrue(neighbors.containsKey(pillar4));
         assertTrue(neighbors.containsKey(pillar1));
         assertEquals(false, neighbors.get(pillar1));
-        assertEquals(true, neighbors.get(pillar3));
         assertEquals(true, neighbors.get(pillar4));
 
+        //adding a neighbor again replaces it
+        pillar2.addNeighbor(pillar1, true);
+        neighbors = pillar2.getNeighbors();
+        assertEquals(2, neighbors.size());
+        assertEquals(true, neighbors.get(pillar1));
+
         pillar1.addNeighbor(pillar2, true);
         pillar1.addNeighbor(pillar3, false);
+        pillar1.addNeighbor(null, true);
         neighbors = pillar1.getNeighbors();
         assertEquals(2, neighbors.size());
         assertTrue(neighbors.containsKey(pillar2));
         assertTrue(neighbors.containsKey(pillar3));
         assertEquals(true, neighbors.get(pillar2));
         assertEquals(false, neighbors.get(pillar3));
+        assertEquals(null, neighbors.get(pillar4));
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddDiagonalNeighbor(){
+        pillar1.addNeighbor(pillar4, true);
     }
 
     //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
@@ -76,19 +88,41 @@ public class PillarTest {
         assertTrue(neighbors.containsKey(pillar2));
         assertTrue(neighbors.containsKey(pillar3));
 
-        pillar2.addNeighbor(pillar3, true);
+        pillar2.addNeighbor(pillar4, true);
         pillar2.addNeighbor(pillar1, true);
         neighbors = pillar2.getNeighbors();
         assertEquals(2, neighbors.size());
-        assertTrue(neighbors.containsKey(pillar3));
+        assertTrue(neighbors.containsKey(pillar4));
         assertTrue(neighbors.containsKey(pillar1));
 
-        pillar3.addNeighbor(pillar2, true);
-        pillar3.addNeighbor(pillar1, true);
-        neighbors = pillar3.getNeighbors();
+        pillar4.addNeighbor(pillar2, true);
+        pillar4.addNeighbor(pillar3, true);
+        neighbors = pillar4.getNeighbors();
         assertEquals(2, neighbors.size());
         assertTrue(neighbors.containsKey(pillar2));
-        assertTrue(neighbors.containsKey(pillar1));
+        assertTrue(neighbors.containsKey(pillar3));
+        assertEquals(2, neighbors.keySet().size());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testNeighborSlots(){
+        pillar1.addNeighbor(pillar2, true);
+        pillar1.addNeighbor(pillar3, false);
+        assertEquals(pillar3, pillar1.getNeighbor(Maze.ABOVE));
+        assertEquals(null, pillar1.getNeighbor(Maze.BELOW));
+        assertEquals(pillar2, pillar1.getNeighbor(Maze.LEFT));
+        assertEquals(null, pillar1.getNeighbor(Maze.RIGHT));
+        assertTrue(pillar1.isLinked(Maze.LEFT));
+        assertFalse(pillar1.isLinked(Maze.ABOVE));
+        assertFalse(pillar1.isLinked(Maze.BELOW));
+        assertEquals(1 << Maze.LEFT, pillar1.getLinks());
+
+        pillar4.addNeighbor(pillar3, true);
+        pillar4.addNeighbor(pillar2, true);
+        assertEquals(pillar3, pillar4.getNeighbor(Maze.RIGHT));
+        assertEquals(pillar2, pillar4.getNeighbor(Maze.BELOW));
+        assertEquals(1 << Maze.RIGHT | 1 << Maze.BELOW, pillar4.getLinks());
     }
 
     //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
@@ -113,11 +147,11 @@ public class PillarTest {
         neighborList = pillar1.getNeighborList(false);
         assertEquals(0, neighborList.size());
 
-        pillar3.addNeighbor(pillar2, true);
+        pillar3.addNeighbor(pillar4, true);
         pillar3.addNeighbor(pillar1, false);
         neighbors = pillar3.getNeighbors();
         assertEquals(2, neighbors.size());
-        assertTrue(neighbors.containsKey(pillar2));
+        assertTrue(neighbors.containsKey(pillar4));
         assertTrue(neighbors.containsKey(pillar1));
 
         //connected neighbors
@@ -128,11 +162,11 @@ public class PillarTest {
         neighborList = pillar3.getNeighborList(false);
         assertEquals(1, neighborList.size());
 
-        pillar2.addNeighbor(pillar3, false);
+        pillar2.addNeighbor(pillar4, false);
         pillar2.addNeighbor(pillar1, false);
         neighbors = pillar2.getNeighbors();
         assertEquals(2, neighbors.size());
-        assertTrue(neighbors.containsKey(pillar3));
+        assertTrue(neighbors.containsKey(pillar4));
         assertTrue(neighbors.containsKey(pillar1));
 
         //connected neighbors
@@ -143,12 +177,12 @@ public class PillarTest {
         neighborList = pillar2.getNeighborList(false);
         assertEquals(2, neighborList.size());
 
-        pillar2.addNeighbor(pillar3, true);
-        pillar2.addNeighbor(pillar1, false);
         pillar2.addNeighbor(pillar4, true);
+        pillar2.addNeighbor(pillar1, false);
+        pillar2.addNeighbor(new Pillar(2, 0), true);
         neighbors = pillar2.getNeighbors();
         assertEquals(3, neighbors.size());
-        assertTrue(neighbors.containsKey(pillar3));
+        assertTrue(neighbors.containsKey(pillar4));
         assertTrue(neighbors.containsKey(pillar1));
 
         //connected neighbors
@@ -0,0 +1,297 @@
+package tests;
+
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.MazeSolver;
+import maze.OpenList;
+import maze.PackedGrid;
+import maze.PlankSearch;
+import maze.SearchStats;
+import maze.Pillar;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the plank-aware state-space search.
+ *
+ * @author Shaun Howard
+ */
+public class PlankSearchTest {
+
+    Maze smallMaze;
+    Maze largeMaze;
+    List<Pillar> shortestPath;
+
+    @Before
+    public void setUp() {
+        smallMaze = new Maze(3, 3);
+        largeMaze = new Maze(5, 5);
+    }
+
+    //Special, blocked arrival case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testArrivalWithoutPlanksDoesNotBlock() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(1, 1));
+        smallMaze.linkPillars(Maze.position(2, 0), Maze.position(2, 1));
+        smallMaze.linkPillars(Maze.position(0, 1), Maze.position(0, 2));
+        smallMaze.linkPillars(Maze.position(1, 1), Maze.position(1, 2));
+        smallMaze.linkPillars(Maze.position(0, 2), Maze.position(1, 2));
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+
+        //P* expands <1, 2> after reaching it with no planks left
+        assertNull(MazeSolver.pStar(smallMaze, 9));
+
+        shortestPath = MazeSolver.pStar(smallMaze, 9, 1);
+        assertEquals(5, shortestPath.size());
+        assertEquals("<0, 0>", shortestPath.get(0).getCoordinateString());
+        assertEquals("<1, 0>", shortestPath.get(1).getCoordinateString());
+        assertEquals("<1, 1>", shortestPath.get(2).getCoordinateString());
+        assertEquals("<1, 2>", shortestPath.get(3).getCoordinateString());
+        assertEquals("<2, 2>", shortestPath.get(4).getCoordinateString());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testPlankBudgets() throws Exception {
+        //only the first row is linked
+        largeMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        largeMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        largeMaze.linkPillars(Maze.position(2, 0), Maze.position(3, 0));
+        largeMaze.linkPillars(Maze.position(3, 0), Maze.position(4, 0));
+        largeMaze.setBegin(Maze.position(0, 0));
+        largeMaze.setEnd(Maze.position(4, 2));
+
+        PlankSearch none = new PlankSearch(largeMaze, 0);
+        assertNull(none.solve());
+        assertEquals(-1, none.planksUsed());
+
+        PlankSearch one = new PlankSearch(largeMaze, 1);
+        assertNull(one.solve());
+
+        PlankSearch two = new PlankSearch(largeMaze, 2);
+        shortestPath = two.solve();
+        assertEquals(7, shortestPath.size());
+        assertEquals(2, two.planksUsed());
+
+        PlankSearch three = new PlankSearch(largeMaze, 3);
+        assertEquals(7, three.solve().size());
+        assertEquals(2, three.planksUsed());
+    }
+
+    //Repetition case, Structured Basis, Data-flow, good data
+    @Test
+    public void testReuseSearch() throws Exception {
+        smallMaze.linkPillars(Maze.position(0, 0), Maze.position(1, 0));
+        smallMaze.linkPillars(Maze.position(1, 0), Maze.position(2, 0));
+        smallMaze.linkPillars(Maze.position(2, 0), Maze.position(2, 1));
+        smallMaze.setBegin(Maze.position(0, 0));
+        smallMaze.setEnd(Maze.position(2, 2));
+
+        PlankSearch search = new PlankSearch(smallMaze, 1);
+        assertEquals(5, search.solve().size());
+        assertEquals(5, search.solve().size());
+        assertEquals(1, search.planksUsed());
+        assertTrue(search.expandedCount() > 0);
+
+        //the stats are of the last search only
+        SearchStats stats = search.getStats();
+        assertEquals(search.expandedCount(), stats.getExpanded());
+        assertEquals(1, stats.getPlanksUsed());
+        assertTrue(stats.getClosed() >= stats.getExpanded());
+        assertTrue(stats.getPushes() >= stats.getPeakOpen());
+        assertTrue(stats.getPushes() < 2 * 9 * 4);
+    }
+
+    //Special, CPU time turned off case, Structured Basis, Data-flow, good data
+    @Test
+    public void testCpuTimeLeftOff() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadCpuTimeSupported()) {
+            return;
+        }
+        boolean enabled = threads.isThreadCpuTimeEnabled();
+        threads.setThreadCpuTimeEnabled(false);
+        try {
+            smallMaze.setBegin(Maze.position(0, 0));
+            smallMaze.setEnd(Maze.position(2, 2));
+            PlankSearch search = new PlankSearch(smallMaze, 4);
+            assertEquals(5, search.solve().size());
+            assertFalse(threads.isThreadCpuTimeEnabled());
+            for (SearchStats.Phase phase : SearchStats.Phase.values()) {
+                assertEquals(0, search.getStats().getCpuNanos(phase));
+            }
+        } finally {
+            threads.setThreadCpuTimeEnabled(enabled);
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testNegativePlanks() throws Exception {
+        new PlankSearch(smallMaze, -1);
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testPillarsOutsideMaze() throws Exception {
+        PlankSearch search = new PlankSearch(smallMaze, 1);
+        int[][] pairs = {{-1, 0}, {9, 0}, {0, -2}, {0, 9}};
+        String[] messages = {"The beginning pillar is outside the maze.", "The beginning pillar is outside the maze.",
+                "The end pillar is outside the maze.", "The end pillar is outside the maze."};
+        for (int i = 0; i < pairs.length; i++) {
+            try {
+                search.findPath(pairs[i][0], pairs[i][1]);
+                fail();
+            } catch (Exception e) {
+                assertEquals(messages[i], e.getMessage());
+            }
+        }
+        try {
+            search.solve(9, 0);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The beginning pillar is outside the maze.", e.getMessage());
+        }
+        assertNull(search.findPath(0, -1));
+    }
+
+    //Bad data, Structured Basis
+    @Test(expected = Exception.class)
+    public void testWithoutBeginning() throws Exception {
+        new PlankSearch(smallMaze, 1).solve();
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testSolveGridWithoutPillars() throws Exception {
+        PackedGrid grid = new MazeGenerator(5).corridor(4, 4);
+        PlankSearch search = new PlankSearch(grid, 0);
+        assertEquals(grid.size(), search.findPath().length);
+        try {
+            search.solve();
+            fail();
+        } catch (Exception e) {
+            assertEquals("The grid has no pillars to give, use findPath().", e.getMessage());
+        }
+        try {
+            search.solve(0, 1);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The grid has no pillars to give, use findPath().", e.getMessage());
+        }
+    }
+
+    //Special, reuse after a large search case, Structured Basis, Data-flow, good data
+    @Test
+    public void testReuseAfterClearingEveryState() throws Exception {
+        PackedGrid grid = new MazeGenerator(8).perfect(120, 90, MazeGenerator.Algorithm.BACKTRACKER);
+        PlankSearch search = new PlankSearch(grid, 1);
+
+        //the first search reaches more states than are kept, so the next clears every state
+        assertNull(search.findPath(0, -1));
+        assertTrue(search.getStats().getClosed() > grid.size() * 2 / 16);
+        int[] pairs = {0, grid.size() - 1, 57, 3001, 9000, 12, 4444, 4444};
+        for (int i = 0; i < pairs.length; i += 2) {
+            int[] path = search.findPath(pairs[i], pairs[i + 1]);
+            assertEquals(new PlankSearch(grid, 1).findPath(pairs[i], pairs[i + 1]).length, path.length);
+            assertEquals(pairs[i], path[0]);
+            assertEquals(pairs[i + 1], path[path.length - 1]);
+        }
+    }
+
+    //Stress-test, Structured Basis, Data-flow, good data
+    @Test
+    public void testOptimalOnRandomMazes() throws Exception {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 300; trial++) {
+            Maze maze = new Maze(6, 5);
+            for (int i = 0; i < maze.size(); i++) {
+                for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                    int n = maze.neighbor(i, d);
+                    if (n >= 0 && random.nextInt(100) < 40) {
+                        maze.linkPillars(Maze.position(i % 6, i / 6), Maze.position(n % 6, n / 6));
+                    }
+                }
+            }
+            maze.setBegin(Maze.position(random.nextInt(6), random.nextInt(5)));
+            maze.setEnd(Maze.position(random.nextInt(6), random.nextInt(5)));
+            for (int planks = 0; planks <= 2; planks++) {
+                int expected = breadthFirstLength(maze, planks);
+                for (OpenList.Type type : OpenList.Type.values()) {
+                    shortestPath = MazeSolver.pStar(maze, 30, planks, type);
+                    if (expected < 0) {
+                        assertNull(shortestPath);
+                    } else {
+                        assertEquals(expected, shortestPath.size());
+                        assertPathUsesPlanks(maze, shortestPath, planks);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the number of pillars along the shortest path through the
+     * maze with a breadth first search over pillars and planks left.
+     */
+    static int breadthFirstLength(Maze maze, int planks) {
+        int stride = planks + 1;
+        int[] distance = new int[maze.size() * stride];
+        Arrays.fill(distance, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int begin = maze.indexOf(maze.getBegin()) * stride + planks;
+        int end = maze.indexOf(maze.getEnd());
+        distance[begin] = 1;
+        queue.add(begin);
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            if (v / stride == end) {
+                return distance[v];
+            }
+            for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                int u = maze.neighbor(v / stride, d);
+                int n = maze.isLinked(v / stride, d) ? v % stride : v % stride - 1;
+                if (u >= 0 && n >= 0 && distance[u * stride + n] < 0) {
+                    distance[u * stride + n] = distance[v] + 1;
+                    queue.add(u * stride + n);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks that each step of the path is between neighbors and
+     * that no more than the given number of planks were placed.
+     */
+    static void assertPathUsesPlanks(Maze maze, List<Pillar> path, int planks) {
+        int used = 0;
+        for (int i = 1; i < path.size(); i++) {
+            Pillar from = path.get(i - 1);
+            Pillar to = path.get(i);
+            Boolean linked = from.getNeighbors().get(to);
+            if (linked == null) {
+                fail("Path stepped between pillars that are not neighbors.");
+            }
+            if (!linked) {
+                used++;
+            }
+        }
+        assertTrue(used <= planks);
+    }
+}
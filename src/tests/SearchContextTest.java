@@ -0,0 +1,79 @@
+package tests;
+
+import maze.Maze;
+import maze.Pillar;
+import maze.SearchContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the search context class.
+ *
+ * @author Shaun Howard
+ */
+public class SearchContextTest {
+
+    Maze smallMaze;
+    SearchContext context;
+
+    @Before
+    public void setUp(){
+        smallMaze = new Maze(3, 3);
+        context = new SearchContext(smallMaze);
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testInitialState(){
+        for (int i = 0; i < smallMaze.size(); i++) {
+            assertEquals(-1, context.getPrevious(i));
+            assertEquals(0, context.getDistanceFromBegin(i));
+            assertEquals(0, context.getHeuristic(i));
+            assertEquals(0, context.getPlanksLeft(i));
+            assertFalse(context.isExplored(i));
+        }
+        assertEquals(smallMaze, context.getMaze());
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data
+    @Test
+    public void testCost(){
+        context.setDistanceFromBegin(4, 3);
+        context.setHeuristic(4, 2);
+        assertEquals(5, context.getCost(4));
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries, boundary
+    @Test
+    public void testShortestPath(){
+        context.setPrevious(smallMaze.index(1, 0), smallMaze.index(0, 0));
+        context.setPrevious(smallMaze.index(1, 1), smallMaze.index(1, 0));
+        List<Pillar> path = context.shortestPath(smallMaze.index(1, 1));
+        assertEquals(3, path.size());
+        assertEquals("<0, 0>", path.get(0).getCoordinateString());
+        assertEquals("<1, 0>", path.get(1).getCoordinateString());
+        assertEquals("<1, 1>", path.get(2).getCoordinateString());
+    }
+
+    //Repetition case, Structured Basis, Data-flow, good data
+    @Test
+    public void testReset(){
+        context.explore(2);
+        context.setPrevious(2, 1);
+        context.setPlanksLeft(2, 1);
+        assertTrue(context.isExplored(2));
+        assertEquals(1, context.exploredCount());
+
+        context.reset();
+        assertFalse(context.isExplored(2));
+        assertEquals(0, context.exploredCount());
+        assertEquals(-1, context.getPrevious(2));
+        assertEquals(0, context.getPlanksLeft(2));
+    }
+}
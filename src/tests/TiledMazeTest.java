@@ -0,0 +1,187 @@
+package tests;
+
+import maze.Maze;
+import maze.MazeGenerator;
+import maze.OffHeapSearch;
+import maze.PackedGrid;
+import maze.PlankSearch;
+import maze.TiledMaze;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the maze kept on disk as tiles.
+ *
+ * @author Shaun Howard
+ */
+public class TiledMazeTest {
+
+    File file;
+    File state;
+    PackedGrid grid;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("maze", ".pmt");
+        state = File.createTempFile("search", ".state");
+        grid = new MazeGenerator(13).random(45, 37, 0.55);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        state.delete();
+    }
+
+    //Nominal case, Structured Basis, Data-flow, good data, compound boundaries
+    @Test
+    public void testSameAsGrid() throws Exception {
+        TiledMaze.write(grid, file, 8);
+        try (TiledMaze maze = TiledMaze.open(file, 4 * 32)) {
+            assertEquals(45, maze.length());
+            assertEquals(37, maze.width());
+            assertEquals(grid.beginIndex(), maze.beginIndex());
+            assertEquals(grid.endIndex(), maze.endIndex());
+            assertEquals(4 * 32, maze.maxBytes());
+            for (int i = 0; i < grid.size(); i++) {
+                for (int d = 0; d < Maze.DIRECTIONS; d++) {
+                    assertEquals(grid.isLinked(i, d), maze.isLinked(i, d));
+                    assertEquals(grid.isLinkedFrom(i, d), maze.isLinkedFrom(i, d));
+                }
+            }
+            for (int planks = 0; planks <= 2; planks++) {
+                int[] expected = new PlankSearch(grid, planks).findPath();
+                int[] path = new PlankSearch(maze, planks).findPath();
+                assertEquals(expected == null, path == null);
+                if (path != null) {
+                    assertEquals(expected.length, path.length);
+                }
+                assertTrue(maze.tilesHeld() <= 4);
+            }
+            TiledMaze.Counters counters = maze.getCounters();
+            assertTrue(counters.getEvictions() > 0);
+            assertEquals(0, counters.getWrites());
+            assertEquals(counters.getReads() * 32, counters.getBytesRead());
+            assertEquals(counters.getMisses(), counters.getReads() - counters.getReadAheads());
+        }
+    }
+
+    //Special, linking case, Structured Basis, Data-flow, good data, boundary
+    @Test
+    public void testLinksWrittenBack() throws Exception {
+        TiledMaze.create(file, 10, 7, 4);
+        try (TiledMaze maze = TiledMaze.open(file, 8)) {
+            for (int x = 0; x < 9; x++) {
+                maze.link(x, Maze.LEFT);
+                maze.link(x + 1, Maze.RIGHT);
+            }
+            maze.link(9, Maze.ABOVE);
+            maze.link(9, Maze.LEFT);
+            maze.unlink(9, Maze.ABOVE);
+            maze.setBegin(0);
+            maze.setEnd(9);
+            assertTrue(maze.getCounters().getWrites() > 0);
+        }
+        try (TiledMaze maze = TiledMaze.open(file, 1024)) {
+            assertEquals(0, maze.beginIndex());
+            assertEquals(9, maze.endIndex());
+            assertFalse(maze.isLinked(9, Maze.ABOVE));
+            assertTrue(maze.isLinked(4, Maze.LEFT));
+            assertTrue(maze.isLinkedFrom(4, Maze.LEFT));
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, new PlankSearch(maze, 0).findPath());
+        }
+    }
+
+    //Special, read ahead case, Structured Basis, Data-flow, good data
+    @Test
+    public void testReadAheadTowardEnd() throws Exception {
+        PackedGrid corridor = new MazeGenerator(4).corridor(64, 64);
+        TiledMaze.write(corridor, file, 8);
+        int expected = new PlankSearch(corridor, 1).findPath().length;
+        try (TiledMaze maze = TiledMaze.open(file, 64 * 32)) {
+            assertEquals(expected, new PlankSearch(maze, 1).findPath().length);
+            assertTrue(maze.getCounters().getReadAheads() > 0);
+            assertEquals(64, maze.getCounters().getReads());
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (TiledMaze maze = TiledMaze.open(file, 64 * 32, executor)) {
+            assertEquals(expected, new PlankSearch(maze, 1).findPath().length);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertTrue(maze.getCounters().getReads() <= 64);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //Special, mapped search state case, Structured Basis, Data-flow, good data
+    @Test
+    public void testOffHeapSearchWithMappedState() throws Exception {
+        TiledMaze.write(grid, file, 6);
+        try (TiledMaze maze = TiledMaze.open(file, 3 * 18)) {
+            OffHeapSearch search = new OffHeapSearch(maze, 2, state);
+            assertEquals(grid.size() * 3L * 5, state.length());
+            for (int i = 0; i < 2; i++) {
+                int[] expected = new PlankSearch(grid, 2).findPath();
+                int[] path = search.findPath();
+                assertEquals(expected == null, path == null);
+                if (path != null) {
+                    assertEquals(expected.length, path.length);
+                }
+            }
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testBadTileSize() throws Exception {
+        int[] sizes = {0, 3, 4098};
+        for (int size : sizes) {
+            try {
+                TiledMaze.create(file, 4, 4, size);
+                fail();
+            } catch (Exception e) {
+                assertEquals("The tile size must be even and from 2 to 4096.", e.getMessage());
+            }
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testMemoryCannotHoldTile() throws Exception {
+        TiledMaze.create(file, 4, 4, 4);
+        try {
+            TiledMaze.open(file, 7);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The memory given cannot hold a tile.", e.getMessage());
+        }
+    }
+
+    //Bad data, Structured Basis
+    @Test
+    public void testNotTiledFile() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[30]);
+        }
+        try {
+            TiledMaze.open(file, 1024);
+            fail();
+        } catch (Exception e) {
+            assertEquals("The file is not a tiled maze file.", e.getMessage());
+        }
+    }
+}